@@ -21,7 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * AOT Bean 工厂初始化处理器注解
@@ -58,7 +58,7 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
  * @since 1.0.0
  */
 @Documented
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(TYPE)
 public @interface AotBeanFactoryInitialization {
 }
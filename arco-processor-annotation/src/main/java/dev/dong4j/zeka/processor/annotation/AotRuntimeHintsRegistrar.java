@@ -21,7 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * AOT 运行时提示注册器注解
@@ -64,7 +64,7 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
  * @since 1.0.0
  */
 @Documented
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(TYPE)
 public @interface AotRuntimeHintsRegistrar {
 
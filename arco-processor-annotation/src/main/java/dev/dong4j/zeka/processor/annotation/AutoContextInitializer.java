@@ -21,7 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * 自动应用上下文初始化器注解
@@ -57,7 +57,7 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
  * @see org.springframework.context.ApplicationContextInitializer
  */
 @Documented
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(TYPE)
 public @interface AutoContextInitializer {
 }
@@ -21,7 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * 自动环境后置处理器注解
@@ -58,7 +58,7 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
  * @see org.springframework.boot.env.EnvironmentPostProcessor
  */
 @Documented
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(TYPE)
 public @interface AutoEnvPostProcessor {
 }
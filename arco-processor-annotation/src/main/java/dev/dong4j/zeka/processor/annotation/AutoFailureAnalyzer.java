@@ -21,7 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * 自动故障分析器注解
@@ -57,7 +57,7 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
  * @see org.springframework.boot.diagnostics.FailureAnalyzer
  */
 @Documented
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(TYPE)
 public @interface AutoFailureAnalyzer {
 }
@@ -21,7 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * 自动 Spring 应用运行监听器注解
@@ -61,7 +61,7 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
  * @see org.springframework.boot.SpringApplicationRunListener
  */
 @Documented
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(TYPE)
 public @interface AutoRunListener {
 }
@@ -74,7 +74,7 @@ import java.lang.annotation.Target;
  * @see java.util.ServiceLoader
  */
 @Documented
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 @Target(ElementType.TYPE)
 public @interface AutoService {
     /**
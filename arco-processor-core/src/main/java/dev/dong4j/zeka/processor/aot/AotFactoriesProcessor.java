@@ -21,10 +21,16 @@ import dev.dong4j.zeka.processor.annotation.AotBeanFactoryInitialization;
 import dev.dong4j.zeka.processor.annotation.AotBeanRegistration;
 import dev.dong4j.zeka.processor.annotation.AotRuntimeHintsRegistrar;
 import dev.dong4j.zeka.processor.common.AbstractMicaProcessor;
+import dev.dong4j.zeka.processor.common.AnalyzedType;
 import dev.dong4j.zeka.processor.common.AotAutoType;
+import dev.dong4j.zeka.processor.common.FactoriesFiles;
+import dev.dong4j.zeka.processor.common.FactoriesIndex;
+import dev.dong4j.zeka.processor.common.GeneratedResources;
 import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Category;
+import dev.dong4j.zeka.processor.common.ResourceState;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -86,6 +92,10 @@ public class AotFactoriesProcessor extends AbstractMicaProcessor {
     private static final String FACTORIES_RESOURCE_LOCATION = "META-INF/spring/aot.factories";
     /** AOT 配置数据存储容器，键为配置类型，值为实现类集合 */
     private final MultiSetMap<String, String> factories = new MultiSetMap<>();
+    /** 来源记录名称 */
+    private static final String STATE_NAME = "aot";
+    /** 本次编译扫描出的配置及其来源类型 */
+    private final ResourceState contributions = new ResourceState();
     /** 注解处理环境中的元素工具类，用于获取类型信息 */
     private Elements elementUtils;
 
@@ -104,6 +114,11 @@ public class AotFactoriesProcessor extends AbstractMicaProcessor {
         ).collect(Collectors.toSet());
     }
 
+    @Override
+    protected Category getLogCategory() {
+        return Category.AOT;
+    }
+
     @Override
     protected boolean processImpl(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         if (roundEnv.processingOver()) {
@@ -118,42 +133,29 @@ public class AotFactoriesProcessor extends AbstractMicaProcessor {
     /**
      * 处理扫描到的 AOT 注解元素
      *
+     * <p>类型分类由 {@link dev.dong4j.zeka.processor.common.ProcessingContext} 在本轮统一完成，这里只消费分类结果。</p>
+     *
      * @param annotations 当前轮次中需要处理的注解类型集合
      * @param roundEnv    当前处理轮次的环境信息
      */
     private void processAnnotations(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         // 输出调试信息，可通过 gradle build --debug 查看
-        log(annotations.toString());
-        Set<? extends Element> elementSet = roundEnv.getRootElements();
-        log("All Element set: " + elementSet.toString());
-
-        // 过滤出类或接口类型的元素
-        Set<TypeElement> typeElementSet = elementSet.stream()
-            .filter(this::isClassOrInterface)
-            .filter(TypeElement.class::isInstance)
-            .map(TypeElement.class::cast)
-            .collect(Collectors.toSet());
-        // 如果没有找到任何符合条件的元素，直接返回
-        if (typeElementSet.isEmpty()) {
-            log("Annotations elementSet is isEmpty");
-            return;
-        }
-
-        for (TypeElement typeElement : typeElementSet) {
-            // 遍历所有支持的 AOT 注解类型，检查当前元素是否被标记
-            for (AotAutoType autoType : AotAutoType.values()) {
-                String annotation = autoType.getAnnotation();
-                if (isAnnotation(elementUtils, typeElement, annotation)) {
-                    log("Found @" + annotation + " Element: " + typeElement.toString());
-
-                    String factoryName = typeElement.getQualifiedName().toString();
-                    if (factories.containsVal(factoryName)) {
-                        continue;
-                    }
-
-                    log("读取到新配置 aot.factories factoryName：" + factoryName);
-                    factories.put(autoType.getConfigureKey(), factoryName);
+        log("Annotations: {}", annotations);
+        for (AnalyzedType analyzedType : analyze(roundEnv).getTypes()) {
+            Set<AotAutoType> autoTypes = analyzedType.getAotTypes();
+            if (autoTypes.isEmpty()) {
+                continue;
+            }
+            String factoryName = analyzedType.getQualifiedName();
+            for (AotAutoType autoType : autoTypes) {
+                log("Found @{} Element: {}", autoType.getAnnotation(), factoryName);
+                if (factories.containsVal(factoryName)) {
+                    continue;
                 }
+
+                log("读取到新配置 aot.factories factoryName：{}", factoryName);
+                factories.put(autoType.getConfigureKey(), factoryName);
+                contributions.add(analyzedType.getElement(), FACTORIES_RESOURCE_LOCATION, autoType.getConfigureKey(), factoryName);
             }
         }
     }
@@ -162,13 +164,20 @@ public class AotFactoriesProcessor extends AbstractMicaProcessor {
      * 生成 aot.factories 配置文件
      *
      * <p>该方法将收集到的所有 AOT 配置信息合并并写入到 META-INF/spring/aot.factories 文件中。
-     * 支持增量编译，会合并已有的配置文件内容。</p>
+     * 支持增量编译：存在上一次编译的来源记录时，只替换本次重新编译或已删除的类型的贡献；
+     * 没有来源记录时回退到读取已有文件。</p>
      */
     private void generateFactoriesFiles() {
-        if (factories.isEmpty()) {
+        Filer filer = processingEnv.getFiler();
+        ResourceState previous = ResourceState.read(filer, STATE_NAME);
+        if (previous == null && factories.isEmpty()) {
             return;
         }
-        Filer filer = processingEnv.getFiler();
+        ResourceState merged = new ResourceState();
+        if (previous != null) {
+            merged.addAll(previous, this::isRetained);
+        }
+        merged.addAll(contributions, origin -> true);
         try {
             // 用于存储所有 aot.factories 配置的容器
             MultiSetMap<String, String> allFactories = new MultiSetMap<>();
@@ -176,34 +185,52 @@ public class AotFactoriesProcessor extends AbstractMicaProcessor {
             // 1. 读取用户手动编写的 aot.factories 文件
             try {
                 FileObject existingFactoriesFile = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
-                log("Looking for existing aot.factories file at " + existingFactoriesFile.toUri());
-                MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, elementUtils);
-                log("Existing aot.factories entries: " + existingFactories);
+                log("Looking for existing aot.factories file at {}", existingFactoriesFile);
+                MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, existingTypes::exists);
+                trace("Existing aot.factories entries: {}", existingFactories);
                 allFactories.putAll(existingFactories);
             } catch (IOException e) {
                 log("aot.factories resource file not found.");
             }
 
-            // 2. 读取增量编译时已存在的 aot.factories 文件
-            try {
-                FileObject existingFactoriesFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
-                log("Looking for existing aot.factories file at " + existingFactoriesFile.toUri());
-                MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, elementUtils);
-                log("Existing aot.factories entries: " + existingFactories);
-                allFactories.putAll(existingFactories);
-            } catch (IOException e) {
-                log("aot.factories resource file did not already exist.");
+            // 2. 没有来源记录时，读取增量编译时已存在的 aot.factories 文件，只保留本模块的类，条目以自身作为来源类型
+            if (previous == null) {
+                try {
+                    FileObject existingFactoriesFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
+                    log("Looking for existing aot.factories file at {}", existingFactoriesFile);
+                    MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, existingTypes::isModuleType);
+                    trace("Existing aot.factories entries: {}", existingFactories);
+                    for (String key : existingFactories.keySet()) {
+                        for (String value : existingFactories.get(key)) {
+                            merged.add(value, FACTORIES_RESOURCE_LOCATION, key, value);
+                        }
+                    }
+                } catch (IOException e) {
+                    log("aot.factories resource file did not already exist.");
+                }
             }
 
-            // 3. 合并当前注解处理器扫描出来的新配置
-            allFactories.putAll(factories);
-            log("New aot.factories file contents: " + allFactories);
+            // 3. 合并沿用的条目和当前注解处理器扫描出来的新配置
+            allFactories.putAll(merged.getEntries(FACTORIES_RESOURCE_LOCATION));
+            trace("New aot.factories file contents: {}", allFactories);
 
             // 创建并写入最终的 AOT 配置文件
-            FileObject factoriesFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
-            try (OutputStream out = factoriesFile.openOutputStream()) {
-                FactoriesFiles.writeFactoriesFile(allFactories, out);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            FactoriesFiles.writeFactoriesFile(allFactories, out);
+            byte[] content = out.toByteArray();
+            Element[] originatingElements = merged.getOriginatingElements(FACTORIES_RESOURCE_LOCATION);
+            if (GeneratedResources.writeIfChanged(filer, FACTORIES_RESOURCE_LOCATION, content, originatingElements)) {
+                log("Wrote to: {}", FACTORIES_RESOURCE_LOCATION);
+            } else {
+                log("aot.factories unchanged, skip writing.");
+            }
+            // 运行时使用的二进制索引
+            if (FactoriesIndex.isEnabled(processingEnv)
+                && FactoriesIndex.write(filer, FACTORIES_RESOURCE_LOCATION,
+                    FactoriesFiles.sortFactories(allFactories), content, originatingElements)) {
+                log("Wrote to: {}", FactoriesIndex.getLocation(FACTORIES_RESOURCE_LOCATION));
             }
+            merged.write(filer, STATE_NAME);
         } catch (IOException e) {
             fatalError(e);
         }
@@ -16,16 +16,21 @@
 
 package dev.dong4j.zeka.processor.common;
 
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Category;
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Level;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.QualifiedNameable;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
@@ -39,7 +44,7 @@ import javax.tools.Diagnostic.Kind;
  *
  * <p><strong>核心功能：</strong></p>
  * <ul>
- *   <li>支持组合注解的递归解析</li>
+ *   <li>支持组合注解的递归解析，元注解闭包按编译缓存</li>
  *   <li>提供元素类型判断的便捷方法</li>
  *   <li>统一的错误处理和日志机制</li>
  *   <li>注解镜像获取和比较</li>
@@ -48,7 +53,7 @@ import javax.tools.Diagnostic.Kind;
  * <p><strong>设计特点：</strong></p>
  * <ul>
  *   <li>异常安全：所有异常都会被捕获并转换为编译错误</li>
- *   <li>调试友好：支持调试模式的详细日志输出</li>
+ *   <li>调试友好：按级别和分类输出诊断日志，未启用时不产生格式化开销</li>
  *   <li>扩展性强：子类只需实现 {@link #processImpl} 方法</li>
  * </ul>
  *
@@ -56,6 +61,71 @@ import javax.tools.Diagnostic.Kind;
  * @since 1.0.0
  */
 public abstract class AbstractMicaProcessor extends AbstractProcessor {
+    /** 同一次编译中各处理器共享的上下文 */
+    protected ProcessingContext context;
+    /** 元注解闭包缓存，每次编译创建一次 */
+    protected MetaAnnotationCache metaAnnotations;
+    /** 诊断日志，使用本处理器的 {@code Messager} */
+    protected ProcessorLogger logger;
+    /** 已有配置项的存在性校验，使用本处理器的 {@code Filer} */
+    protected ExistingTypes existingTypes;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        context = ProcessingContext.get(processingEnv);
+        metaAnnotations = context.getMetaAnnotations();
+        logger = new ProcessorLogger(processingEnv.getMessager(), processingEnv.getOptions());
+        for (String error : context.validateOptions(processingEnv.getOptions())) {
+            fatalError(error);
+        }
+        existingTypes = new ExistingTypes(processingEnv.getFiler(), processingEnv.getElementUtils());
+    }
+
+    /**
+     * 获取本轮的类型分类表，同一次编译的各处理器共享，同一轮内只计算一次
+     *
+     * @param roundEnv 当前处理轮次的环境信息
+     * @return 类型分类表
+     */
+    protected RoundAnalysis analyze(RoundEnvironment roundEnv) {
+        return context.analyze(roundEnv, logger);
+    }
+
+    /**
+     * 判断上一次编译记录的来源类型是否仍然有效
+     *
+     * <p>本次重新编译的类型会重新贡献条目，已删除的类型不再贡献条目，两者在上一次的记录中都应被丢弃。</p>
+     *
+     * @param origin 来源类型全限定名
+     * @return 本次未重新编译且仍然存在返回 {@code true}
+     * @see ResourceState
+     */
+    protected boolean isRetained(String origin) {
+        return !context.isCompiled(origin) && existingTypes.exists(origin);
+    }
+
+    /**
+     * 在 {@code @SupportedOptions} 声明的选项之外，追加 {@link ProcessorLogger} 的日志选项和 {@link FactoriesIndex} 的索引选项
+     *
+     * @return 支持的编译选项
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new LinkedHashSet<>(super.getSupportedOptions());
+        options.addAll(ProcessorLogger.OPTIONS);
+        options.add(FactoriesIndex.OPTION);
+        return options;
+    }
+
+    /**
+     * 日志分类，子类按生成的文件覆盖
+     *
+     * @return 日志分类
+     */
+    protected Category getLogCategory() {
+        return Category.ANALYSIS;
+    }
 
     @Override
     public SourceVersion getSupportedSourceVersion() {
@@ -79,6 +149,11 @@ public abstract class AbstractMicaProcessor extends AbstractProcessor {
         } catch (Exception e) {
             fatalError(e);
             return false;
+        } finally {
+            if (roundEnv.processingOver()) {
+                logger.flush();
+                ProcessingContext.release(processingEnv);
+            }
         }
     }
 
@@ -120,7 +195,7 @@ public abstract class AbstractMicaProcessor extends AbstractProcessor {
      * 获取指定元素上的注解镜像，支持组合注解
      *
      * <p>该方法不仅能找到直接标注的注解，还能递归查找组合注解（元注解）。
-     * 这使得自定义注解可以组合使用，提供更好的扩展性。</p>
+     * 这使得自定义注解可以组合使用，提供更好的扩展性。递归只沿着元注解闭包中包含目标注解的路径进行。</p>
      *
      * @param elementUtils       元素工具类，用于获取注解信息
      * @param e                  要检查的程序元素
@@ -128,21 +203,36 @@ public abstract class AbstractMicaProcessor extends AbstractProcessor {
      * @return 找到的注解镜像，如果未找到则返回 {@code null}
      */
     protected AnnotationMirror getAnnotation(Elements elementUtils, Element e, String annotationFullName) {
+        return getAnnotation(elementUtils, e, elementUtils.getName(annotationFullName), 0);
+    }
+
+    /**
+     * 沿元注解闭包查找注解镜像
+     *
+     * @param elementUtils 元素工具类
+     * @param e            要检查的程序元素
+     * @param target       要查找的注解全限定名
+     * @param depth        当前递归深度
+     * @return 找到的注解镜像，如果未找到则返回 {@code null}
+     */
+    private AnnotationMirror getAnnotation(Elements elementUtils, Element e, Name target, int depth) {
+        if (depth > MetaAnnotationCache.MAX_DEPTH) {
+            return null;
+        }
         List<? extends AnnotationMirror> annotationList = elementUtils.getAllAnnotationMirrors(e);
         for (AnnotationMirror annotation : annotationList) {
+            TypeElement annotationType = MetaAnnotationCache.asTypeElement(annotation);
             // 如果是对的注解
-            if (isAnnotation(annotationFullName, annotation)) {
+            if (target.equals(annotationType.getQualifiedName())) {
                 return annotation;
             }
-            // 处理组合注解
-            Element element = annotation.getAnnotationType().asElement();
-            String elementStr = element.toString();
-            // 如果是 lombok 的注解, java 或 kotlin 元注解，继续循环
-            if (elementStr.startsWith("lombok") || elementStr.startsWith("java.lang") || elementStr.startsWith("kotlin.")) {
-                continue;
+            // 只在闭包包含目标注解时才展开组合注解
+            if (metaAnnotations.getMetaAnnotations(annotationType).contains(target)) {
+                AnnotationMirror found = getAnnotation(elementUtils, annotationType, target, depth + 1);
+                if (found != null) {
+                    return found;
+                }
             }
-            // 递归处理 组合注解
-            return getAnnotation(elementUtils, element, annotationFullName);
         }
         return null;
     }
@@ -151,7 +241,7 @@ public abstract class AbstractMicaProcessor extends AbstractProcessor {
      * 判断指定元素是否被特定注解标记，支持组合注解
      *
      * <p>该方法是 {@link #getAnnotation} 方法的简化版本，只返回布尔值结果。
-     * 同样支持组合注解的递归查找。</p>
+     * 组合注解通过 {@link MetaAnnotationCache} 中缓存的元注解闭包判断，不会重复展开。</p>
      *
      * @param elementUtils       元素工具类
      * @param e                  要检查的程序元素
@@ -159,25 +249,7 @@ public abstract class AbstractMicaProcessor extends AbstractProcessor {
      * @return 如果找到匹配的注解则返回 {@code true}，否则返回 {@code false}
      */
     protected boolean isAnnotation(Elements elementUtils, Element e, String annotationFullName) {
-        List<? extends AnnotationMirror> annotationList = elementUtils.getAllAnnotationMirrors(e);
-        for (AnnotationMirror annotation : annotationList) {
-            // 如果是对于的注解
-            if (isAnnotation(annotationFullName, annotation)) {
-                return true;
-            }
-            // 处理组合注解
-            Element element = annotation.getAnnotationType().asElement();
-            String elementStr = element.toString();
-            // 如果是 java 元注解，继续循环
-            if (elementStr.startsWith("java.lang") || elementStr.startsWith("kotlin.")) {
-                continue;
-            }
-            // 递归处理 组合注解
-            if (isAnnotation(elementUtils, element, annotationFullName)) {
-                return true;
-            }
-        }
-        return false;
+        return metaAnnotations.isAnnotated(elementUtils, e, elementUtils.getName(annotationFullName));
     }
 
     /**
@@ -207,15 +279,44 @@ public abstract class AbstractMicaProcessor extends AbstractProcessor {
     /**
      * 输出调试日志信息
      *
-     * <p>只有在编译选项中包含 "debug" 参数时才会输出日志。
+     * <p>日志级别和分类通过 {@link ProcessorLogger} 的编译选项控制，兼容原有的 "debug" 参数。
      * 可通过 Maven 编译器插件的 compilerArgs 配置启用。</p>
      *
      * @param msg 要输出的日志消息
      */
     protected void log(String msg) {
-        if (processingEnv.getOptions().containsKey("debug")) {
-            processingEnv.getMessager().printMessage(Kind.NOTE, msg);
-        }
+        logger.log(Level.DEBUG, getLogCategory(), msg);
+    }
+
+    /**
+     * 输出调试日志信息，未启用时不会格式化消息
+     *
+     * @param format 格式串，使用 {@code {}} 作为占位符
+     * @param arg    参数
+     */
+    protected void log(String format, Object arg) {
+        logger.log(Level.DEBUG, getLogCategory(), format, arg);
+    }
+
+    /**
+     * 输出调试日志信息，未启用时不会格式化消息
+     *
+     * @param format 格式串，使用 {@code {}} 作为占位符
+     * @param arg1   第一个参数
+     * @param arg2   第二个参数
+     */
+    protected void log(String format, Object arg1, Object arg2) {
+        logger.log(Level.DEBUG, getLogCategory(), format, arg1, arg2);
+    }
+
+    /**
+     * 输出数据量较大的跟踪日志，例如完整的配置文件内容，未启用时不会格式化消息
+     *
+     * @param format 格式串，使用 {@code {}} 作为占位符
+     * @param arg    参数
+     */
+    protected void trace(String format, Object arg) {
+        logger.log(Level.TRACE, getLogCategory(), format, arg);
     }
 
     /**
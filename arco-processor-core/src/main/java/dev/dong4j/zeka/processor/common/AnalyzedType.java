@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.util.EnumSet;
+import javax.lang.model.element.TypeElement;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 类型分类结果
+ *
+ * <p>记录一个类或接口在共享分析阶段得到的全部分类信息，供各个文件生成器直接使用，
+ * 生成器不再自行解析注解。</p>
+ *
+ * @author L.cm
+ * @see RoundAnalysis
+ * @since 1.0.0
+ */
+@Getter
+@RequiredArgsConstructor
+public class AnalyzedType {
+    /** 类型元素 */
+    private final TypeElement element;
+    /** 类型全限定名 */
+    private final String qualifiedName;
+    /** 满足的 spring.factories 注册目标 */
+    private final EnumSet<BootAutoType> bootTypes;
+    /** 满足的 aot.factories 注册目标 */
+    private final EnumSet<AotAutoType> aotTypes;
+    /** 是否被 {@code @AutoIgnore} 标记 */
+    private final boolean ignored;
+    /** 是否被 {@code @FeignClient} 标记 */
+    private final boolean feignClient;
+    /** 是否为继承自 ZekaStackStarter 的启动类 */
+    private final boolean startClass;
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * 注解分类器
+ *
+ * <p>一次遍历类型上的注解，返回该类型满足的全部注册目标（{@link BootAutoType}、{@link AotAutoType} 等枚举）。
+ * 目标注解在构造时一次性解析为 {@link Name}，每个注解类型满足的目标集合通过 {@link MetaAnnotationCache}
+ * 计算一次后缓存，之后的匹配只是 {@link EnumSet} 的按位合并，不会再拼接字符串。</p>
+ *
+ * <p><strong>示例用法：</strong></p>
+ * <pre>{@code
+ * AnnotationClassifier<BootAutoType> classifier =
+ *     new AnnotationClassifier<>(elementUtils, metaAnnotations, BootAutoType.class, BootAutoType::getAnnotation);
+ * EnumSet<BootAutoType> autoTypes = classifier.classify(typeElement);
+ * }</pre>
+ *
+ * @param <E> 注册目标枚举类型
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class AnnotationClassifier<E extends Enum<E>> {
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 元注解闭包缓存 */
+    private final MetaAnnotationCache metaAnnotations;
+    /** 注册目标枚举类型 */
+    private final Class<E> type;
+    /** 目标注解全限定名 -> 注册目标 */
+    private final Map<Name, E> targets = new HashMap<>();
+    /** 注解全限定名 -> 该注解（含元注解）满足的注册目标 */
+    private final Map<Name, EnumSet<E>> matches = new HashMap<>();
+
+    /**
+     * 构造注解分类器
+     *
+     * @param elementUtils    元素工具类
+     * @param metaAnnotations 元注解闭包缓存
+     * @param type            注册目标枚举类型
+     * @param annotationOf    获取枚举值对应目标注解全限定名的函数
+     */
+    public AnnotationClassifier(Elements elementUtils, MetaAnnotationCache metaAnnotations,
+                                Class<E> type, Function<E, String> annotationOf) {
+        this.elementUtils = elementUtils;
+        this.metaAnnotations = metaAnnotations;
+        this.type = type;
+        for (E constant : type.getEnumConstants()) {
+            targets.put(elementUtils.getName(annotationOf.apply(constant)), constant);
+        }
+    }
+
+    /**
+     * 对程序元素进行分类
+     *
+     * @param e 要分类的程序元素
+     * @return 元素满足的全部注册目标，按枚举声明顺序迭代；没有匹配时为空集合
+     */
+    public EnumSet<E> classify(Element e) {
+        EnumSet<E> result = EnumSet.noneOf(type);
+        for (AnnotationMirror annotation : elementUtils.getAllAnnotationMirrors(e)) {
+            result.addAll(matchesOf(MetaAnnotationCache.asTypeElement(annotation)));
+        }
+        return result;
+    }
+
+    /**
+     * 获取注解类型满足的注册目标
+     *
+     * @param annotationType 注解类型
+     * @return 注册目标集合，调用方不可修改
+     */
+    public EnumSet<E> matchesOf(TypeElement annotationType) {
+        Name name = annotationType.getQualifiedName();
+        EnumSet<E> matched = matches.get(name);
+        if (matched == null) {
+            matched = EnumSet.noneOf(type);
+            Set<Name> closure = metaAnnotations.getMetaAnnotations(annotationType);
+            for (Map.Entry<Name, E> target : targets.entrySet()) {
+                if (closure.contains(target.getKey())) {
+                    matched.add(target.getValue());
+                }
+            }
+            matches.put(name, matched);
+        }
+        return matched;
+    }
+
+}
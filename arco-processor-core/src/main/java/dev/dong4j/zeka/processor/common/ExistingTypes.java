@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.processing.Filer;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * 已有配置项的存在性校验
+ *
+ * <p>增量编译时，已生成的配置文件中的每一项都需要确认对应的类仍然存在，以便移除已删除的类。
+ * 直接调用 {@link Elements#getTypeElement} 会让 javac 为每一项加载并补全符号，
+ * 其中大部分类与本次改动无关。本类按以下顺序判断，结果在整个编译期间缓存：</p>
+ * <ol>
+ *   <li>{@code CLASS_OUTPUT} 中存在对应的 {@code .class} 文件：类的源文件未被删除，
+ *   构建工具在删除源文件时会同时删除其产物，只需一次文件存在性检查</li>
+ *   <li>否则回退到 {@link Elements#getTypeElement}：覆盖本次新增的类、依赖中的类和嵌套类</li>
+ * </ol>
+ *
+ * <p>{@link #isModuleType} 只做第一步，用于没有来源记录时筛选已有文件中属于本模块的条目。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class ExistingTypes {
+    /** 文件管理器 */
+    private final Filer filer;
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 类全限定名 -> 是否存在 */
+    private final Map<String, Boolean> resolved = new HashMap<>();
+    /** 类全限定名 -> 是否存在于 {@code CLASS_OUTPUT} */
+    private final Map<String, Boolean> moduleTypes = new HashMap<>();
+
+    /**
+     * 创建存在性校验
+     *
+     * @param filer        文件管理器
+     * @param elementUtils 元素工具类
+     */
+    public ExistingTypes(Filer filer, Elements elementUtils) {
+        this.filer = filer;
+        this.elementUtils = elementUtils;
+    }
+
+    /**
+     * 判断类是否存在
+     *
+     * @param className 类全限定名
+     * @return 存在返回 {@code true}
+     */
+    public synchronized boolean exists(String className) {
+        Boolean exists = resolved.get(className);
+        if (exists == null) {
+            exists = hasClassFile(className) || elementUtils.getTypeElement(className) != null;
+            resolved.put(className, exists);
+        }
+        return exists;
+    }
+
+    /**
+     * 判断类是否为本模块编译产生的类，即 {@code CLASS_OUTPUT} 中存在对应的 {@code .class} 文件，不加载符号
+     *
+     * <p>依赖中的类（例如 Spring Boot 的 {@code ApplicationPidFileWriter}）不属于本模块，返回 {@code false}。
+     * 以 {@code .} 分隔的嵌套类名会依次按 {@code $} 分隔的二进制名称查找。</p>
+     *
+     * @param className 类全限定名或二进制名称
+     * @return 是本模块的类返回 {@code true}
+     */
+    public synchronized boolean isModuleType(String className) {
+        Boolean exists = moduleTypes.get(className);
+        if (exists == null) {
+            String binaryName = className;
+            exists = hasClassFile(binaryName);
+            int separator;
+            while (!exists && (separator = binaryName.lastIndexOf('.')) > 0) {
+                binaryName = binaryName.substring(0, separator) + '$' + binaryName.substring(separator + 1);
+                exists = hasClassFile(binaryName);
+            }
+            moduleTypes.put(className, exists);
+        }
+        return exists;
+    }
+
+    /**
+     * 判断 {@code CLASS_OUTPUT} 中是否存在类对应的 {@code .class} 文件
+     *
+     * @param className 类全限定名
+     * @return 存在返回 {@code true}
+     */
+    private boolean hasClassFile(String className) {
+        try {
+            FileObject classFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", className.replace('.', '/') + ".class");
+            return classFile.getLastModified() > 0L;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import javax.tools.FileObject;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Spring Boot 配置文件读写工具类
+ *
+ * <p>该工具类提供了 Spring Boot 相关配置文件的读取和写入功能，{@code AutoFactoriesProcessor}
+ * 和 {@code AotFactoriesProcessor} 共用同一份实现，包括：</p>
+ * <ul>
+ *   <li>{@code META-INF/spring.factories} 与 {@code META-INF/spring/aot.factories} 文件的读写</li>
+ *   <li>{@code META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports} 文件的读写</li>
+ *   <li>支持增量编译时的配置合并</li>
+ *   <li>自动验证配置类的有效性</li>
+ * </ul>
+ *
+ * <p><strong>流式解析：</strong>{@link #parse} 按 {@link java.util.Properties} 的行格式逐字符解析
+ * （注释行、反斜杠续行、转义字符和 Unicode 转义），并按逗号拆分值，每得到一个键值对立即回调，
+ * 不经过 {@code Properties}（{@code Hashtable}）、{@code String.split} 和 Stream 的中间集合。
+ * 回调顺序与文件中的出现顺序一致。</p>
+ *
+ * <p><strong>文件格式示例：</strong></p>
+ * <pre>
+ * # spring.factories 格式
+ * org.springframework.boot.autoconfigure.EnableAutoConfiguration=\
+ *   com.example.config.DatabaseAutoConfiguration,\
+ *   com.example.config.CacheAutoConfiguration
+ *
+ * # AutoConfiguration.imports 格式
+ * com.example.config.DatabaseAutoConfiguration
+ * com.example.config.CacheAutoConfiguration
+ * </pre>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+public class FactoriesFiles {
+    /** 默认字符编码 */
+    private static final Charset UTF_8 = StandardCharsets.UTF_8;
+
+    /**
+     * 读取 spring.factories 配置文件
+     *
+     * <p>流式解析 Properties 格式的 spring.factories 文件，键值对按出现顺序直接写入多值映射。
+     * 会自动过滤掉不满足条件的类，例如通过 {@link ExistingTypes#exists} 过滤已删除的类。</p>
+     *
+     * @param fileObject 要读取的文件对象
+     * @param filter     类名过滤条件，只保留返回 {@code true} 的值
+     * @return 包含配置信息的多值映射
+     * @throws IOException 读取文件时发生的 IO 异常
+     */
+    public static MultiSetMap<String, String> readFactoriesFile(FileObject fileObject, Predicate<String> filter) throws IOException {
+        MultiSetMap<String, String> multiSetMap = new MultiSetMap<>();
+        try (Reader reader = new InputStreamReader(fileObject.openInputStream(), UTF_8)) {
+            parse(reader, (key, value) -> {
+                // 验证类是否存在，过滤掉已删除的类
+                if (filter.test(value)) {
+                    multiSetMap.put(key, value);
+                }
+            });
+        }
+        return multiSetMap;
+    }
+
+    /**
+     * 流式解析 spring.factories 格式的内容
+     *
+     * <p>每个逻辑行的值按逗号拆分，去除首尾空白后非空的值与键一起回调一次。</p>
+     *
+     * @param reader  内容，调用方负责关闭
+     * @param handler 键值对回调，参数依次为键和单个值
+     * @throws IOException 读取失败或存在非法的 Unicode 转义
+     */
+    public static void parse(Reader reader, BiConsumer<String, String> handler) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        // 逻辑行与当前记号，整个文件内复用
+        StringBuilder logical = new StringBuilder(256);
+        StringBuilder token = new StringBuilder(128);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            int start = skipWhitespace(line, 0);
+            // 注释只在逻辑行的开头识别，续行中的 # 和 ! 属于值
+            if (logical.length() == 0
+                && (start == line.length() || line.charAt(start) == '#' || line.charAt(start) == '!')) {
+                continue;
+            }
+            boolean continued = isContinued(line);
+            logical.append(line, start, continued ? line.length() - 1 : line.length());
+            if (!continued) {
+                parseEntry(logical, token, handler);
+                logical.setLength(0);
+            }
+        }
+        // 文件以续行符结束
+        if (logical.length() > 0) {
+            parseEntry(logical, token, handler);
+        }
+    }
+
+    /**
+     * 解析一个逻辑行
+     *
+     * @param line    逻辑行
+     * @param token   复用的记号缓冲区
+     * @param handler 键值对回调
+     * @throws IOException 存在非法的 Unicode 转义
+     */
+    private static void parseEntry(CharSequence line, StringBuilder token, BiConsumer<String, String> handler) throws IOException {
+        int length = line.length();
+        int i = 0;
+        // 1. 键：到第一个未转义的 =、: 或空白为止
+        token.setLength(0);
+        while (i < length) {
+            char c = line.charAt(i);
+            if (c == '=' || c == ':' || isWhitespace(c)) {
+                break;
+            }
+            if (c == '\\') {
+                i = unescape(line, i + 1, token);
+            } else {
+                token.append(c);
+                i++;
+            }
+        }
+        if (token.length() == 0) {
+            return;
+        }
+        String key = token.toString();
+        // 2. 分隔符：空白、可选的一个 = 或 :、空白
+        i = skipWhitespace(line, i);
+        if (i < length && (line.charAt(i) == '=' || line.charAt(i) == ':')) {
+            i++;
+        }
+        // 3. 值：反转义后按逗号拆分，与 Spring 先加载 Properties 再按逗号拆分的行为一致
+        token.setLength(0);
+        while (i < length) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                int before = token.length();
+                i = unescape(line, i + 1, token);
+                if (token.length() > before && token.charAt(before) == ',') {
+                    token.setLength(before);
+                    emit(key, token, handler);
+                }
+            } else if (c == ',') {
+                emit(key, token, handler);
+                i++;
+            } else {
+                token.append(c);
+                i++;
+            }
+        }
+        emit(key, token, handler);
+    }
+
+    /**
+     * 回调去除首尾空白后的非空值，并清空记号缓冲区
+     *
+     * @param key     键
+     * @param token   记号缓冲区
+     * @param handler 键值对回调
+     */
+    private static void emit(String key, StringBuilder token, BiConsumer<String, String> handler) {
+        int start = 0;
+        int end = token.length();
+        while (start < end && Character.isWhitespace(token.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(token.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end) {
+            handler.accept(key, token.substring(start, end));
+        }
+        token.setLength(0);
+    }
+
+    /**
+     * 解析反斜杠之后的转义字符，并追加到记号缓冲区
+     *
+     * @param line  逻辑行
+     * @param i     反斜杠之后的位置
+     * @param token 记号缓冲区
+     * @return 转义序列之后的位置
+     * @throws IOException 非法的 Unicode 转义
+     */
+    private static int unescape(CharSequence line, int i, StringBuilder token) throws IOException {
+        if (i >= line.length()) {
+            return i;
+        }
+        char c = line.charAt(i++);
+        switch (c) {
+            case 't':
+                token.append('\t');
+                break;
+            case 'n':
+                token.append('\n');
+                break;
+            case 'r':
+                token.append('\r');
+                break;
+            case 'f':
+                token.append('\f');
+                break;
+            case 'u':
+                if (i + 4 > line.length()) {
+                    throw new IOException("Malformed \\uxxxx encoding.");
+                }
+                int value = 0;
+                for (int end = i + 4; i < end; i++) {
+                    int digit = Character.digit(line.charAt(i), 16);
+                    if (digit < 0) {
+                        throw new IOException("Malformed \\uxxxx encoding.");
+                    }
+                    value = (value << 4) + digit;
+                }
+                token.append((char) value);
+                break;
+            default:
+                token.append(c);
+        }
+        return i;
+    }
+
+    /**
+     * 判断物理行是否以奇数个反斜杠结尾（续行）
+     *
+     * @param line 物理行
+     * @return 续行返回 {@code true}
+     */
+    private static boolean isContinued(String line) {
+        int count = 0;
+        for (int i = line.length() - 1; i >= 0 && line.charAt(i) == '\\'; i--) {
+            count++;
+        }
+        return (count & 1) == 1;
+    }
+
+    private static int skipWhitespace(CharSequence line, int i) {
+        while (i < line.length() && isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    /**
+     * 读取 AutoConfiguration.imports 配置文件
+     *
+     * <p>解析纯文本格式的 AutoConfiguration.imports 文件，每行一个配置类名，保持文件中的顺序。
+     * 会自动过滤掉注释行（以 # 开头的行）、空行和已删除的类。</p>
+     *
+     * @param fileObject 要读取的文件对象
+     * @param filter     类名过滤条件，只保留返回 {@code true} 的类
+     * @return 包含自动配置类名的集合
+     * @throws IOException 读取文件时发生的 IO 异常
+     */
+    public static Set<String> readAutoConfigurationImports(FileObject fileObject, Predicate<String> filter) throws IOException {
+        Set<String> set = new LinkedHashSet<>();
+        try (
+            InputStream input = fileObject.openInputStream();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, UTF_8))
+        ) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#") && filter.test(line)) {
+                    set.add(line);
+                }
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 写出 spring.factories 配置文件
+     *
+     * <p>将配置信息写入 Properties 格式的文件，使用反斜杠和换行符进行格式化，
+     * 提高文件的可读性。每个配置项的值会用逗号分隔并适当缩进。</p>
+     *
+     * <p>键和值均按字典序输出，统一使用 {@code \n} 换行，相同的输入总是得到逐字节相同的文件，
+     * 与 JVM、平台和合并顺序无关，构建缓存可以稳定命中。</p>
+     *
+     * @param factories 要写入的配置信息
+     * @param output    输出流
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    public static void writeFactoriesFile(MultiSetMap<String, String> factories,
+                                   OutputStream output) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+        MultiSetMap<String, String> sorted = sortFactories(factories);
+
+        for (String key : sorted.keySet()) {
+            // 写入配置键
+            writer.write(key);
+            writer.write("=\\\n  ");
+
+            // 写入配置值，使用逗号分隔并换行缩进
+            StringJoiner joiner = new StringJoiner(",\\\n  ");
+            for (String value : sorted.get(key)) {
+                joiner.add(value);
+            }
+            writer.write(joiner.toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * 按 spring.factories 文件中的顺序排列配置，键和值均按字典序，省略没有值的键
+     *
+     * @param factories 配置信息
+     * @return 排序后的副本
+     */
+    public static MultiSetMap<String, String> sortFactories(MultiSetMap<String, String> factories) {
+        MultiSetMap<String, String> sorted = new MultiSetMap<>();
+        for (String key : new TreeSet<>(factories.keySet())) {
+            Set<String> values = factories.get(key);
+            if (values != null && !values.isEmpty()) {
+                sorted.putAll(key, new TreeSet<>(values));
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * 写出 AutoConfiguration.imports 配置文件
+     *
+     * <p>将自动配置类名写入纯文本格式的文件，每行一个类名，按给定的顺序排列并以换行结尾。
+     * 这是 Spring Boot 2.7+ 推荐的新格式。Spring Boot 加载时会先按类名排序再应用
+     * {@code @AutoConfigureOrder}、{@code @AutoConfigureAfter} 等顺序约束，因此文件中的顺序不影响生效顺序。</p>
+     *
+     * @param allAutoConfigurationImports 要写入的自动配置类名，按写出的顺序排列
+     * @param output                      输出流
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    public static void writeAutoConfigurationImportsFile(Collection<String> allAutoConfigurationImports, OutputStream output) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+        for (String configurationImport : allAutoConfigurationImports) {
+            writer.write(configurationImport);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+}
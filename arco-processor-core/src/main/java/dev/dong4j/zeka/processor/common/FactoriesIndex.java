@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 配置文件的二进制索引
+ *
+ * <p>与 {@code spring.factories}、{@code aot.factories} 一同生成，
+ * 由 {@code arco-processor-runtime} 在启动时一次性读入，省去逐行解析文本。索引位于
+ * {@code META-INF/arco/} 下与文本文件相同的相对路径，例如 {@code META-INF/arco/spring.factories.idx}。</p>
+ *
+ * <p><strong>文件格式</strong>（大端序，与 {@code dev.dong4j.zeka.processor.runtime.FactoriesIndex} 保持一致）：</p>
+ * <pre>
+ * int    魔数 0x4152434F ("ARCO")
+ * short  版本号
+ * long   对应文本文件的字节长度
+ * int    对应文本文件内容的 CRC32，运行时与 jar 目录中记录的长度和 CRC32 比较，判断索引是否过期
+ * int    字符串数量，随后每个字符串为 unsigned short 字节长度 + UTF-8 字节，按字典序排列且不重复
+ * int    键数量，随后每个键为 键字符串下标、值的起始偏移、值的数量
+ * int    值数量，随后每个值为字符串下标
+ * </pre>
+ *
+ * <p>键和值按调用方给出的顺序写入，调用方需传入与文本文件相同的顺序，例如 {@code spring.factories} 按字典序。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+public class FactoriesIndex {
+    /** 是否生成索引的编译选项，默认生成 */
+    public static final String OPTION = "arco.index";
+    /** 魔数 "ARCO" */
+    static final int MAGIC = 0x4152434F;
+    /** 格式版本号 */
+    static final short VERSION = 2;
+    /** 配置文件的公共目录 */
+    private static final String META_INF = "META-INF/";
+    /** 索引目录 */
+    private static final String INDEX_DIRECTORY = "META-INF/arco/";
+    /** 索引文件后缀 */
+    private static final String SUFFIX = ".idx";
+
+    /**
+     * 判断是否生成索引
+     *
+     * @param processingEnv 注解处理环境
+     * @return 未通过 {@code -Aarco.index=false} 关闭时返回 {@code true}
+     */
+    public static boolean isEnabled(ProcessingEnvironment processingEnv) {
+        return !"false".equalsIgnoreCase(processingEnv.getOptions().get(OPTION));
+    }
+
+    /**
+     * 获取文本文件对应的索引位置
+     *
+     * @param resource 文本文件的相对路径，例如 {@code META-INF/spring.factories}
+     * @return 索引的相对路径，例如 {@code META-INF/arco/spring.factories.idx}
+     */
+    public static String getLocation(String resource) {
+        return INDEX_DIRECTORY + resource.substring(META_INF.length()) + SUFFIX;
+    }
+
+    /**
+     * 内容有变化时写出文本文件对应的索引
+     *
+     * @param filer               文件管理器
+     * @param resource            文本文件的相对路径
+     * @param entries             与文本文件内容和顺序一致的键值
+     * @param source              文本文件的完整内容
+     * @param originatingElements 来源元素
+     * @return 发生写入返回 {@code true}
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    public static boolean write(Filer filer, String resource, MultiSetMap<String, String> entries, byte[] source,
+                                Element... originatingElements) throws IOException {
+        return GeneratedResources.writeIfChanged(filer, getLocation(resource),
+            toByteArray(entries, source), originatingElements);
+    }
+
+    /**
+     * 将键值编码为索引，键和值保持给定的顺序
+     *
+     * @param entries 键 -> 值集合
+     * @param source  对应文本文件的完整内容
+     * @return 索引内容
+     * @throws IOException 编码时发生的 IO 异常
+     */
+    static byte[] toByteArray(MultiSetMap<String, String> entries, byte[] source) throws IOException {
+        // 字符串表：键和值去重后按字典序排列，只影响下标，不影响键值的顺序
+        Set<String> strings = new TreeSet<>();
+        Set<String> keys = entries.keySet();
+        strings.addAll(keys);
+        for (String key : keys) {
+            strings.addAll(entries.get(key));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(source, 0, source.length);
+        Map<String, Integer> indexes = new HashMap<>(strings.size() * 2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(strings.size() * 64 + 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(source.length);
+        out.writeInt((int) crc.getValue());
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            indexes.put(string, indexes.size());
+            out.writeShort(utf8.length);
+            out.write(utf8);
+        }
+        // 键表：每个键指向值表中的一段连续区间
+        List<Integer> values = new ArrayList<>();
+        out.writeInt(keys.size());
+        for (String key : keys) {
+            Set<String> keyValues = entries.get(key);
+            out.writeInt(indexes.get(key));
+            out.writeInt(values.size());
+            out.writeInt(keyValues.size());
+            for (String value : keyValues) {
+                values.add(indexes.get(value));
+            }
+        }
+        out.writeInt(values.size());
+        for (int value : values) {
+            out.writeInt(value);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+}
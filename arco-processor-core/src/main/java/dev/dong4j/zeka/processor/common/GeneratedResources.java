@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.StandardLocation;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 生成资源文件的写出工具类
+ *
+ * <p>生成器先在内存中得到最终的文件内容，再与输出位置（默认为 {@code CLASS_OUTPUT}）中已有的同名文件逐字节比较，
+ * 内容相同时跳过写入。未变化的文件保持原有的修改时间，增量编译不会因此触发下游的打包任务、
+ * Spring Boot repackage 或 IDE 重新索引。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+public class GeneratedResources {
+    /** 比较时的读取缓冲区大小 */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 内容有变化时写出 {@code CLASS_OUTPUT} 下的资源文件
+     *
+     * @param filer               文件管理器
+     * @param resourceName        资源文件的相对路径，例如 {@code META-INF/spring.factories}
+     * @param content             文件的完整内容
+     * @param originatingElements 生成该文件的来源元素，供 Gradle 等构建工具跟踪增量编译
+     * @return 发生写入返回 {@code true}，内容未变化返回 {@code false}
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    public static boolean writeIfChanged(Filer filer, String resourceName, byte[] content,
+                                         Element... originatingElements) throws IOException {
+        return writeIfChanged(filer, StandardLocation.CLASS_OUTPUT, resourceName, content, originatingElements);
+    }
+
+    /**
+     * 内容有变化时写出指定位置下的资源文件，例如 {@code SOURCE_OUTPUT} 下的报告
+     *
+     * @param filer               文件管理器
+     * @param location            输出位置
+     * @param resourceName        资源文件的相对路径
+     * @param content             文件的完整内容
+     * @param originatingElements 生成该文件的来源元素，供 Gradle 等构建工具跟踪增量编译
+     * @return 发生写入返回 {@code true}，内容未变化返回 {@code false}
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    public static boolean writeIfChanged(Filer filer, Location location, String resourceName, byte[] content,
+                                         Element... originatingElements) throws IOException {
+        if (isUnchanged(filer, location, resourceName, content)) {
+            return false;
+        }
+        FileObject fileObject = filer.createResource(location, "", resourceName, originatingElements);
+        try (OutputStream out = fileObject.openOutputStream()) {
+            out.write(content);
+        }
+        return true;
+    }
+
+    /**
+     * 判断 {@code CLASS_OUTPUT} 中是否存在资源文件
+     *
+     * @param filer        文件管理器
+     * @param resourceName 资源文件的相对路径
+     * @return 存在返回 {@code true}
+     */
+    public static boolean exists(Filer filer, String resourceName) {
+        try {
+            return filer.getResource(StandardLocation.CLASS_OUTPUT, "", resourceName).getLastModified() > 0L;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 判断输出位置中已有文件的内容是否与给定内容完全一致
+     *
+     * <p>按块读取并比较，遇到第一个不同的字节或长度不一致时立即返回。</p>
+     *
+     * @param filer        文件管理器
+     * @param location     输出位置
+     * @param resourceName 资源文件的相对路径
+     * @param content      期望的文件内容
+     * @return 文件存在且内容一致返回 {@code true}
+     */
+    private static boolean isUnchanged(Filer filer, Location location, String resourceName, byte[] content) {
+        try {
+            FileObject existing = filer.getResource(location, "", resourceName);
+            try (InputStream input = existing.openInputStream()) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int offset = 0;
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    if (offset + read > content.length) {
+                        return false;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] != content[offset + i]) {
+                            return false;
+                        }
+                    }
+                    offset += read;
+                }
+                return offset == content.length;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 文件不存在或无法读取，按有变化处理
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.util.Arrays;
+import java.util.Collection;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 生成 Java 源码时的公共工具方法
+ *
+ * <p>生成的类与被引用的类通常不在同一个包中，只能直接引用可以从其他包访问的类型和构造器。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+public class GeneratedSources {
+
+    /**
+     * 判断类型能否在其他包中引用：自身和外层类型均为 public，嵌套的类为静态类
+     *
+     * @param typeElement 类型
+     * @return 可以引用返回 {@code true}
+     */
+    public static boolean isAccessible(TypeElement typeElement) {
+        Element current = typeElement;
+        while (current instanceof TypeElement) {
+            Element enclosing = current.getEnclosingElement();
+            if (!current.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            // 嵌套的接口、枚举、注解隐式为静态
+            if (enclosing instanceof TypeElement && current.getKind() == ElementKind.CLASS
+                && !current.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            current = enclosing;
+        }
+        return true;
+    }
+
+    /**
+     * 判断类能否在其他包中通过 public 无参构造器创建
+     *
+     * @param typeElement 类
+     * @return 可以创建返回 {@code true}
+     */
+    public static boolean isInstantiable(TypeElement typeElement) {
+        if (typeElement.getKind() != ElementKind.CLASS || typeElement.getModifiers().contains(Modifier.ABSTRACT)
+            || !isAccessible(typeElement)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按包名分段取公共前缀，作为生成类所在的包
+     *
+     * @param packageNames 包名
+     * @return 公共前缀，没有时为空字符串
+     */
+    public static String commonPackage(Collection<String> packageNames) {
+        String[] common = null;
+        int length = 0;
+        for (String packageName : packageNames) {
+            String[] segments = packageName.isEmpty() ? new String[0] : packageName.split("\\.");
+            if (common == null) {
+                common = segments;
+                length = segments.length;
+                continue;
+            }
+            int i = 0;
+            while (i < Math.min(length, segments.length) && common[i].equals(segments[i])) {
+                i++;
+            }
+            length = i;
+        }
+        return common == null ? "" : String.join(".", Arrays.asList(common).subList(0, length));
+    }
+
+}
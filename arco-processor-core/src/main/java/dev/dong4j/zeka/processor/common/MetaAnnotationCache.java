@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * 元注解闭包缓存
+ *
+ * <p>为每个注解类型计算一次其传递闭包（自身 + 所有直接和间接的元注解），并在整个编译期间复用。
+ * 组合注解的判断因此从「每次调用都递归展开」变为「查一次表」，总工作量只与出现过的不同注解类型数量相关。</p>
+ *
+ * <p><strong>解析规则：</strong></p>
+ * <ul>
+ *   <li>{@code java.lang}、{@code kotlin.}、{@code lombok} 下的注解只记录自身，不再展开其元注解</li>
+ *   <li>已访问过的注解类型不会重复展开，自引用或相互引用的注解不会导致无限递归</li>
+ *   <li>展开层数超过 {@link #MAX_DEPTH} 时停止，更深层的元注解将被忽略</li>
+ * </ul>
+ *
+ * <p>缓存以注解的全限定名 {@link Name} 为键，同一编译过程中多轮处理之间可以安全复用。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class MetaAnnotationCache {
+    /** 元注解的最大展开层数 */
+    public static final int MAX_DEPTH = 16;
+    /** 注解全限定名 -> 元注解闭包（包含自身） */
+    private final Map<Name, Set<Name>> closures = new HashMap<>();
+
+    /**
+     * 获取注解类型的元注解闭包
+     *
+     * @param annotationType 注解类型
+     * @return 包含注解自身在内的所有元注解全限定名，不可修改
+     */
+    public Set<Name> getMetaAnnotations(TypeElement annotationType) {
+        Name name = annotationType.getQualifiedName();
+        Set<Name> closure = closures.get(name);
+        if (closure == null) {
+            closure = Collections.unmodifiableSet(resolve(annotationType));
+            closures.put(name, closure);
+        }
+        return closure;
+    }
+
+    /**
+     * 获取注解镜像对应注解类型的元注解闭包
+     *
+     * @param annotation 注解镜像
+     * @return 包含注解自身在内的所有元注解全限定名，不可修改
+     */
+    public Set<Name> getMetaAnnotations(AnnotationMirror annotation) {
+        return getMetaAnnotations(asTypeElement(annotation));
+    }
+
+    /**
+     * 判断程序元素是否直接或通过组合注解被目标注解标记
+     *
+     * @param elementUtils 元素工具类
+     * @param e            要检查的程序元素
+     * @param target       目标注解全限定名
+     * @return 被标记返回 {@code true}
+     */
+    public boolean isAnnotated(Elements elementUtils, Element e, Name target) {
+        for (AnnotationMirror annotation : elementUtils.getAllAnnotationMirrors(e)) {
+            if (getMetaAnnotations(annotation).contains(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取注解镜像对应的注解类型
+     *
+     * @param annotation 注解镜像
+     * @return 注解类型元素
+     */
+    public static TypeElement asTypeElement(AnnotationMirror annotation) {
+        return (TypeElement) annotation.getAnnotationType().asElement();
+    }
+
+    /**
+     * 按层广度优先展开元注解，已计算完成的注解直接并入其闭包
+     *
+     * @param root 注解类型
+     * @return 元注解闭包
+     */
+    private Set<Name> resolve(TypeElement root) {
+        Set<Name> closure = new HashSet<>();
+        closure.add(root.getQualifiedName());
+        if (isTerminal(root)) {
+            return closure;
+        }
+        List<TypeElement> current = Collections.singletonList(root);
+        for (int depth = 0; !current.isEmpty() && depth < MAX_DEPTH; depth++) {
+            List<TypeElement> next = new ArrayList<>();
+            for (TypeElement type : current) {
+                for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+                    TypeElement meta = asTypeElement(mirror);
+                    Name metaName = meta.getQualifiedName();
+                    // 已访问（包括环）
+                    if (!closure.add(metaName)) {
+                        continue;
+                    }
+                    Set<Name> known = closures.get(metaName);
+                    if (known != null) {
+                        closure.addAll(known);
+                    } else if (!isTerminal(meta)) {
+                        next.add(meta);
+                    }
+                }
+            }
+            current = next;
+        }
+        return closure;
+    }
+
+    /**
+     * 判断注解是否无需继续展开（lombok、java 或 kotlin 元注解）
+     *
+     * @param type 注解类型
+     * @return 无需展开返回 {@code true}
+     */
+    private static boolean isTerminal(TypeElement type) {
+        String name = type.getQualifiedName().toString();
+        return name.startsWith("lombok") || name.startsWith("java.lang") || name.startsWith("kotlin.");
+    }
+
+}
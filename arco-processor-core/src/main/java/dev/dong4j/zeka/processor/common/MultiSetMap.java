@@ -16,23 +16,30 @@
 
 package dev.dong4j.zeka.processor.common;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * 多值集合映射工具类
  *
- * <p>该类实现了一个键可以对应多个值的映射结构，底层使用 {@code Map<K, Set<V>>} 存储。
- * 主要用于注解处理器中收集和管理配置信息，例如一个配置键对应多个实现类。</p>
+ * <p>该类实现了一个键可以对应多个值的映射结构，专门为注解处理器收集配置信息而设计，
+ * 例如一个配置键对应多个实现类。</p>
  *
  * <p><strong>主要特性：</strong></p>
  * <ul>
- *   <li>一个键可以对应多个不重复的值（使用 Set 去重）</li>
- *   <li>支持批量添加和合并操作</li>
- *   <li>提供便捷的包含性检查方法</li>
+ *   <li>一个键可以对应多个不重复的值</li>
+ *   <li>键和值都按插入顺序迭代，相同输入得到相同的遍历顺序</li>
+ *   <li>维护全部值的集合，{@link #containsVal} 为 O(1)</li>
+ *   <li>每个键的值集合采用紧凑的数组存储，元素较多时才建立哈希索引</li>
+ *   <li>批量合并直接逐个追加，不创建中间集合</li>
  *   <li>线程不安全，适合单线程环境使用</li>
  * </ul>
  *
@@ -58,42 +65,38 @@ import java.util.Set;
  */
 @SuppressWarnings("UnusedReturnValue")
 public class MultiSetMap<K, V> {
-    /** 底层存储结构，使用 Map 存储键值对，值为 Set 集合 */
-    private transient final Map<K, Set<V>> map;
+    /** 底层存储结构，按键的插入顺序保存每个键的值集合 */
+    private transient final Map<K, ValueSet<V>> map;
+    /** 全部键下出现过的值，只用于判断值是否存在 */
+    private transient final Set<V> values;
 
     /** 构造函数，初始化底层 Map */
     public MultiSetMap() {
-        map = new HashMap<>();
-    }
-
-    /** 创建新的值集合 */
-    private Set<V> createSet() {
-        return new HashSet<>();
+        map = new LinkedHashMap<>();
+        values = new HashSet<>();
     }
 
     /**
      * 向多值映射中添加键值对
      *
      * <p>如果键不存在，会创建新的值集合；如果键已存在，会将值添加到现有集合中。
-     * 由于使用 Set 存储值，重复的值不会被添加。</p>
+     * 重复的值不会被添加。</p>
      *
      * @param key   要添加的键
      * @param value 要添加的值
      * @return 如果值被成功添加（即之前不存在）返回 {@code true}，否则返回 {@code false}
      */
     public boolean put(K key, V value) {
-        Set<V> set = map.get(key);
+        ValueSet<V> set = map.get(key);
         if (set == null) {
-            set = createSet();
-            if (set.add(value)) {
-                map.put(key, set);
-                return true;
-            } else {
-                throw new AssertionError("New set violated the set spec");
-            }
-        } else {
-            return set.add(value);
+            set = new ValueSet<>();
+            map.put(key, set);
         }
+        if (!set.addValue(value)) {
+            return false;
+        }
+        values.add(value);
+        return true;
     }
 
     /**
@@ -109,23 +112,22 @@ public class MultiSetMap<K, V> {
     /**
      * 检查是否包含指定的值
      *
-     * <p>该方法会遍历所有值集合，检查是否有任何集合包含指定的值。</p>
+     * <p>通过全部值的集合查找，时间复杂度为 O(1)。</p>
      *
      * @param value 要检查的值
      * @return 如果任何值集合包含该值返回 {@code true}，否则返回 {@code false}
      */
     public boolean containsVal(V value) {
-        Collection<Set<V>> values = map.values();
-        return values.stream().anyMatch(vs -> vs.contains(value));
+        return values.contains(value);
     }
 
     /**
      * 获取所有键的集合
      *
-     * @return 包含所有键的 Set 集合
+     * @return 包含所有键的 Set 集合，按插入顺序迭代，不可修改
      */
     public Set<K> keySet() {
-        return map.keySet();
+        return Collections.unmodifiableSet(map.keySet());
     }
 
     /**
@@ -135,12 +137,20 @@ public class MultiSetMap<K, V> {
      * @param set 值列表
      * @return boolean
      */
-    public boolean putAll(K key, Set<V> set) {
+    public boolean putAll(K key, Collection<? extends V> set) {
         if (set == null) {
             return false;
         }
-        Set<V> vSet = map.computeIfAbsent(key, k -> createSet());
-        vSet.addAll(set);
+        ValueSet<V> vSet = map.get(key);
+        if (vSet == null) {
+            vSet = new ValueSet<>();
+            map.put(key, vSet);
+        }
+        for (V value : set) {
+            if (vSet.addValue(value)) {
+                values.add(value);
+            }
+        }
         return true;
     }
 
@@ -154,8 +164,8 @@ public class MultiSetMap<K, V> {
         if (data == null || data.isEmpty()) {
             return false;
         } else {
-            for (K k : data.keySet()) {
-                this.putAll(k, data.get(k));
+            for (Map.Entry<K, ValueSet<V>> entry : data.map.entrySet()) {
+                this.putAll(entry.getKey(), entry.getValue());
             }
             return true;
         }
@@ -165,7 +175,7 @@ public class MultiSetMap<K, V> {
      * get List by key
      *
      * @param key 键
-     * @return List
+     * @return 按插入顺序迭代的值集合，不可修改；键不存在时返回 {@code null}
      */
     public Set<V> get(K key) {
         return map.get(key);
@@ -176,6 +186,7 @@ public class MultiSetMap<K, V> {
      */
     public void clear() {
         map.clear();
+        values.clear();
     }
 
     /**
@@ -192,4 +203,79 @@ public class MultiSetMap<K, V> {
         return map.toString();
     }
 
+    /**
+     * 紧凑的值集合
+     *
+     * <p>按插入顺序保存在数组中；元素个数超过 {@link #HASH_THRESHOLD} 时才建立哈希索引，
+     * 大多数配置键只有少量实现类，不需要为每个键创建 {@link HashSet}。
+     * 对外只读，修改只能通过 {@link MultiSetMap} 进行，以保证值的集合一致。</p>
+     *
+     * @param <V> 值的类型
+     */
+    private static final class ValueSet<V> extends AbstractSet<V> {
+        /** 建立哈希索引的元素个数阈值 */
+        private static final int HASH_THRESHOLD = 8;
+        /** 按插入顺序存储的元素 */
+        private Object[] elements = new Object[2];
+        /** 元素个数 */
+        private int size;
+        /** 元素较多时的哈希索引 */
+        private Set<Object> hashIndex;
+
+        boolean addValue(V value) {
+            if (contains(value)) {
+                return false;
+            }
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size << 1);
+            }
+            elements[size++] = value;
+            if (hashIndex != null) {
+                hashIndex.add(value);
+            } else if (size > HASH_THRESHOLD) {
+                hashIndex = new HashSet<>(Arrays.asList(elements).subList(0, size));
+            }
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (hashIndex != null) {
+                return hashIndex.contains(o);
+            }
+            for (int i = 0; i < size; i++) {
+                if (elements[i].equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<V>() {
+                private int cursor;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < size;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V next() {
+                    if (cursor >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return (V) elements[cursor++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
 }
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import dev.dong4j.zeka.processor.annotation.AutoIgnore;
+import dev.dong4j.zeka.processor.annotation.AutoService;
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Category;
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Level;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+/**
+ * 编译期共享上下文
+ *
+ * <p>{@code AutoFactoriesProcessor}、{@code AotFactoriesProcessor} 和 {@code AutoServiceProcessor}
+ * 是相互独立的处理器实例，但同一次编译中它们通过本类共享元注解缓存、分类器以及每一轮的类型分类表。
+ * 分类表在每一轮中只生成一次，由第一个请求分析结果的处理器触发，其余处理器直接复用。</p>
+ *
+ * <p><strong>候选类型的查找：</strong>分析阶段只读取本轮顶层类型直接声明的注解，按注解类型判断
+ * 是否（直接或通过元注解）命中注册目标，判断结果按注解类型缓存；再对命中的注解类型和目标注解本身调用
+ * {@link RoundEnvironment#getElementsAnnotatedWith(TypeElement)}，由编译器处理从父类继承的 {@code @Inherited} 注解。
+ * 除继承 ZekaStackStarter 的启动类（只比较直接父类）外，其余类型不会读取父类型的注解，也不会进入完整的分类。
+ * 分析结果不依赖调用方声明支持的注解类型，各处理器可以只声明自己关心的注解。</p>
+ *
+ * <p>上下文以编译器的 {@link Elements} 实例为键：Gradle、IDEA 等构建工具可能为每个处理器包装
+ * 不同的 {@link ProcessingEnvironment}，但底层的 {@link Elements} 在同一次编译中是同一个对象。
+ * 上下文只保存由 {@link Elements} 得到的状态，{@code Filer}、{@code Messager} 由各处理器自行持有，
+ * 以免绕过构建工具为每个处理器包装的实现。表中只以弱引用保存上下文，由各处理器实例持有强引用，
+ * 并在最后一轮移除，Gradle 守护进程、IDE 中的编译器实例不会因此无法回收。</p>
+ *
+ * @author L.cm
+ * @see RoundAnalysis
+ * @since 1.0.0
+ */
+public class ProcessingContext {
+    /** Feign 客户端注解全限定名 */
+    public static final String FEIGN_CLIENT_ANNOTATION = "org.springframework.cloud.openfeign.FeignClient";
+    /** 应用启动类的父类全限定名 */
+    public static final String START_CLASS_NAME = "dev.dong4j.zeka.starter.launcher.ZekaStackStarter";
+    /** 编译器 Elements -> 共享上下文，值为弱引用，避免上下文持有的 Elements 让键无法回收 */
+    private static final Map<Elements, WeakReference<ProcessingContext>> CONTEXTS = new WeakHashMap<>();
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 元注解闭包缓存 */
+    private final MetaAnnotationCache metaAnnotations = new MetaAnnotationCache();
+    /** spring.factories 注册目标分类器 */
+    private final AnnotationClassifier<BootAutoType> bootClassifier;
+    /** aot.factories 注册目标分类器 */
+    private final AnnotationClassifier<AotAutoType> aotClassifier;
+    /** {@code @AutoIgnore} 全限定名 */
+    private final Name autoIgnore;
+    /** {@code @FeignClient} 全限定名 */
+    private final Name feignClient;
+    /** 本次编译可见的目标注解类型，不在 classpath 上的目标注解不包含在内 */
+    private final List<TypeElement> targetAnnotations = new ArrayList<>();
+    /** 本次编译的全部顶层类型 */
+    private final Set<String> compiledTypes = new HashSet<>();
+    /** 编译选项是否已经校验 */
+    private boolean optionsValidated;
+    /** 最近一次分析的轮次 */
+    private RoundEnvironment analyzedRound;
+    /** 最近一次分析的结果 */
+    private RoundAnalysis analysis;
+
+    private ProcessingContext(Elements elementUtils) {
+        this.elementUtils = elementUtils;
+        this.bootClassifier = new AnnotationClassifier<>(elementUtils, metaAnnotations, BootAutoType.class, BootAutoType::getAnnotation);
+        this.aotClassifier = new AnnotationClassifier<>(elementUtils, metaAnnotations, AotAutoType.class, AotAutoType::getAnnotation);
+        this.autoIgnore = elementUtils.getName(AutoIgnore.class.getName());
+        this.feignClient = elementUtils.getName(FEIGN_CLIENT_ANNOTATION);
+        Set<String> targets = new LinkedHashSet<>();
+        for (BootAutoType bootAutoType : BootAutoType.values()) {
+            targets.add(bootAutoType.getAnnotation());
+        }
+        for (AotAutoType aotAutoType : AotAutoType.values()) {
+            targets.add(aotAutoType.getAnnotation());
+        }
+        targets.add(FEIGN_CLIENT_ANNOTATION);
+        for (String target : targets) {
+            TypeElement annotationType = elementUtils.getTypeElement(target);
+            if (annotationType != null) {
+                targetAnnotations.add(annotationType);
+            }
+        }
+    }
+
+    /**
+     * 获取当前编译的共享上下文，不存在时创建
+     *
+     * @param processingEnv 注解处理环境
+     * @return 共享上下文
+     */
+    public static ProcessingContext get(ProcessingEnvironment processingEnv) {
+        Elements elementUtils = processingEnv.getElementUtils();
+        synchronized (CONTEXTS) {
+            WeakReference<ProcessingContext> reference = CONTEXTS.get(elementUtils);
+            ProcessingContext context = reference != null ? reference.get() : null;
+            if (context == null) {
+                context = new ProcessingContext(elementUtils);
+                CONTEXTS.put(elementUtils, new WeakReference<>(context));
+            }
+            return context;
+        }
+    }
+
+    /**
+     * 编译结束时移除当前编译的共享上下文，已持有上下文的处理器不受影响
+     *
+     * @param processingEnv 注解处理环境
+     */
+    public static void release(ProcessingEnvironment processingEnv) {
+        synchronized (CONTEXTS) {
+            CONTEXTS.remove(processingEnv.getElementUtils());
+        }
+    }
+
+    /**
+     * 获取元注解闭包缓存
+     *
+     * @return 元注解闭包缓存
+     */
+    public MetaAnnotationCache getMetaAnnotations() {
+        return metaAnnotations;
+    }
+
+    /**
+     * 校验日志相关的编译选项，同一次编译只由第一个调用的处理器执行，之后的调用返回空列表
+     *
+     * @param options 编译选项
+     * @return 需要报告的错误消息
+     * @see ProcessorLogger#validate
+     */
+    public synchronized List<String> validateOptions(Map<String, String> options) {
+        if (optionsValidated) {
+            return Collections.emptyList();
+        }
+        optionsValidated = true;
+        return ProcessorLogger.validate(options);
+    }
+
+    /**
+     * 判断类型是否在本次编译中被重新编译
+     *
+     * <p>本次重新编译的类型会重新贡献条目，上一次编译记录中它们的条目应被丢弃。</p>
+     *
+     * @param origin 来源类型全限定名
+     * @return 本次编译的根类型返回 {@code true}
+     * @see ResourceState
+     */
+    public synchronized boolean isCompiled(String origin) {
+        return compiledTypes.contains(origin);
+    }
+
+    /**
+     * 获取本轮的类型分类表，同一轮内只计算一次
+     *
+     * @param roundEnv 当前处理轮次的环境信息
+     * @param logger   调用方的诊断日志
+     * @return 类型分类表
+     */
+    public synchronized RoundAnalysis analyze(RoundEnvironment roundEnv, ProcessorLogger logger) {
+        if (analyzedRound != roundEnv) {
+            analysis = doAnalyze(roundEnv, logger);
+            analyzedRound = roundEnv;
+        }
+        return analysis;
+    }
+
+    /**
+     * 只对命中注册目标的类型和启动类进行分类，生成类型分类表
+     *
+     * @param roundEnv 当前处理轮次的环境信息
+     * @param logger   诊断日志
+     * @return 类型分类表
+     */
+    private RoundAnalysis doAnalyze(RoundEnvironment roundEnv, ProcessorLogger logger) {
+        // 只记录名称，不检查注解
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                compiledTypes.add(((TypeElement) element).getQualifiedName().toString());
+            }
+        }
+        List<AnalyzedType> types = new ArrayList<>();
+        for (TypeElement typeElement : findCandidates(roundEnv)) {
+            AnalyzedType analyzedType = analyzeType(typeElement);
+            if (analyzedType != null) {
+                types.add(analyzedType);
+            }
+        }
+        List<TypeElement> serviceProviders = findServiceProviders(roundEnv);
+        if (logger.isEnabled(Level.DEBUG, Category.ANALYSIS)) {
+            logger.log(Level.DEBUG, Category.ANALYSIS, "Analyzed types: {}, service providers: {}", types.size(), serviceProviders.size());
+        }
+        return new RoundAnalysis(types, serviceProviders);
+    }
+
+    /**
+     * 查找本轮的顶层类或接口中，被目标注解（直接、通过组合注解或从父类继承）标记的类型以及启动类
+     *
+     * <p>组合注解只从本轮顶层类型直接声明的注解中收集，父类在本轮之外、且只通过父类上的
+     * {@code @Inherited} 组合注解命中的类型不会被找到；直接继承的目标注解仍然会被找到。</p>
+     *
+     * @param roundEnv 当前处理轮次的环境信息
+     * @return 候选类型，按根元素的顺序排列
+     */
+    private Set<TypeElement> findCandidates(RoundEnvironment roundEnv) {
+        Set<TypeElement> rootTypes = ElementFilter.typesIn(roundEnv.getRootElements());
+        Set<TypeElement> annotationTypes = new LinkedHashSet<>(targetAnnotations);
+        for (TypeElement typeElement : rootTypes) {
+            for (AnnotationMirror annotation : typeElement.getAnnotationMirrors()) {
+                annotationTypes.add(MetaAnnotationCache.asTypeElement(annotation));
+            }
+        }
+        Set<Element> annotated = new HashSet<>();
+        for (TypeElement annotationType : annotationTypes) {
+            if (isTarget(annotationType)) {
+                annotated.addAll(roundEnv.getElementsAnnotatedWith(annotationType));
+            }
+        }
+        Set<TypeElement> candidates = new LinkedHashSet<>();
+        for (TypeElement typeElement : rootTypes) {
+            ElementKind kind = typeElement.getKind();
+            if ((kind == ElementKind.CLASS || kind == ElementKind.INTERFACE)
+                && (annotated.contains(typeElement) || isStartClass(typeElement))) {
+                candidates.add(typeElement);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 判断类型是否为直接继承 ZekaStackStarter 的启动类
+     *
+     * @param typeElement 类型元素
+     * @return 是启动类返回 {@code true}
+     */
+    private static boolean isStartClass(TypeElement typeElement) {
+        TypeMirror superclass = typeElement.getSuperclass();
+        return superclass != null && START_CLASS_NAME.equals(superclass.toString());
+    }
+
+    /**
+     * 判断注解类型是否命中任一注册目标
+     *
+     * @param annotation 注解类型
+     * @return 命中返回 {@code true}
+     */
+    private boolean isTarget(TypeElement annotation) {
+        return !bootClassifier.matchesOf(annotation).isEmpty()
+            || !aotClassifier.matchesOf(annotation).isEmpty()
+            || metaAnnotations.getMetaAnnotations(annotation).contains(feignClient);
+    }
+
+    /**
+     * 对单个类型进行分类
+     *
+     * @param typeElement 类型元素
+     * @return 分类结果，没有任何分类信息时返回 {@code null}
+     */
+    private AnalyzedType analyzeType(TypeElement typeElement) {
+        boolean startClass = isStartClass(typeElement);
+        boolean ignored = metaAnnotations.isAnnotated(elementUtils, typeElement, autoIgnore);
+        boolean feign = !ignored && metaAnnotations.isAnnotated(elementUtils, typeElement, feignClient);
+        EnumSet<BootAutoType> bootTypes = bootClassifier.classify(typeElement);
+        EnumSet<AotAutoType> aotTypes = aotClassifier.classify(typeElement);
+        if (!startClass && !ignored && !feign && bootTypes.isEmpty() && aotTypes.isEmpty()) {
+            return null;
+        }
+        return new AnalyzedType(typeElement, typeElement.getQualifiedName().toString(),
+            bootTypes, aotTypes, ignored, feign, startClass);
+    }
+
+    /**
+     * 查找本轮被 {@code @AutoService} 标记的类
+     *
+     * @param roundEnv 当前处理轮次的环境信息
+     * @return 服务提供者类
+     */
+    private List<TypeElement> findServiceProviders(RoundEnvironment roundEnv) {
+        TypeElement autoService = elementUtils.getTypeElement(AutoService.class.getName());
+        if (autoService == null) {
+            return Collections.emptyList();
+        }
+        List<TypeElement> providers = new ArrayList<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(autoService)) {
+            if (element.getKind() == ElementKind.CLASS && element instanceof TypeElement) {
+                providers.add((TypeElement) element);
+            }
+        }
+        return providers;
+    }
+
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+
+/**
+ * 注解处理器诊断日志
+ *
+ * <p>按级别和分类过滤日志，未启用时不做任何字符串拼接：消息以格式串加参数或 {@link Supplier}
+ * 的形式传入，只有在对应级别和分类启用后才会被格式化。格式串使用 {@code {}} 作为占位符。</p>
+ *
+ * <p><strong>编译选项：</strong></p>
+ * <ul>
+ *   <li>{@code debug}：开启全部分类的 {@link Level#TRACE} 日志（兼容原有行为）</li>
+ *   <li>{@code arco.log.level}：日志级别，取值 {@code trace}、{@code debug}、{@code info}、{@code off}，默认 {@code off}</li>
+ *   <li>{@code arco.log.categories}：逗号分隔的分类，取值见 {@link Category}，默认全部</li>
+ *   <li>{@code arco.log.file}：日志文件路径，设置后以 JSON Lines 格式追加写入文件，不再输出到 {@link Messager}</li>
+ * </ul>
+ *
+ * <p><strong>示例用法：</strong></p>
+ * <pre>{@code
+ * <compilerArgs>
+ *     <arg>-Aarco.log.level=debug</arg>
+ *     <arg>-Aarco.log.categories=factories,service</arg>
+ *     <arg>-Aarco.log.file=${project.build.directory}/arco-processor.log</arg>
+ * </compilerArgs>
+ * }</pre>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class ProcessorLogger {
+    /** 兼容原有的调试开关 */
+    public static final String OPTION_DEBUG = "debug";
+    /** 日志级别 */
+    public static final String OPTION_LEVEL = "arco.log.level";
+    /** 日志分类 */
+    public static final String OPTION_CATEGORIES = "arco.log.categories";
+    /** 日志文件 */
+    public static final String OPTION_FILE = "arco.log.file";
+    /** 全部日志相关的编译选项 */
+    public static final Set<String> OPTIONS = Collections.unmodifiableSet(
+        new LinkedHashSet<>(Arrays.asList(OPTION_DEBUG, OPTION_LEVEL, OPTION_CATEGORIES, OPTION_FILE)));
+
+    /** 日志级别 */
+    public enum Level {
+        /** 大量数据的输出，例如完整的配置文件内容 */
+        TRACE,
+        /** 处理流程 */
+        DEBUG,
+        /** 汇总信息 */
+        INFO,
+        /** 关闭 */
+        OFF
+    }
+
+    /** 日志分类 */
+    public enum Category {
+        /** 共享的类型分析 */
+        ANALYSIS,
+        /** spring.factories 与 AutoConfiguration.imports */
+        FACTORIES,
+        /** aot.factories */
+        AOT,
+        /** META-INF/services */
+        SERVICE,
+        /** 事件监听与定时任务方法索引 */
+        METHOD
+    }
+
+    /** 缓存的日志超过该长度时写入文件 */
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+    /** 编译器消息输出 */
+    private final Messager messager;
+    /** 最低输出级别 */
+    private final Level threshold;
+    /** 启用的分类 */
+    private final EnumSet<Category> categories;
+    /** 日志文件，未配置时为 {@code null} */
+    private final Path file;
+    /** 尚未写入日志文件的行，各处理器有各自的日志，整行追加写入以免相互穿插 */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * 根据编译选项创建诊断日志
+     *
+     * @param messager 编译器消息输出
+     * @param options  编译选项
+     */
+    public ProcessorLogger(Messager messager, Map<String, String> options) {
+        this.messager = messager;
+        List<String> errors = new ArrayList<>();
+        this.threshold = parseLevel(options, errors);
+        this.categories = parseCategories(options.get(OPTION_CATEGORIES), errors);
+        String path = options.get(OPTION_FILE);
+        this.file = path == null || path.trim().isEmpty() ? null : Paths.get(path.trim());
+    }
+
+    /**
+     * 判断指定级别和分类的日志是否启用
+     *
+     * @param level    日志级别
+     * @param category 日志分类
+     * @return 启用返回 {@code true}
+     */
+    public boolean isEnabled(Level level, Category category) {
+        return level.compareTo(threshold) >= 0 && categories.contains(category);
+    }
+
+    /**
+     * 输出日志
+     *
+     * @param level    日志级别
+     * @param category 日志分类
+     * @param msg      日志消息
+     */
+    public void log(Level level, Category category, String msg) {
+        if (isEnabled(level, category)) {
+            write(level, category, msg);
+        }
+    }
+
+    /**
+     * 输出带一个参数的日志
+     *
+     * @param level    日志级别
+     * @param category 日志分类
+     * @param format   格式串
+     * @param arg      参数
+     */
+    public void log(Level level, Category category, String format, Object arg) {
+        if (isEnabled(level, category)) {
+            write(level, category, format(format, arg));
+        }
+    }
+
+    /**
+     * 输出带两个参数的日志
+     *
+     * @param level    日志级别
+     * @param category 日志分类
+     * @param format   格式串
+     * @param arg1     第一个参数
+     * @param arg2     第二个参数
+     */
+    public void log(Level level, Category category, String format, Object arg1, Object arg2) {
+        if (isEnabled(level, category)) {
+            write(level, category, format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * 输出延迟计算的日志
+     *
+     * @param level    日志级别
+     * @param category 日志分类
+     * @param msg      日志消息提供者
+     */
+    public void log(Level level, Category category, Supplier<String> msg) {
+        if (isEnabled(level, category)) {
+            write(level, category, msg.get());
+        }
+    }
+
+    /**
+     * 将缓存的日志行追加写入日志文件
+     */
+    public synchronized void flush() {
+        if (pending.length() == 0) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(file, pending.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            messager.printMessage(Kind.WARNING, "Unable to write " + file + ": " + e);
+        }
+        pending.setLength(0);
+    }
+
+    /**
+     * 输出一条已格式化的日志，配置了日志文件时缓存为 JSON Lines，超过 {@link #FLUSH_THRESHOLD} 时写入
+     *
+     * @param level    日志级别
+     * @param category 日志分类
+     * @param msg      消息
+     */
+    private synchronized void write(Level level, Category category, String msg) {
+        if (file == null) {
+            messager.printMessage(Kind.NOTE, "[" + category + "] " + msg);
+            return;
+        }
+        pending.append("{\"ts\":").append(System.currentTimeMillis())
+            .append(",\"level\":\"").append(level)
+            .append("\",\"category\":\"").append(category)
+            .append("\",\"message\":\"");
+        escape(msg, pending);
+        pending.append("\"}\n");
+        if (pending.length() > FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    /**
+     * 用参数依次替换格式串中的 {@code {}}，{@link FileObject} 参数输出为其 URI
+     *
+     * @param format 格式串
+     * @param args   参数
+     * @return 格式化后的消息
+     */
+    static String format(String format, Object... args) {
+        StringBuilder builder = new StringBuilder(format.length() + 32);
+        int start = 0;
+        for (Object arg : args) {
+            int placeholder = format.indexOf("{}", start);
+            if (placeholder < 0) {
+                break;
+            }
+            builder.append(format, start, placeholder).append(arg instanceof FileObject ? ((FileObject) arg).toUri() : arg);
+            start = placeholder + 2;
+        }
+        return builder.append(format, start, format.length()).toString();
+    }
+
+    /**
+     * 按 JSON 字符串的规则转义消息
+     *
+     * @param msg 消息
+     * @param out 输出
+     */
+    private static void escape(String msg, StringBuilder out) {
+        for (int i = 0; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * 校验日志相关的编译选项
+     *
+     * <p>每个处理器都会创建自己的日志，无法识别的值只由 {@link ProcessingContext} 在同一次编译中报告一次，
+     * 构造日志时不再报告。</p>
+     *
+     * @param options 编译选项
+     * @return 无法识别的值的错误消息，全部有效时为空
+     */
+    public static List<String> validate(Map<String, String> options) {
+        List<String> errors = new ArrayList<>();
+        parseLevel(options, errors);
+        parseCategories(options.get(OPTION_CATEGORIES), errors);
+        return errors;
+    }
+
+    /**
+     * 解析日志级别，未配置 {@code arco.log.level} 时由 {@code debug} 开关决定
+     *
+     * @param options 编译选项
+     * @param errors  无法识别的值的错误消息
+     * @return 日志级别，值无法识别时按未配置处理
+     */
+    private static Level parseLevel(Map<String, String> options, List<String> errors) {
+        String level = options.get(OPTION_LEVEL);
+        if (level != null && !level.trim().isEmpty()) {
+            try {
+                return Level.valueOf(level.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                errors.add("-A" + OPTION_LEVEL + " 的值无法识别：" + level + "，可选 " + Arrays.toString(Level.values()));
+            }
+        }
+        return options.containsKey(OPTION_DEBUG) ? Level.TRACE : Level.OFF;
+    }
+
+    /**
+     * 解析以逗号分隔的日志分类，未配置时启用全部分类
+     *
+     * @param value  {@code arco.log.categories} 的值
+     * @param errors 无法识别的值的错误消息
+     * @return 启用的分类，存在无法识别的分类时启用全部分类
+     */
+    private static EnumSet<Category> parseCategories(String value, List<String> errors) {
+        if (value == null || value.trim().isEmpty()) {
+            return EnumSet.allOf(Category.class);
+        }
+        EnumSet<Category> categories = EnumSet.noneOf(Category.class);
+        for (String category : value.split(",")) {
+            if (!category.trim().isEmpty()) {
+                try {
+                    categories.add(Category.valueOf(category.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    errors.add("-A" + OPTION_CATEGORIES + " 的值无法识别：" + category.trim() + "，可选 " + Arrays.toString(Category.values()));
+                    return EnumSet.allOf(Category.class);
+                }
+            }
+        }
+        return categories;
+    }
+
+}
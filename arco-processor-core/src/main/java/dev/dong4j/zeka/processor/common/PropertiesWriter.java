@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Properties 格式文件的写出
+ *
+ * <p>{@code spring.components}、{@code spring-autoconfigure-metadata.properties} 以及 {@code META-INF/arco/}
+ * 下的索引都由 {@link java.util.Properties#load(java.io.InputStream)} 按 ISO-8859-1 读取。类名可以包含非 ASCII 字符，
+ * 这里按 {@code Properties} 的规则转义：非 ASCII 和控制字符写作 Unicode 转义，反斜杠写作两个反斜杠；
+ * 键中的空白、{@code =}、{@code :}、{@code #}、{@code !} 前加反斜杠，值只转义开头的空白，保持可读。
+ * 与 {@code Properties#store} 不同，不写出时间戳注释，相同的条目总是得到逐字节相同的文件。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class PropertiesWriter {
+    /** 十六进制字符 */
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /** 已写出的内容 */
+    private final StringBuilder content;
+
+    /**
+     * 创建写出器
+     *
+     * @param expectedLength 预计的内容长度
+     */
+    public PropertiesWriter(int expectedLength) {
+        this.content = new StringBuilder(expectedLength);
+    }
+
+    /**
+     * 写出一行键值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 当前写出器
+     */
+    public PropertiesWriter append(String key, String value) {
+        escape(key, true);
+        content.append('=');
+        escape(value, false);
+        content.append('\n');
+        return this;
+    }
+
+    /**
+     * 获取文件内容，转义后只包含 ASCII 字符
+     *
+     * @return 文件内容
+     */
+    public byte[] toByteArray() {
+        return content.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 按 {@code Properties} 的规则转义并追加字符串
+     *
+     * @param text 字符串
+     * @param key  是否为键，键中的分隔符和注释符也需要转义
+     */
+    private void escape(String text, boolean key) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    content.append("\\\\");
+                    break;
+                case '\t':
+                    content.append("\\t");
+                    break;
+                case '\n':
+                    content.append("\\n");
+                    break;
+                case '\r':
+                    content.append("\\r");
+                    break;
+                case '\f':
+                    content.append("\\f");
+                    break;
+                case ' ':
+                    if (key || i == 0) {
+                        content.append('\\');
+                    }
+                    content.append(c);
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    if (key) {
+                        content.append('\\');
+                    }
+                    content.append(c);
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7E) {
+                        content.append("\\u")
+                            .append(HEX[(c >> 12) & 0xF]).append(HEX[(c >> 8) & 0xF])
+                            .append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+                    } else {
+                        content.append(c);
+                    }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * 生成资源的来源记录
+ *
+ * <p>记录每个来源类型向哪个资源文件的哪个键贡献了哪个值，保存在
+ * {@code CLASS_OUTPUT/META-INF/arco/<name>.state} 中。增量编译时，处理器只替换本次重新编译的类型的贡献，
+ * 并移除已删除类型的贡献，其余条目直接沿用上一次的记录，不必再逐项校验已生成的文件。</p>
+ *
+ * <p><strong>文件格式：</strong>每行一条贡献，字段以制表符分隔，按行排序以保证输出稳定：</p>
+ * <pre>
+ * # arco-processor state v1
+ * 来源类型	资源文件	键	值
+ * </pre>
+ *
+ * <p>没有键的资源（例如 {@code AutoConfiguration.imports}）以空字符串作为键。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class ResourceState {
+    /** 状态文件目录 */
+    private static final String STATE_DIRECTORY = "META-INF/arco/";
+    /** 文件头 */
+    private static final String HEADER = "# arco-processor state v1";
+    /** 字段分隔符 */
+    private static final char SEPARATOR = '\t';
+    /** 来源类型 -> 贡献 */
+    private final Map<String, Set<Contribution>> contributions = new LinkedHashMap<>();
+    /** 来源类型 -> 本次编译中的元素，不写入文件 */
+    private final Map<String, Element> elements = new LinkedHashMap<>();
+
+    /**
+     * 记录本次编译中来源元素的一条贡献
+     *
+     * @param origin   来源类型
+     * @param resource 资源文件的相对路径
+     * @param key      键，没有键的资源使用空字符串
+     * @param value    值
+     */
+    public void add(TypeElement origin, String resource, String key, String value) {
+        String name = origin.getQualifiedName().toString();
+        elements.put(name, origin);
+        add(name, resource, key, value);
+    }
+
+    /**
+     * 记录一条贡献
+     *
+     * @param origin   来源类型全限定名
+     * @param resource 资源文件的相对路径
+     * @param key      键，没有键的资源使用空字符串
+     * @param value    值
+     */
+    public void add(String origin, String resource, String key, String value) {
+        contributions.computeIfAbsent(origin, k -> new LinkedHashSet<>()).add(new Contribution(resource, key, value));
+    }
+
+    /**
+     * 合并另一份记录中满足条件的来源类型的全部贡献
+     *
+     * @param other  另一份记录
+     * @param filter 来源类型过滤条件
+     */
+    public void addAll(ResourceState other, Predicate<String> filter) {
+        for (Map.Entry<String, Set<Contribution>> entry : other.contributions.entrySet()) {
+            if (filter.test(entry.getKey())) {
+                contributions.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).addAll(entry.getValue());
+                Element element = other.elements.get(entry.getKey());
+                if (element != null) {
+                    elements.put(entry.getKey(), element);
+                }
+            }
+        }
+    }
+
+    /**
+     * 沿用另一份记录中某个来源类型对指定资源文件的贡献
+     *
+     * @param other    另一份记录
+     * @param origin   来源类型全限定名
+     * @param resource 资源文件的相对路径
+     */
+    public void addAll(ResourceState other, String origin, String resource) {
+        Set<Contribution> set = other.contributions.get(origin);
+        if (set == null) {
+            return;
+        }
+        for (Contribution contribution : set) {
+            if (contribution.resource.equals(resource)) {
+                contributions.computeIfAbsent(origin, k -> new LinkedHashSet<>()).add(contribution);
+            }
+        }
+    }
+
+    /**
+     * 判断是否存在对指定资源文件的贡献
+     *
+     * @param resource 资源文件的相对路径
+     * @return 存在返回 {@code true}
+     */
+    public boolean contains(String resource) {
+        for (Set<Contribution> set : contributions.values()) {
+            for (Contribution contribution : set) {
+                if (contribution.resource.equals(resource)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取以指定前缀开头的全部资源文件
+     *
+     * @param prefix 资源文件路径前缀
+     * @return 资源文件的相对路径，按字典序排列
+     */
+    public Set<String> getResources(String prefix) {
+        Set<String> resources = new TreeSet<>();
+        for (Set<Contribution> set : contributions.values()) {
+            for (Contribution contribution : set) {
+                if (contribution.resource.startsWith(prefix)) {
+                    resources.add(contribution.resource);
+                }
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * 获取指定资源文件的键值
+     *
+     * @param resource 资源文件的相对路径
+     * @return 键 -> 值集合
+     */
+    public MultiSetMap<String, String> getEntries(String resource) {
+        MultiSetMap<String, String> entries = new MultiSetMap<>();
+        for (Set<Contribution> set : contributions.values()) {
+            for (Contribution contribution : set) {
+                if (contribution.resource.equals(resource)) {
+                    entries.put(contribution.key, contribution.value);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 获取指定资源文件的全部值，忽略键
+     *
+     * @param resource 资源文件的相对路径
+     * @return 值集合
+     */
+    public Set<String> getValues(String resource) {
+        Set<String> values = new LinkedHashSet<>();
+        for (Set<Contribution> set : contributions.values()) {
+            for (Contribution contribution : set) {
+                if (contribution.resource.equals(resource)) {
+                    values.add(contribution.value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 获取本次编译中对指定资源文件有贡献的来源元素
+     *
+     * <p>沿用自上一次编译的来源类型没有对应的元素，不会包含在结果中。</p>
+     *
+     * @param resource 资源文件的相对路径
+     * @return 来源元素
+     */
+    public Element[] getOriginatingElements(String resource) {
+        List<Element> originating = new ArrayList<>();
+        for (Map.Entry<String, Element> entry : elements.entrySet()) {
+            for (Contribution contribution : contributions.get(entry.getKey())) {
+                if (contribution.resource.equals(resource)) {
+                    originating.add(entry.getValue());
+                    break;
+                }
+            }
+        }
+        return originating.toArray(new Element[0]);
+    }
+
+    /**
+     * 获取本次编译中的全部来源元素
+     *
+     * @return 来源元素
+     */
+    public Element[] getOriginatingElements() {
+        return elements.values().toArray(new Element[0]);
+    }
+
+    /**
+     * 读取 {@code CLASS_OUTPUT} 中上一次编译的记录
+     *
+     * @param filer 文件管理器
+     * @param name  记录名称
+     * @return 上一次的记录，不存在时返回 {@code null}
+     */
+    public static ResourceState read(Filer filer, String name) {
+        try {
+            FileObject fileObject = filer.getResource(StandardLocation.CLASS_OUTPUT, "", STATE_DIRECTORY + name + ".state");
+            ResourceState state = new ResourceState();
+            try (
+                InputStream input = fileObject.openInputStream();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))
+            ) {
+                String line = reader.readLine();
+                if (!HEADER.equals(line)) {
+                    return null;
+                }
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+                    if (fields.length == 4) {
+                        state.add(fields[0], fields[1], fields[2], fields[3]);
+                    }
+                }
+            }
+            return state;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 内容有变化时写出记录
+     *
+     * @param filer 文件管理器
+     * @param name  记录名称
+     * @return 发生写入返回 {@code true}
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    public boolean write(Filer filer, String name) throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder(128);
+        for (Map.Entry<String, Set<Contribution>> entry : contributions.entrySet()) {
+            for (Contribution contribution : entry.getValue()) {
+                line.setLength(0);
+                line.append(entry.getKey()).append(SEPARATOR)
+                    .append(contribution.resource).append(SEPARATOR)
+                    .append(contribution.key).append(SEPARATOR)
+                    .append(contribution.value);
+                lines.add(line.toString());
+            }
+        }
+        Collections.sort(lines);
+        StringBuilder content = new StringBuilder(HEADER).append('\n');
+        for (String sorted : lines) {
+            content.append(sorted).append('\n');
+        }
+        return GeneratedResources.writeIfChanged(filer, STATE_DIRECTORY + name + ".state",
+            content.toString().getBytes(StandardCharsets.UTF_8), getOriginatingElements());
+    }
+
+    /**
+     * 一条贡献：资源文件、键、值
+     */
+    private static final class Contribution {
+        /** 资源文件的相对路径 */
+        private final String resource;
+        /** 键 */
+        private final String key;
+        /** 值 */
+        private final String value;
+
+        private Contribution(String resource, String key, String value) {
+            this.resource = resource;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Contribution)) {
+                return false;
+            }
+            Contribution that = (Contribution) o;
+            return resource.equals(that.resource) && key.equals(that.key) && value.equals(that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resource, key, value);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.common;
+
+import java.util.List;
+import javax.lang.model.element.TypeElement;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 单轮处理的类型分类表
+ *
+ * <p>由 {@link ProcessingContext#analyze} 在每一轮中只生成一次，{@code spring.factories}、
+ * {@code AutoConfiguration.imports}、{@code aot.factories} 和 {@code META-INF/services}
+ * 的生成器共同消费这份结果。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@Getter
+@RequiredArgsConstructor
+public class RoundAnalysis {
+    /** 存在任意分类信息的类型，保持根元素顺序 */
+    private final List<AnalyzedType> types;
+    /** 被 {@code @AutoService} 标记的类 */
+    private final List<TypeElement> serviceProviders;
+
+}
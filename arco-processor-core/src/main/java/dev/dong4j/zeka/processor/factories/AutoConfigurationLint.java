@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import dev.dong4j.zeka.processor.common.MultiSetMap;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+/**
+ * 未加守卫条件的自动配置类检查
+ *
+ * <p>类级别没有 {@code @ConditionalOnClass} 或 {@code @ConditionalOnProperty}（包括组合注解）的自动配置类，
+ * 每次启动都会被完整解析，并加载其引用的类型，即使应用从不使用它。检查结果按估算的引入类型数量降序写入报告：</p>
+ * <pre>
+ * # 类型数量	自动配置类
+ * 37	com.example.FooAutoConfiguration
+ * 4	com.example.BarAutoConfiguration
+ * </pre>
+ *
+ * <p>引入的类型按 {@code @Bean} 方法的返回值与参数类型（含泛型参数）、{@code @Import} 导入的类以及嵌套的配置类估算，
+ * 导入的类和嵌套配置类会继续展开，{@code java.*} 下的类型不计入。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+class AutoConfigurationLint {
+    /** 是否检查的编译选项，默认不检查 */
+    static final String OPTION = "arco.autoconfigure.lint";
+    /** 报告位置，位于 {@code SOURCE_OUTPUT} 下，不会打包进 jar；同时作为来源记录中的资源名 */
+    static final String REPORT_LOCATION = "arco/autoconfigure-lint.txt";
+    /** 守卫条件注解 */
+    private static final List<String> GUARD_ANNOTATIONS = Arrays.asList(
+        "org.springframework.boot.autoconfigure.condition.ConditionalOnClass",
+        "org.springframework.boot.autoconfigure.condition.ConditionalOnProperty");
+    /** Bean 方法注解 */
+    private static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+    /** 配置类注解 */
+    private static final String CONFIGURATION_ANNOTATION = "org.springframework.context.annotation.Configuration";
+    /** 导入注解 */
+    private static final String IMPORT_ANNOTATION = "org.springframework.context.annotation.Import";
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 元注解闭包缓存 */
+    private final MetaAnnotationCache metaAnnotations;
+    /** 守卫条件注解全限定名 */
+    private final List<Name> guards = new ArrayList<>();
+    /** Bean 方法注解全限定名 */
+    private final Name bean;
+    /** 配置类注解全限定名 */
+    private final Name configuration;
+    /** 导入注解全限定名 */
+    private final Name importAnnotation;
+
+    AutoConfigurationLint(Elements elementUtils, MetaAnnotationCache metaAnnotations) {
+        this.elementUtils = elementUtils;
+        this.metaAnnotations = metaAnnotations;
+        for (String guard : GUARD_ANNOTATIONS) {
+            guards.add(elementUtils.getName(guard));
+        }
+        this.bean = elementUtils.getName(BEAN_ANNOTATION);
+        this.configuration = elementUtils.getName(CONFIGURATION_ANNOTATION);
+        this.importAnnotation = elementUtils.getName(IMPORT_ANNOTATION);
+    }
+
+    /**
+     * 判断自动配置类是否有类级别的守卫条件
+     *
+     * @param typeElement 自动配置类
+     * @return 有守卫条件返回 {@code true}
+     */
+    boolean isGuarded(TypeElement typeElement) {
+        for (AnnotationMirror annotation : typeElement.getAnnotationMirrors()) {
+            Set<Name> closure = metaAnnotations.getMetaAnnotations(annotation);
+            for (Name guard : guards) {
+                if (closure.contains(guard)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 估算自动配置类引入的类型数量
+     *
+     * @param typeElement 自动配置类
+     * @return 不同类型的数量
+     */
+    int countReferencedTypes(TypeElement typeElement) {
+        Set<String> types = new HashSet<>();
+        collectConfiguration(typeElement, types, new HashSet<>());
+        return types.size();
+    }
+
+    /**
+     * 收集配置类引入的类型
+     *
+     * @param type    配置类
+     * @param types   引入的类型全限定名
+     * @param visited 已展开的配置类
+     */
+    private void collectConfiguration(TypeElement type, Set<String> types, Set<Name> visited) {
+        if (!visited.add(type.getQualifiedName())) {
+            return;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (metaAnnotations.isAnnotated(elementUtils, method, bean)) {
+                collectType(method.getReturnType(), types);
+                for (VariableElement parameter : method.getParameters()) {
+                    collectType(parameter.asType(), types);
+                }
+            }
+        }
+        List<TypeElement> imports = new ArrayList<>();
+        collectImports(type, imports, new HashSet<>(), 0);
+        for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (metaAnnotations.isAnnotated(elementUtils, member, configuration)) {
+                imports.add(member);
+            }
+        }
+        for (TypeElement imported : imports) {
+            types.add(imported.getQualifiedName().toString());
+            collectConfiguration(imported, types, visited);
+        }
+    }
+
+    /**
+     * 沿组合注解收集 {@code @Import} 导入的类，例如 {@code @EnableXxx} 上的导入
+     *
+     * @param element 类或注解类型
+     * @param imports 导入的类
+     * @param visited 已展开的注解类型
+     * @param depth   当前展开层数
+     */
+    private void collectImports(Element element, List<TypeElement> imports, Set<Name> visited, int depth) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = MetaAnnotationCache.asTypeElement(annotation);
+            Name name = annotationType.getQualifiedName();
+            if (name.equals(importAnnotation)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                    if (entry.getValue().getValue() instanceof List) {
+                        for (Object value : (List<?>) entry.getValue().getValue()) {
+                            Object type = ((AnnotationValue) value).getValue();
+                            if (type instanceof DeclaredType) {
+                                imports.add((TypeElement) ((DeclaredType) type).asElement());
+                            }
+                        }
+                    }
+                }
+            } else if (depth < MetaAnnotationCache.MAX_DEPTH && visited.add(name)
+                && metaAnnotations.getMetaAnnotations(annotationType).contains(importAnnotation)) {
+                collectImports(annotationType, imports, visited, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * 收集类型及其泛型参数、数组元素类型
+     *
+     * @param type  类型
+     * @param types 引入的类型全限定名
+     */
+    private static void collectType(TypeMirror type, Set<String> types) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            collectType(((ArrayType) type).getComponentType(), types);
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+            if (!name.startsWith("java.")) {
+                types.add(name);
+            }
+            for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+                collectType(typeArgument, types);
+            }
+        }
+    }
+
+    /**
+     * 输出按引入类型数量降序排列的报告
+     *
+     * @param entries 自动配置类 -> 引入的类型数量
+     * @return 报告内容
+     */
+    static byte[] toReport(MultiSetMap<String, String> entries) {
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>();
+        for (String className : entries.keySet()) {
+            int count = 0;
+            for (String value : entries.get(className)) {
+                count = Math.max(count, Integer.parseInt(value));
+            }
+            ranked.add(new AbstractMap.SimpleEntry<>(className, count));
+        }
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        StringBuilder content = new StringBuilder(128 + ranked.size() * 96);
+        content.append("# 没有 @ConditionalOnClass/@ConditionalOnProperty 守卫的自动配置类，按估算的引入类型数量降序\n");
+        content.append("# 类型数量\t自动配置类\n");
+        for (Map.Entry<String, Integer> entry : ranked) {
+            content.append(entry.getValue()).append('\t').append(entry.getKey()).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
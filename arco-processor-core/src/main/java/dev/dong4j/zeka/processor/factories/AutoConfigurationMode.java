@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.common.BootAutoType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 自动配置类的选择方式，对应编译选项 {@code arco.autoconfigure.mode} 的取值
+ *
+ * <p>被 {@code @Component} 标记的类型还需要直接或通过组合注解标注对应的注解，才会登记为自动配置类。
+ * 未登记的组件仍可以通过组件扫描注册。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@Getter
+@RequiredArgsConstructor
+enum AutoConfigurationMode {
+
+    /** {@code component}：所有 {@code @Component}，包括 {@code @Service}、{@code @Controller} 等，默认值 */
+    COMPONENT(BootAutoType.COMPONENT_ANNOTATION),
+    /** {@code configuration}：{@code @Configuration}，适用于 Spring Boot 2.7 以下 */
+    CONFIGURATION("org.springframework.context.annotation.Configuration"),
+    /** {@code auto-configuration}：{@code @AutoConfiguration}，Spring Boot 2.7 起 */
+    AUTO_CONFIGURATION("org.springframework.boot.autoconfigure.AutoConfiguration"),
+    ;
+
+    /** 需要标注的注解全限定名 */
+    private final String annotation;
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * 编译期的自动配置类排序
+ *
+ * <p>与 Spring Boot 的 {@code AutoConfigurationSorter} 相同：先按类名排序，再按 {@code @AutoConfigureOrder}（默认 0）稳定排序，
+ * 最后按 {@code @AutoConfigureAfter}/{@code @AutoConfigureBefore}（包括 {@code @AutoConfiguration} 的属性和组合注解）
+ * 做拓扑排序。只在本模块的自动配置类之间建立先后关系，引用其他模块的类不参与排序。</p>
+ *
+ * <p>先后关系存在环时，Spring Boot 在启动时才会失败，这里提前作为编译错误报告。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+class AutoConfigurationSorter {
+    /** 未标注 {@code @AutoConfigureOrder} 时的顺序 */
+    private static final int DEFAULT_ORDER = 0;
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 自动配置类的条件，包含先后关系 */
+    private final AutoConfigureMetadata metadata;
+
+    AutoConfigurationSorter(Elements elementUtils, AutoConfigureMetadata metadata) {
+        this.elementUtils = elementUtils;
+        this.metadata = metadata;
+    }
+
+    /**
+     * 排序
+     *
+     * @param classNames 自动配置类名
+     * @return 排序后的类名
+     * @throws CycleException 先后关系存在环
+     */
+    List<String> sort(Collection<String> classNames) {
+        // 类的二进制名称 -> 配置文件中的类名，嵌套类在两者中的写法不同
+        Map<String, String> names = new HashMap<>();
+        Map<String, TypeElement> elements = new HashMap<>();
+        for (String className : classNames) {
+            TypeElement typeElement = elementUtils.getTypeElement(className);
+            if (typeElement != null) {
+                elements.put(className, typeElement);
+                names.put(elementUtils.getBinaryName(typeElement).toString(), className);
+            }
+        }
+        List<String> ordered = new ArrayList<>(classNames);
+        Collections.sort(ordered);
+        Map<String, Integer> orders = new HashMap<>();
+        Map<String, Set<String>> after = new LinkedHashMap<>();
+        for (String className : ordered) {
+            after.put(className, new LinkedHashSet<>());
+        }
+        for (String className : ordered) {
+            TypeElement typeElement = elements.get(className);
+            if (typeElement == null) {
+                orders.put(className, DEFAULT_ORDER);
+                continue;
+            }
+            Map<String, Set<String>> conditions = metadata.getConditions(typeElement);
+            Set<String> order = conditions.get("AutoConfigureOrder");
+            orders.put(className, order == null || order.isEmpty() ? DEFAULT_ORDER : Integer.parseInt(order.iterator().next()));
+            for (String name : conditions.getOrDefault("AutoConfigureAfter", Collections.emptySet())) {
+                String target = names.get(name);
+                if (target != null) {
+                    after.get(className).add(target);
+                }
+            }
+            for (String name : conditions.getOrDefault("AutoConfigureBefore", Collections.emptySet())) {
+                String target = names.get(name);
+                if (target != null) {
+                    after.get(target).add(className);
+                }
+            }
+        }
+        ordered.sort((o1, o2) -> Integer.compare(orders.get(o1), orders.get(o2)));
+        List<String> toSort = new ArrayList<>(ordered);
+        Set<String> sorted = new LinkedHashSet<>();
+        Set<String> processing = new LinkedHashSet<>();
+        while (!toSort.isEmpty()) {
+            sortByAfter(after, toSort, sorted, processing, toSort.remove(0));
+        }
+        return new ArrayList<>(sorted);
+    }
+
+    /**
+     * 先放入需要排在当前类之前的类
+     *
+     * @param after      类名 -> 需要排在它之前的类
+     * @param toSort     待排序的类
+     * @param sorted     已排序的类
+     * @param processing 正在处理的类，用于发现环
+     * @param current    当前类
+     */
+    private static void sortByAfter(Map<String, Set<String>> after, List<String> toSort, Set<String> sorted,
+                                    Set<String> processing, String current) {
+        processing.add(current);
+        for (String previous : after.get(current)) {
+            if (processing.contains(previous)) {
+                List<String> cycle = new ArrayList<>(processing);
+                cycle = new ArrayList<>(cycle.subList(cycle.indexOf(previous), cycle.size()));
+                cycle.add(previous);
+                throw new CycleException(cycle);
+            }
+            if (!sorted.contains(previous) && toSort.remove(previous)) {
+                sortByAfter(after, toSort, sorted, processing, previous);
+            }
+        }
+        processing.remove(current);
+        sorted.add(current);
+    }
+
+    /**
+     * 自动配置类的先后关系存在环
+     */
+    static final class CycleException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+        /** 环上的类，首尾相同 */
+        private final List<String> cycle;
+
+        CycleException(List<String> cycle) {
+            super("自动配置类的先后顺序存在循环：" + String.join(" -> ", cycle));
+            this.cycle = cycle;
+        }
+
+        /**
+         * 获取环上的类
+         *
+         * @return 类名，首尾相同
+         */
+        List<String> getCycle() {
+            return cycle;
+        }
+    }
+
+}
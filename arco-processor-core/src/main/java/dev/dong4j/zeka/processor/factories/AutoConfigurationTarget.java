@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import java.util.Locale;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * 自动配置类的登记目标
+ *
+ * <p>由两个编译选项决定：</p>
+ * <ul>
+ *   <li>{@code arco.boot.version}：目标 Spring Boot 版本。2.7 及以上只写入 {@code AutoConfiguration.imports}，
+ *   2.7 以下只写入 {@code spring.factories} 的 {@code EnableAutoConfiguration}；未设置时两者都写入，兼容此前的行为</li>
+ *   <li>{@code arco.autoconfigure.mode}：哪些类登记为自动配置类，见 {@link AutoConfigurationMode}，默认 {@code component}</li>
+ * </ul>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@Getter
+class AutoConfigurationTarget {
+    /** 目标 Spring Boot 版本的编译选项，例如 {@code 2.6}、{@code 2.7.18}、{@code 3} */
+    static final String BOOT_VERSION_OPTION = "arco.boot.version";
+    /** 自动配置类选择方式的编译选项 */
+    static final String MODE_OPTION = "arco.autoconfigure.mode";
+
+    /** 是否写入 AutoConfiguration.imports */
+    private final boolean writeImports;
+    /** 是否写入 spring.factories 的 EnableAutoConfiguration */
+    private final boolean writeFactories;
+    /** 自动配置类的选择方式 */
+    private final AutoConfigurationMode mode;
+
+    private AutoConfigurationTarget(boolean writeImports, boolean writeFactories, AutoConfigurationMode mode) {
+        this.writeImports = writeImports;
+        this.writeFactories = writeFactories;
+        this.mode = mode;
+    }
+
+    /**
+     * 按编译选项创建
+     *
+     * @param options 编译选项
+     * @return 登记目标
+     * @throws IllegalArgumentException 选项的值无法识别
+     */
+    static AutoConfigurationTarget of(Map<String, String> options) {
+        AutoConfigurationMode mode = AutoConfigurationMode.COMPONENT;
+        String modeValue = options.get(MODE_OPTION);
+        if (modeValue != null && !modeValue.trim().isEmpty()) {
+            mode = AutoConfigurationMode.valueOf(modeValue.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+        String version = options.get(BOOT_VERSION_OPTION);
+        if (version == null || version.trim().isEmpty()) {
+            return new AutoConfigurationTarget(true, true, mode);
+        }
+        boolean imports = supportsImports(version.trim());
+        return new AutoConfigurationTarget(imports, !imports, mode);
+    }
+
+    /**
+     * 判断 Spring Boot 版本是否支持 {@code AutoConfiguration.imports}（2.7 起）
+     *
+     * @param version 版本号
+     * @return 支持返回 {@code true}
+     * @throws IllegalArgumentException 版本号无法识别
+     */
+    private static boolean supportsImports(String version) {
+        String[] parts = version.split("[.-]");
+        try {
+            int major = Integer.parseInt(parts[0]);
+            int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return major > 2 || major == 2 && minor >= 7;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无法识别的 Spring Boot 版本：" + version, e);
+        }
+    }
+
+}
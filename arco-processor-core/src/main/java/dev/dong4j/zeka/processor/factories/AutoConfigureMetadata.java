@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import dev.dong4j.zeka.processor.common.PropertiesWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.SimpleAnnotationValueVisitor8;
+
+/**
+ * {@code META-INF/spring-autoconfigure-metadata.properties} 的生成
+ *
+ * <p>Spring Boot 的 {@code AutoConfigurationImportFilter} 读取该文件中的条件，在加载自动配置类之前就排除不满足条件的候选，
+ * 不需要用 ASM 读取或加载其 class 文件。与 {@code spring-boot-autoconfigure-processor} 只识别直接标注的注解不同，
+ * 这里沿元注解展开组合注解，例如标注了 {@code @ConditionalOnWebApplication} 的自定义 {@code @WebAutoConfiguration}。</p>
+ *
+ * <p><strong>文件格式：</strong>与 Spring Boot 相同，每个自动配置类输出一行自身，以及每个识别到的条件一行：</p>
+ * <pre>
+ * com.example.WebAutoConfiguration=
+ * com.example.WebAutoConfiguration.ConditionalOnClass=jakarta.servlet.Servlet
+ * com.example.WebAutoConfiguration.ConditionalOnWebApplication=SERVLET
+ * </pre>
+ *
+ * <p>组合注解上的 {@code @AliasFor} 不做解析，只读取元注解上声明的值。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+class AutoConfigureMetadata {
+    /** 是否生成的编译选项，默认不生成 */
+    static final String OPTION = "arco.autoconfigure.metadata";
+    /** 文件位置 */
+    static final String RESOURCE_LOCATION = "META-INF/spring-autoconfigure-metadata.properties";
+    /** 注解全限定名 -> 属性名 -> 输出的条件名 */
+    private static final Map<String, Map<String, String>> RULES = new LinkedHashMap<>();
+
+    static {
+        rule("org.springframework.boot.autoconfigure.condition.ConditionalOnClass", "ConditionalOnClass", "value", "name");
+        rule("org.springframework.boot.autoconfigure.condition.ConditionalOnBean", "ConditionalOnBean", "value", "type");
+        rule("org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate", "ConditionalOnSingleCandidate", "value", "type");
+        rule("org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication", "ConditionalOnWebApplication", "type");
+        rule("org.springframework.boot.autoconfigure.AutoConfigureBefore", "AutoConfigureBefore", "value", "name");
+        rule("org.springframework.boot.autoconfigure.AutoConfigureAfter", "AutoConfigureAfter", "value", "name");
+        rule("org.springframework.boot.autoconfigure.AutoConfigureOrder", "AutoConfigureOrder", "value");
+        rule("org.springframework.boot.autoconfigure.AutoConfiguration", "AutoConfigureBefore", "before", "beforeName");
+        rule("org.springframework.boot.autoconfigure.AutoConfiguration", "AutoConfigureAfter", "after", "afterName");
+    }
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 元注解闭包缓存，用于跳过不含任何条件注解的组合注解 */
+    private final MetaAnnotationCache metaAnnotations;
+    /** 识别的注解全限定名 */
+    private final Set<Name> handled = new HashSet<>();
+    /** 类名 -> 条件名 -> 值 */
+    private final Map<Name, Map<String, Set<String>>> conditionsCache = new HashMap<>();
+    /** 输出的键值，按键排序 */
+    private final Map<String, String> properties = new TreeMap<>();
+
+    AutoConfigureMetadata(Elements elementUtils, MetaAnnotationCache metaAnnotations) {
+        this.elementUtils = elementUtils;
+        this.metaAnnotations = metaAnnotations;
+        for (String annotation : RULES.keySet()) {
+            handled.add(elementUtils.getName(annotation));
+        }
+    }
+
+    /**
+     * 记录一条规则
+     *
+     * @param annotation 注解全限定名
+     * @param condition  输出的条件名
+     * @param attributes 属性名
+     */
+    private static void rule(String annotation, String condition, String... attributes) {
+        Map<String, String> rule = RULES.computeIfAbsent(annotation, k -> new HashMap<>());
+        for (String attribute : attributes) {
+            rule.put(attribute, condition);
+        }
+    }
+
+    /**
+     * 收集自动配置类的条件
+     *
+     * @param className   配置文件中的类名
+     * @param typeElement 自动配置类
+     */
+    void add(String className, TypeElement typeElement) {
+        properties.put(className, "");
+        for (Map.Entry<String, Set<String>> entry : getConditions(typeElement).entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                properties.put(className + '.' + entry.getKey(), String.join(",", entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * 获取自动配置类的条件，同一个类只解析一次
+     *
+     * @param typeElement 自动配置类
+     * @return 条件名 -> 值，例如 {@code AutoConfigureAfter} -> 类的二进制名称
+     */
+    Map<String, Set<String>> getConditions(TypeElement typeElement) {
+        return conditionsCache.computeIfAbsent(typeElement.getQualifiedName(), name -> {
+            Map<String, Set<String>> conditions = new TreeMap<>();
+            collect(typeElement, conditions, new HashSet<>(), 0);
+            return conditions;
+        });
+    }
+
+    /**
+     * 判断是否没有任何条目
+     *
+     * @return 没有条目返回 {@code true}
+     */
+    boolean isEmpty() {
+        return properties.isEmpty();
+    }
+
+    /**
+     * 输出文件内容
+     *
+     * @return 文件内容
+     */
+    byte[] toByteArray() {
+        PropertiesWriter content = new PropertiesWriter(properties.size() * 96);
+        properties.forEach(content::append);
+        return content.toByteArray();
+    }
+
+    /**
+     * 沿元注解收集条件，只展开闭包中包含条件注解的组合注解
+     *
+     * @param element    类或注解类型
+     * @param conditions 条件名 -> 值
+     * @param visited    已展开的注解类型
+     * @param depth      当前展开层数
+     */
+    private void collect(Element element, Map<String, Set<String>> conditions, Set<Name> visited, int depth) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = MetaAnnotationCache.asTypeElement(annotation);
+            Name name = annotationType.getQualifiedName();
+            Map<String, String> rule = RULES.get(name.toString());
+            if (rule != null) {
+                extract(annotation, rule, conditions);
+            }
+            if (depth < MetaAnnotationCache.MAX_DEPTH && visited.add(name)
+                && !Collections.disjoint(metaAnnotations.getMetaAnnotations(annotationType), handled)) {
+                collect(annotationType, conditions, visited, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * 读取注解属性值
+     *
+     * @param annotation 注解
+     * @param rule       属性名 -> 条件名
+     * @param conditions 条件名 -> 值
+     */
+    private void extract(AnnotationMirror annotation, Map<String, String> rule, Map<String, Set<String>> conditions) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+            : elementUtils.getElementValuesWithDefaults(annotation).entrySet()) {
+            String condition = rule.get(entry.getKey().getSimpleName().toString());
+            if (condition != null) {
+                Set<String> values = conditions.computeIfAbsent(condition, k -> new LinkedHashSet<>());
+                entry.getValue().accept(valueVisitor, values);
+            }
+        }
+    }
+
+    /** 注解属性值的读取：类型输出二进制名称，枚举输出常量名，数组逐项读取 */
+    private final SimpleAnnotationValueVisitor8<Void, Set<String>> valueVisitor = new SimpleAnnotationValueVisitor8<Void, Set<String>>() {
+        @Override
+        public Void visitType(TypeMirror type, Set<String> values) {
+            if (type instanceof DeclaredType) {
+                values.add(elementUtils.getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitEnumConstant(VariableElement constant, Set<String> values) {
+            values.add(constant.getSimpleName().toString());
+            return null;
+        }
+
+        @Override
+        public Void visitArray(List<? extends AnnotationValue> array, Set<String> values) {
+            for (AnnotationValue value : array) {
+                value.accept(this, values);
+            }
+            return null;
+        }
+
+        @Override
+        protected Void defaultAction(Object value, Set<String> values) {
+            values.add(String.valueOf(value));
+            return null;
+        }
+    };
+
+}
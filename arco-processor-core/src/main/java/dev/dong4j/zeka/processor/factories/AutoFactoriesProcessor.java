@@ -19,14 +19,31 @@ package dev.dong4j.zeka.processor.factories;
 import com.google.auto.service.AutoService;
 import dev.dong4j.zeka.processor.annotation.AutoIgnore;
 import dev.dong4j.zeka.processor.common.AbstractMicaProcessor;
+import dev.dong4j.zeka.processor.common.AnalyzedType;
 import dev.dong4j.zeka.processor.common.BootAutoType;
+import dev.dong4j.zeka.processor.common.FactoriesFiles;
+import dev.dong4j.zeka.processor.common.FactoriesIndex;
+import dev.dong4j.zeka.processor.common.GeneratedResources;
 import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Category;
+import dev.dong4j.zeka.processor.common.ResourceState;
+import dev.dong4j.zeka.processor.common.RoundAnalysis;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
@@ -34,9 +51,13 @@ import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic.Kind;
 import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 
 /**
@@ -82,8 +103,6 @@ import javax.tools.StandardLocation;
 @SupportedAnnotationTypes("*")
 @SupportedOptions("debug")
 public class AutoFactoriesProcessor extends AbstractMicaProcessor {
-    /** Feign 客户端注解全限定名 */
-    private static final String FEIGN_CLIENT_ANNOTATION = "org.springframework.cloud.openfeign.FeignClient";
     /** Feign 自动配置类的配置键 */
     private static final String FEIGN_AUTO_CONFIGURE_KEY = "dev.dong4j.zeka.starter.feign.autoconfigure.ZekaFeignAutoConfiguration";
     /** Spring Boot 传统配置文件位置，可存在于多个 JAR 文件中 */
@@ -102,26 +121,98 @@ public class AutoFactoriesProcessor extends AbstractMicaProcessor {
     private Elements elementUtils;
     /** 标记是否存在继承自 ZekaStackStarter 的启动类 */
     private boolean existStartClass = false;
-    /** 应用启动类的父类全限定名 */
-    private static final String START_CLASS_NAME = "dev.dong4j.zeka.starter.launcher.ZekaStackStarter";
     /** 应用 PID 文件写入器类名，用于生成 app.pid 文件 */
     private static final String APPLICATION_PID_FILE_WRITER = "org.springframework.boot.context.ApplicationPidFileWriter";
+    /** 来源记录名称 */
+    private static final String STATE_NAME = "factories";
+    /** 本次编译扫描出的配置及其来源类型 */
+    private final ResourceState contributions = new ResourceState();
+    /** 由 SpringFactoriesLoader 实例化、可以写入注册表的配置键 */
+    private static final Set<String> REGISTRY_KEYS = getRegistryKeys();
+    /** 是否生成 factories 实例注册表 */
+    private boolean registryEnabled;
+    /** 本次编译生成的注册表类名 */
+    private String registryName;
+    /** 是否生成 spring-autoconfigure-metadata.properties */
+    private boolean metadataEnabled;
+    /** 自动配置类的登记目标 */
+    private AutoConfigurationTarget autoConfigurationTarget;
+    /** 登记为自动配置类需要标注的注解 */
+    private Name autoConfigurationAnnotation;
+    /** proxyBeanMethods 分析，未开启时为 {@code null} */
+    private ProxyBeanMethodsAnalyzer proxyBeanMethodsAnalyzer;
+    /** 未加守卫条件的自动配置类检查，未开启时为 {@code null} */
+    private AutoConfigurationLint autoConfigurationLint;
+    /** 候选组件索引的收集，未开启时为 {@code null} */
+    private CandidateComponents candidateComponents;
+    /** factories 实现类排序值的解析，未开启二进制索引时为 {@code null} */
+    private FactoryOrders factoryOrders;
+    /** 排序值取决于读取不到的 getOrder() 方法体的类型，沿用上一次编译记录的排序值 */
+    private final Set<String> retainedOrders = new LinkedHashSet<>();
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
         elementUtils = processingEnv.getElementUtils();
+        registryEnabled = Boolean.parseBoolean(processingEnv.getOptions().get(FactoryRegistrySource.OPTION));
+        metadataEnabled = Boolean.parseBoolean(processingEnv.getOptions().get(AutoConfigureMetadata.OPTION));
+        try {
+            autoConfigurationTarget = AutoConfigurationTarget.of(processingEnv.getOptions());
+        } catch (IllegalArgumentException e) {
+            fatalError("-A" + AutoConfigurationTarget.BOOT_VERSION_OPTION + " 或 -A" + AutoConfigurationTarget.MODE_OPTION
+                + " 的值无法识别：" + e.getMessage());
+            autoConfigurationTarget = AutoConfigurationTarget.of(Collections.emptyMap());
+        }
+        autoConfigurationAnnotation = elementUtils.getName(autoConfigurationTarget.getMode().getAnnotation());
+        try {
+            proxyBeanMethodsAnalyzer = ProxyBeanMethodsAnalyzer.of(processingEnv, metaAnnotations);
+        } catch (IllegalArgumentException e) {
+            fatalError("-A" + ProxyBeanMethodsAnalyzer.OPTION + " 的值无法识别：" + e.getMessage() + "，可选 off、warn、error");
+        }
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(AutoConfigurationLint.OPTION))) {
+            autoConfigurationLint = new AutoConfigurationLint(elementUtils, metaAnnotations);
+        }
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(CandidateComponents.OPTION))) {
+            candidateComponents = new CandidateComponents(elementUtils, context.getMetaAnnotations());
+        }
+        if (FactoriesIndex.isEnabled(processingEnv)) {
+            factoryOrders = new FactoryOrders(processingEnv, metaAnnotations);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new LinkedHashSet<>(super.getSupportedOptions());
+        options.add(FactoryRegistrySource.OPTION);
+        options.add(AutoConfigureMetadata.OPTION);
+        options.add(CandidateComponents.OPTION);
+        options.add(AutoConfigurationTarget.BOOT_VERSION_OPTION);
+        options.add(AutoConfigurationTarget.MODE_OPTION);
+        options.add(ProxyBeanMethodsAnalyzer.OPTION);
+        options.add(AutoConfigurationLint.OPTION);
+        return options;
+    }
+
+    @Override
+    protected Category getLogCategory() {
+        return Category.FACTORIES;
     }
 
     @Override
     protected boolean processImpl(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         if (roundEnv.processingOver()) {
-            // 1. 生成 spring boot 2.7.x @AutoConfiguration
-            generateAutoConfigurationImportsFiles();
-            // 2. 生成 spring.factories
-            generateFactoriesFiles();
+            generateFiles();
+            if (proxyBeanMethodsAnalyzer != null) {
+                proxyBeanMethodsAnalyzer.printSummary();
+            }
         } else {
             processAnnotations(annotations, roundEnv);
+            if (candidateComponents != null) {
+                processComponents(roundEnv);
+            }
+            if (registryEnabled && registryName == null) {
+                generateRegistry();
+            }
         }
         return false;
     }
@@ -129,36 +220,34 @@ public class AutoFactoriesProcessor extends AbstractMicaProcessor {
     /**
      * 处理扫描到的注解元素
      *
+     * <p>类型分类由 {@link dev.dong4j.zeka.processor.common.ProcessingContext} 在本轮统一完成，这里只消费分类结果。</p>
+     *
      * @param annotations 当前轮次中需要处理的注解类型集合
      * @param roundEnv    当前处理轮次的环境信息
      */
     private void processAnnotations(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         // 输出调试信息，可通过 gradle build --debug 查看
-        log(annotations.toString());
-        Set<? extends Element> elementSet = roundEnv.getRootElements();
-        log("All Element set: " + elementSet.toString());
-
-        // 过滤出类或接口类型的元素
-        Set<TypeElement> typeElementSet = elementSet.stream()
-            .filter(this::isClassOrInterface)
-            .filter(e -> e instanceof TypeElement)
-            .map(e -> (TypeElement) e)
-            .collect(Collectors.toSet());
+        log("Annotations: {}", annotations);
+        RoundAnalysis analysis = analyze(roundEnv);
+        List<AnalyzedType> analyzedTypes = analysis.getTypes();
         // 如果没有找到任何符合条件的元素，直接返回
-        if (typeElementSet.isEmpty()) {
+        if (analyzedTypes.isEmpty()) {
             log("Annotations elementSet is isEmpty");
             return;
         }
-        for (TypeElement typeElement : typeElementSet) {
-            if (!this.existStartClass && typeElement.getSuperclass() != null && START_CLASS_NAME.equals(typeElement.getSuperclass().toString())) {
+        for (AnalyzedType analyzedType : analyzedTypes) {
+            TypeElement typeElement = analyzedType.getElement();
+            String factoryName = analyzedType.getQualifiedName();
+            if (analyzedType.isStartClass()) {
                 this.existStartClass = true;
+                contributions.add(typeElement, FACTORIES_RESOURCE_LOCATION, BootAutoType.LISTENER.getConfigureKey(), APPLICATION_PID_FILE_WRITER);
             }
 
             // ignore @AutoIgnore Element
-            if (isAnnotation(elementUtils, typeElement, AutoIgnore.class.getName())) {
-                log("Found @AutoIgnore annotation，ignore Element: " + typeElement.toString());
-            } else if (isAnnotation(elementUtils, typeElement, FEIGN_CLIENT_ANNOTATION)) {
-                log("Found @FeignClient Element: " + typeElement.toString());
+            if (analyzedType.isIgnored()) {
+                log("Found @AutoIgnore annotation，ignore Element: {}", factoryName);
+            } else if (analyzedType.isFeignClient()) {
+                log("Found @FeignClient Element: {}", factoryName);
 
                 ElementKind elementKind = typeElement.getKind();
                 // Feign Client 只处理 接口
@@ -166,34 +255,72 @@ public class AutoFactoriesProcessor extends AbstractMicaProcessor {
                     fatalError("@FeignClient Element " + typeElement + " 不是接口。");
                     continue;
                 }
+                // 记录客户端，运行时按索引注册，不再扫描
+                if (FactoriesIndex.isEnabled(processingEnv)) {
+                    contributions.add(typeElement, FeignClientIndex.RESOURCE_LOCATION, "", elementUtils.getBinaryName(typeElement).toString());
+                }
 
-                String factoryName = typeElement.getQualifiedName().toString();
                 if (factories.containsVal(factoryName)) {
                     continue;
                 }
 
-                log("读取到新配置 spring.factories factoryName：" + factoryName);
+                log("读取到新配置 spring.factories factoryName：{}", factoryName);
                 factories.put(FEIGN_AUTO_CONFIGURE_KEY, factoryName);
+                contributions.add(typeElement, FACTORIES_RESOURCE_LOCATION, FEIGN_AUTO_CONFIGURE_KEY, factoryName);
             } else {
+                Set<BootAutoType> autoTypes = analyzedType.getBootTypes();
+                boolean autoConfiguration = autoTypes.contains(BootAutoType.COMPONENT) && isAutoConfiguration(typeElement);
+                if (autoConfiguration && proxyBeanMethodsAnalyzer != null) {
+                    proxyBeanMethodsAnalyzer.analyze(typeElement);
+                }
+                if (autoConfiguration && autoConfigurationLint != null && !autoConfigurationLint.isGuarded(typeElement)) {
+                    int referencedTypes = autoConfigurationLint.countReferencedTypes(typeElement);
+                    contributions.add(typeElement, AutoConfigurationLint.REPORT_LOCATION, factoryName, String.valueOf(referencedTypes));
+                    processingEnv.getMessager().printMessage(Kind.WARNING, "自动配置类没有 @ConditionalOnClass 或 @ConditionalOnProperty 守卫，"
+                        + "每次启动都会被解析，估算引入 " + referencedTypes + " 个类型", typeElement);
+                }
+                if (autoTypes.contains(BootAutoType.LISTENER) && FactoriesIndex.isEnabled(processingEnv)) {
+                    String eventType = ListenerEventTypes.resolveEventType(typeElement, elementUtils, processingEnv.getTypeUtils());
+                    if (eventType != null) {
+                        contributions.add(typeElement, ListenerEventTypes.RESOURCE_LOCATION,
+                            elementUtils.getBinaryName(typeElement).toString(), eventType);
+                    } else {
+                        log("{} 的事件类型无法在编译期确定，运行时按泛型解析", factoryName);
+                    }
+                }
                 // 1. 生成 2.7.x 的 spi
-                if (isAnnotation(elementUtils, typeElement, BootAutoType.COMPONENT_ANNOTATION)) {
-                    String autoConfigurationBeanName = typeElement.getQualifiedName().toString();
-                    autoConfigurationImportsSet.add(autoConfigurationBeanName);
-                    log("读取到自动配置 @AutoConfiguration：" + autoConfigurationBeanName);
+                if (autoConfiguration && autoConfigurationTarget.isWriteImports()) {
+                    autoConfigurationImportsSet.add(factoryName);
+                    contributions.add(typeElement, AUTO_CONFIGURATION_IMPORTS_LOCATION, "", factoryName);
+                    log("读取到自动配置 @AutoConfiguration：{}", factoryName);
                 }
                 // 2. 老的 spring.factories
-                for (BootAutoType autoType : BootAutoType.values()) {
-                    String annotation = autoType.getAnnotation();
-                    if (isAnnotation(elementUtils, typeElement, annotation)) {
-                        log("Found @" + annotation + " Element: " + typeElement.toString());
+                boolean orderResolved = false;
+                for (BootAutoType autoType : autoTypes) {
+                    if (autoType == BootAutoType.COMPONENT && !(autoConfiguration && autoConfigurationTarget.isWriteFactories())) {
+                        continue;
+                    }
+                    log("Found @{} Element: {}", autoType.getAnnotation(), factoryName);
+                    if (factories.containsVal(factoryName)) {
+                        continue;
+                    }
 
-                        String factoryName = typeElement.getQualifiedName().toString();
-                        if (factories.containsVal(factoryName)) {
-                            continue;
+                    log("读取到新配置 spring.factories factoryName：{}", factoryName);
+                    factories.put(autoType.getConfigureKey(), factoryName);
+                    contributions.add(typeElement, FACTORIES_RESOURCE_LOCATION, autoType.getConfigureKey(), factoryName);
+                    // 由 SpringFactoriesLoader 实例化并排序的实现类，记录编译期可以确定的排序值
+                    if (factoryOrders != null && !orderResolved && REGISTRY_KEYS.contains(autoType.getConfigureKey())) {
+                        orderResolved = true;
+                        Integer order = factoryOrders.resolveOrder(typeElement);
+                        if (order != null) {
+                            contributions.add(typeElement, FactoryOrders.RESOURCE_LOCATION,
+                                elementUtils.getBinaryName(typeElement).toString(), String.valueOf(order));
+                        } else if (factoryOrders.isBodyUnavailable(typeElement)) {
+                            retainedOrders.add(factoryName);
+                            log("{} 的 getOrder() 没有语法树，沿用上一次编译记录的排序值", factoryName);
+                        } else {
+                            log("{} 的排序值无法在编译期确定，运行时由 Spring 判断", factoryName);
                         }
-
-                        log("读取到新配置 spring.factories factoryName：" + factoryName);
-                        factories.put(autoType.getConfigureKey(), factoryName);
                     }
                 }
             }
@@ -201,100 +328,448 @@ public class AutoFactoriesProcessor extends AbstractMicaProcessor {
     }
 
     /**
-     * 生成 spring.factories 配置文件
+     * 判断组件是否按 {@code arco.autoconfigure.mode} 登记为自动配置类
      *
-     * <p>该方法将收集到的所有配置信息合并并写入到 META-INF/spring.factories 文件中。
-     * 支持增量编译，会合并已有的配置文件内容。</p>
+     * @param typeElement 被 {@code @Component} 标记的类型
+     * @return 需要登记返回 {@code true}
+     */
+    private boolean isAutoConfiguration(TypeElement typeElement) {
+        return autoConfigurationTarget.getMode() == AutoConfigurationMode.COMPONENT
+            || metaAnnotations.isAnnotated(elementUtils, typeElement, autoConfigurationAnnotation);
+    }
+
+    /**
+     * 收集本轮根类型的候选组件索引条目
+     *
+     * <p>组件扫描会查找基础包下的所有类，索引需要覆盖全部根类型，不限于自动配置的分类结果。</p>
+     *
+     * @param roundEnv 当前处理轮次的环境信息
+     */
+    private void processComponents(RoundEnvironment roundEnv) {
+        for (TypeElement rootType : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            MultiSetMap<String, String> entries = new MultiSetMap<>();
+            candidateComponents.collect(rootType, entries);
+            for (String className : entries.keySet()) {
+                for (String stereotype : entries.get(className)) {
+                    contributions.add(rootType, CandidateComponents.RESOURCE_LOCATION, className, stereotype);
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成 factories 实例注册表
+     *
+     * <p>注册表是 Java 源码，需要在非最后一轮生成才能参与编译，因此在第一个包含相关配置的轮次中，
+     * 按合并后的来源记录一次性生成。之后的轮次中新增的实现类不在注册表中，运行时回退到反射实例化。</p>
+     */
+    private void generateRegistry() {
+        if (elementUtils.getTypeElement(FactoryRegistrySource.REGISTRY_INTERFACE) == null) {
+            processingEnv.getMessager().printMessage(Kind.WARNING,
+                "-A" + FactoryRegistrySource.OPTION + "=true 需要在编译 classpath 中引入 arco-processor-runtime，已跳过注册表生成");
+            registryEnabled = false;
+            return;
+        }
+        ResourceState merged = mergeState(ResourceState.read(processingEnv.getFiler(), STATE_NAME));
+        MultiSetMap<String, String> entries = merged.getEntries(FACTORIES_RESOURCE_LOCATION);
+        Map<String, List<String>> constructors = new TreeMap<>();
+        Set<String> packageNames = new TreeSet<>();
+        for (String key : entries.keySet()) {
+            if (!REGISTRY_KEYS.contains(key)) {
+                continue;
+            }
+            for (String factoryName : entries.get(key)) {
+                TypeElement typeElement = elementUtils.getTypeElement(factoryName);
+                List<String> parameterTypes = typeElement == null ? null
+                    : FactoryRegistrySource.resolveConstructor(typeElement, processingEnv.getTypeUtils());
+                if (parameterTypes == null) {
+                    log("{} 无法直接调用构造器，运行时回退到反射", factoryName);
+                    continue;
+                }
+                constructors.put(factoryName, parameterTypes);
+                packageNames.add(elementUtils.getPackageOf(typeElement).getQualifiedName().toString());
+            }
+        }
+        if (constructors.isEmpty()) {
+            return;
+        }
+        String className = FactoryRegistrySource.getClassName(packageNames, constructors.keySet());
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(className,
+                merged.getOriginatingElements(FACTORIES_RESOURCE_LOCATION));
+            try (Writer writer = sourceFile.openWriter()) {
+                FactoryRegistrySource.write(className, constructors, writer);
+            }
+            registryName = className;
+            log("Generated factory registry {} with {} entries", className, constructors.size());
+        } catch (IOException e) {
+            fatalError(e);
+        }
+    }
+
+    /**
+     * 合并上一次编译的来源记录和本次编译扫描出的配置
+     *
+     * <p>本次重新处理但读取不到 {@code getOrder()} 方法体的类型，沿用上一次记录的排序值。</p>
+     *
+     * @param previous 上一次编译的来源记录，不存在时为 {@code null}
+     * @return 合并后的来源记录
+     */
+    private ResourceState mergeState(ResourceState previous) {
+        ResourceState merged = new ResourceState();
+        if (previous != null) {
+            merged.addAll(previous, this::isRetained);
+        }
+        merged.addAll(contributions, origin -> true);
+        if (previous != null) {
+            for (String origin : retainedOrders) {
+                merged.addAll(previous, origin, FactoryOrders.RESOURCE_LOCATION);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 写出注册表类名的登记文件，本次没有生成注册表时清空已有的登记
+     *
+     * @param merged 合并后的来源记录
+     * @throws IOException 写入文件时发生的 IO 异常
      */
-    private void generateFactoriesFiles() {
-        if (factories.isEmpty()) {
+    private void generateRegistryFile(ResourceState merged) throws IOException {
+        Filer filer = processingEnv.getFiler();
+        String location = FactoryRegistrySource.REGISTRY_RESOURCE_LOCATION;
+        if (registryName == null && !GeneratedResources.exists(filer, location)) {
             return;
         }
+        byte[] content = registryName == null ? new byte[0] : (registryName + '\n').getBytes(StandardCharsets.UTF_8);
+        if (GeneratedResources.writeIfChanged(filer, location, content, merged.getOriginatingElements(FACTORIES_RESOURCE_LOCATION))) {
+            log("Wrote to: {}", location);
+        }
+    }
+
+    /**
+     * 生成 spring-autoconfigure-metadata.properties，覆盖写入 AutoConfiguration.imports 和 EnableAutoConfiguration 的全部自动配置类
+     *
+     * <p>{@code spring-boot-autoconfigure-processor} 也会写出同名文件，两者同时启用时以先写入的为准，这里给出警告后跳过。</p>
+     *
+     * @param merged   合并后的来源记录
+     * @param metadata 自动配置类的条件
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    private void generateAutoConfigureMetadataFile(ResourceState merged, AutoConfigureMetadata metadata) throws IOException {
+        Set<String> classNames = new TreeSet<>(merged.getValues(AUTO_CONFIGURATION_IMPORTS_LOCATION));
+        Set<String> enableAutoConfigurations = merged.getEntries(FACTORIES_RESOURCE_LOCATION).get(BootAutoType.COMPONENT.getConfigureKey());
+        if (enableAutoConfigurations != null) {
+            classNames.addAll(enableAutoConfigurations);
+        }
+        for (String className : classNames) {
+            TypeElement typeElement = elementUtils.getTypeElement(className);
+            if (typeElement != null) {
+                metadata.add(className, typeElement);
+            }
+        }
         Filer filer = processingEnv.getFiler();
+        String location = AutoConfigureMetadata.RESOURCE_LOCATION;
+        if (metadata.isEmpty() && !GeneratedResources.exists(filer, location)) {
+            return;
+        }
+        Element[] originatingElements = merged.getOriginatingElements(AUTO_CONFIGURATION_IMPORTS_LOCATION);
         try {
-            // 用于存储所有 spring.factories 配置的容器
-            MultiSetMap<String, String> allFactories = new MultiSetMap<>();
+            if (GeneratedResources.writeIfChanged(filer, location, metadata.toByteArray(), originatingElements)) {
+                log("Wrote to: {}", location);
+            }
+        } catch (FilerException e) {
+            processingEnv.getMessager().printMessage(Kind.WARNING,
+                location + " 已由其他注解处理器生成（例如 spring-boot-autoconfigure-processor），已跳过：" + e.getMessage());
+        }
+    }
 
-            // 1. 读取用户手动编写的 spring.factories 文件
+    /**
+     * 生成 META-INF/spring.components，合并方式与 spring.factories 相同
+     *
+     * @param previous 上一次编译的来源记录，不存在时为 {@code null}
+     * @param merged   合并后的来源记录
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    private void generateComponentsFile(ResourceState previous, ResourceState merged) throws IOException {
+        String location = CandidateComponents.RESOURCE_LOCATION;
+        boolean existed = previous != null && previous.contains(location);
+        if (!existed && !merged.contains(location)) {
+            return;
+        }
+        Filer filer = processingEnv.getFiler();
+        // 没有来源记录时，读取增量编译时已存在的索引文件，只保留本模块的类，条目以其外层的顶层类型作为来源类型
+        if (previous == null) {
             try {
-                FileObject existingFactoriesFile = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
-                log("Looking for existing spring.factories file at " + existingFactoriesFile.toUri());
-                MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, elementUtils);
-                log("Existing spring.factories entries: " + existingFactories);
-                allFactories.putAll(existingFactories);
+                MultiSetMap<String, String> existing = CandidateComponents.read(filer.getResource(StandardLocation.CLASS_OUTPUT, "", location));
+                for (String className : existing.keySet()) {
+                    int nested = className.indexOf('$');
+                    String origin = nested < 0 ? className : className.substring(0, nested);
+                    if (existingTypes.isModuleType(origin)) {
+                        for (String stereotype : existing.get(className)) {
+                            merged.add(origin, location, className, stereotype);
+                        }
+                    }
+                }
             } catch (IOException e) {
-                log("spring.factories resource file not found.");
+                log("spring.components resource file did not already exist.");
             }
+        }
+        byte[] content = CandidateComponents.toByteArray(merged.getEntries(location));
+        try {
+            if (GeneratedResources.writeIfChanged(filer, location, content, merged.getOriginatingElements(location))) {
+                log("Wrote to: {}", location);
+            }
+        } catch (FilerException e) {
+            processingEnv.getMessager().printMessage(Kind.WARNING,
+                location + " 已由其他注解处理器生成（例如 spring-context-indexer），已跳过：" + e.getMessage());
+        }
+    }
 
-            // 2. 读取增量编译时已存在的 spring.factories 文件
-            try {
-                FileObject existingFactoriesFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
-                log("Looking for existing spring.factories file at " + existingFactoriesFile.toUri());
-                MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, elementUtils);
-                log("Existing spring.factories entries: " + existingFactories);
-                allFactories.putAll(existingFactories);
-            } catch (IOException e) {
-                log("spring.factories resource file did not already exist.");
+    /**
+     * 写出未加守卫条件的自动配置类报告，包含增量编译沿用的条目，内容有变化时才写入并输出汇总
+     *
+     * @param merged 合并后的来源记录
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    private void generateLintReport(ResourceState merged) throws IOException {
+        Filer filer = processingEnv.getFiler();
+        String location = AutoConfigurationLint.REPORT_LOCATION;
+        MultiSetMap<String, String> entries = merged.getEntries(location);
+        // 写入后不能再通过 getResource 打开同一文件，先取得报告的位置
+        FileObject report = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", location);
+        if (GeneratedResources.writeIfChanged(filer, StandardLocation.SOURCE_OUTPUT, location,
+            AutoConfigurationLint.toReport(entries), merged.getOriginatingElements(location))) {
+            log("Wrote to: {}", location);
+            // 报告未变化或没有条目时不输出，每个类的警告已经在分析时输出
+            if (!entries.isEmpty()) {
+                processingEnv.getMessager().printMessage(Kind.NOTE, entries.keySet().size() + " 个自动配置类没有守卫条件，报告：" + report.toUri());
             }
+        }
+    }
+
+    /**
+     * 写出 {@code META-INF/arco/} 下的运行时索引，例如监听器的事件类型、实现类的排序值和 Feign 客户端，本次没有条目时清空已有的索引
+     *
+     * @param previous 上一次编译的来源记录，不存在时为 {@code null}
+     * @param merged   合并后的来源记录
+     * @param location 索引位置
+     * @param content  索引内容
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    private void generateIndexedPropertiesFile(ResourceState previous, ResourceState merged, String location, byte[] content) throws IOException {
+        boolean existed = previous != null && previous.contains(location);
+        if (!existed && !merged.contains(location)) {
+            return;
+        }
+        if (GeneratedResources.writeIfChanged(processingEnv.getFiler(), location, content, merged.getOriginatingElements(location))) {
+            log("Wrote to: {}", location);
+        }
+    }
 
-            // 3. 合并当前注解处理器扫描出来的新配置
-            allFactories.putAll(factories);
-            log("New spring.factories file contents: " + allFactories);
+    /**
+     * 获取由 SpringFactoriesLoader 实例化的配置键，自动配置类和 {@code EnableCircuitBreaker} 只按类名导入，不在其中
+     *
+     * @return 配置键
+     */
+    private static Set<String> getRegistryKeys() {
+        Set<String> keys = new HashSet<>();
+        for (BootAutoType autoType : EnumSet.complementOf(EnumSet.of(BootAutoType.COMPONENT, BootAutoType.AUTO_ENABLE_CIRCUIT_BREAKER))) {
+            keys.add(autoType.getConfigureKey());
+        }
+        return keys;
+    }
 
-            // 创建并写入最终的配置文件
-            FileObject factoriesFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
-            try (OutputStream out = factoriesFile.openOutputStream()) {
-                FactoriesFiles.writeFactoriesFile(allFactories, out);
+    /**
+     * 在最后一轮生成配置文件和来源记录
+     *
+     * <p>存在上一次编译的来源记录时，只丢弃本次重新编译或已删除的类型的贡献，其余条目直接沿用，
+     * 不再读取和逐项校验已生成的文件；没有来源记录时（首次编译或旧版本生成的产物）回退到读取已有文件。</p>
+     */
+    private void generateFiles() {
+        Filer filer = processingEnv.getFiler();
+        ResourceState previous = ResourceState.read(filer, STATE_NAME);
+        ResourceState merged = mergeState(previous);
+        AutoConfigureMetadata metadata = new AutoConfigureMetadata(elementUtils, metaAnnotations);
+        try {
+            // 1. 生成 spring boot 2.7.x @AutoConfiguration
+            generateAutoConfigurationImportsFiles(previous, merged, metadata);
+            // 2. 生成 spring.factories
+            generateFactoriesFiles(previous, merged);
+            // 3. 注册表类名
+            if (registryEnabled) {
+                generateRegistryFile(merged);
+            }
+            // 4. 自动配置类的条件元数据
+            if (metadataEnabled) {
+                generateAutoConfigureMetadataFile(merged, metadata);
+            }
+            // 5. 候选组件索引
+            if (candidateComponents != null) {
+                generateComponentsFile(previous, merged);
+            }
+            // 6. 未加守卫条件的自动配置类报告
+            if (autoConfigurationLint != null) {
+                generateLintReport(merged);
+            }
+            // 7. 监听器的事件类型索引
+            generateIndexedPropertiesFile(previous, merged, ListenerEventTypes.RESOURCE_LOCATION, ListenerEventTypes.toByteArray(
+                merged.getEntries(ListenerEventTypes.RESOURCE_LOCATION)));
+            // 8. factories 实现类的排序值
+            generateIndexedPropertiesFile(previous, merged, FactoryOrders.RESOURCE_LOCATION, FactoryOrders.toByteArray(
+                merged.getEntries(FactoryOrders.RESOURCE_LOCATION)));
+            // 9. Feign 客户端索引，开启索引时没有客户端也生成空文件，运行时据此判断本模块的客户端都在索引中
+            Set<String> feignClients = merged.getEntries(FeignClientIndex.RESOURCE_LOCATION).get("");
+            byte[] feignIndex = FeignClientIndex.toByteArray(feignClients != null ? feignClients : Collections.emptySet());
+            if (FactoriesIndex.isEnabled(processingEnv)) {
+                if (GeneratedResources.writeIfChanged(filer, FeignClientIndex.RESOURCE_LOCATION, feignIndex,
+                    merged.getOriginatingElements(FeignClientIndex.RESOURCE_LOCATION))) {
+                    log("Wrote to: {}", FeignClientIndex.RESOURCE_LOCATION);
+                }
+            } else {
+                generateIndexedPropertiesFile(previous, merged, FeignClientIndex.RESOURCE_LOCATION, feignIndex);
+            }
+            // 10. 来源记录
+            if (previous != null || existStartClass || !factories.isEmpty() || !autoConfigurationImportsSet.isEmpty()
+                || contributions.contains(CandidateComponents.RESOURCE_LOCATION)) {
+                merged.write(filer, STATE_NAME);
             }
-
         } catch (IOException e) {
             fatalError(e);
         }
     }
 
-    private void generateAutoConfigurationImportsFiles() {
-        if (this.existStartClass) {
-            this.factories.put(BootAutoType.LISTENER.getConfigureKey(), APPLICATION_PID_FILE_WRITER);
-        }
-
-        if (autoConfigurationImportsSet.isEmpty()) {
+    /**
+     * 生成 spring.factories 配置文件
+     *
+     * <p>该方法将收集到的所有配置信息合并并写入到 META-INF/spring.factories 文件中。
+     * 支持增量编译，会合并已有的配置文件内容。</p>
+     *
+     * @param previous 上一次编译的来源记录，不存在时为 {@code null}
+     * @param merged   合并后的来源记录
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    private void generateFactoriesFiles(ResourceState previous, ResourceState merged) throws IOException {
+        boolean existed = previous != null && previous.contains(FACTORIES_RESOURCE_LOCATION);
+        if (!existed && !merged.contains(FACTORIES_RESOURCE_LOCATION)) {
             return;
         }
         Filer filer = processingEnv.getFiler();
+        // 用于存储所有 spring.factories 配置的容器
+        MultiSetMap<String, String> allFactories = new MultiSetMap<>();
+
+        // 1. 读取用户手动编写的 spring.factories 文件
         try {
-            // AutoConfiguration 配置
-            Set<String> allAutoConfigurationImports = new LinkedHashSet<>();
-            // 1. 用户手动配置项目下的 AutoConfiguration 文件
+            FileObject existingFactoriesFile = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
+            log("Looking for existing spring.factories file at {}", existingFactoriesFile);
+            MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, existingTypes::exists);
+            trace("Existing spring.factories entries: {}", existingFactories);
+            allFactories.putAll(existingFactories);
+        } catch (IOException e) {
+            log("spring.factories resource file not found.");
+        }
+
+        // 2. 没有来源记录时，读取增量编译时已存在的 spring.factories 文件，只保留本模块的类，条目以自身作为来源类型
+        if (previous == null) {
             try {
-                FileObject existingFactoriesFile = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", AUTO_CONFIGURATION_IMPORTS_LOCATION);
-                // 查找是否已经存在 spring.factories
-                log("Looking for existing AutoConfiguration imports file at " + existingFactoriesFile.toUri());
-                Set<String> existingSet = FactoriesFiles.readAutoConfigurationImports(existingFactoriesFile);
-                log("Existing AutoConfiguration imports entries: " + existingSet);
-                allAutoConfigurationImports.addAll(existingSet);
+                FileObject existingFactoriesFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", FACTORIES_RESOURCE_LOCATION);
+                log("Looking for existing spring.factories file at {}", existingFactoriesFile);
+                MultiSetMap<String, String> existingFactories = FactoriesFiles.readFactoriesFile(existingFactoriesFile, existingTypes::isModuleType);
+                trace("Existing spring.factories entries: {}", existingFactories);
+                for (String key : existingFactories.keySet()) {
+                    for (String value : existingFactories.get(key)) {
+                        merged.add(value, FACTORIES_RESOURCE_LOCATION, key, value);
+                    }
+                }
             } catch (IOException e) {
-                log("AutoConfiguration imports resource file not found.");
+                log("spring.factories resource file did not already exist.");
             }
-            // 2. 增量编译，已经存在的配置文件
+        }
+
+        // 3. 合并沿用的条目和当前注解处理器扫描出来的新配置
+        allFactories.putAll(merged.getEntries(FACTORIES_RESOURCE_LOCATION));
+        trace("New spring.factories file contents: {}", allFactories);
+
+        // 内容有变化时才写入最终的配置文件
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FactoriesFiles.writeFactoriesFile(allFactories, out);
+        byte[] content = out.toByteArray();
+        Element[] originatingElements = merged.getOriginatingElements(FACTORIES_RESOURCE_LOCATION);
+        if (GeneratedResources.writeIfChanged(filer, FACTORIES_RESOURCE_LOCATION, content, originatingElements)) {
+            log("Wrote to: {}", FACTORIES_RESOURCE_LOCATION);
+        } else {
+            log("spring.factories unchanged, skip writing.");
+        }
+        // 4. 运行时使用的二进制索引
+        if (FactoriesIndex.isEnabled(processingEnv)
+            && FactoriesIndex.write(filer, FACTORIES_RESOURCE_LOCATION,
+                FactoriesFiles.sortFactories(allFactories), content, originatingElements)) {
+            log("Wrote to: {}", FactoriesIndex.getLocation(FACTORIES_RESOURCE_LOCATION));
+        }
+    }
+
+    /**
+     * 生成 AutoConfiguration.imports 配置文件
+     *
+     * <p>文件中的类按 Spring Boot 的规则预先排序，先后关系存在环时报告编译错误。</p>
+     *
+     * @param previous 上一次编译的来源记录，不存在时为 {@code null}
+     * @param merged   合并后的来源记录
+     * @param metadata 自动配置类的条件，用于读取先后关系
+     * @throws IOException 写入文件时发生的 IO 异常
+     */
+    private void generateAutoConfigurationImportsFiles(ResourceState previous, ResourceState merged,
+                                                       AutoConfigureMetadata metadata) throws IOException {
+        boolean existed = previous != null && previous.contains(AUTO_CONFIGURATION_IMPORTS_LOCATION);
+        if (!existed && !merged.contains(AUTO_CONFIGURATION_IMPORTS_LOCATION)) {
+            return;
+        }
+        Filer filer = processingEnv.getFiler();
+        // AutoConfiguration 配置
+        Set<String> allAutoConfigurationImports = new LinkedHashSet<>();
+        // 1. 用户手动配置项目下的 AutoConfiguration 文件
+        try {
+            FileObject existingFactoriesFile = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", AUTO_CONFIGURATION_IMPORTS_LOCATION);
+            log("Looking for existing AutoConfiguration imports file at {}", existingFactoriesFile);
+            Set<String> existingSet = FactoriesFiles.readAutoConfigurationImports(existingFactoriesFile, existingTypes::exists);
+            trace("Existing AutoConfiguration imports entries: {}", existingSet);
+            allAutoConfigurationImports.addAll(existingSet);
+        } catch (IOException e) {
+            log("AutoConfiguration imports resource file not found.");
+        }
+        // 2. 没有来源记录时，读取增量编译已经存在的配置文件，只保留本模块的类，条目以自身作为来源类型
+        if (previous == null) {
             try {
                 FileObject existingFactoriesFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", AUTO_CONFIGURATION_IMPORTS_LOCATION);
-                // 查找是否已经存在 spring.factories
-                log("Looking for existing AutoConfiguration imports file at " + existingFactoriesFile.toUri());
-                Set<String> existingSet = FactoriesFiles.readAutoConfigurationImports(existingFactoriesFile);
-                log("Existing AutoConfiguration imports entries: " + existingSet);
-                allAutoConfigurationImports.addAll(existingSet);
+                log("Looking for existing AutoConfiguration imports file at {}", existingFactoriesFile);
+                Set<String> existingSet = FactoriesFiles.readAutoConfigurationImports(existingFactoriesFile, existingTypes::isModuleType);
+                trace("Existing AutoConfiguration imports entries: {}", existingSet);
+                for (String value : existingSet) {
+                    merged.add(value, AUTO_CONFIGURATION_IMPORTS_LOCATION, "", value);
+                }
             } catch (IOException e) {
                 log("AutoConfiguration imports resource file did not already exist.");
             }
-            // 3. 处理器扫描出来的新的配置
-            allAutoConfigurationImports.addAll(autoConfigurationImportsSet);
-            log("New AutoConfiguration imports file contents: " + allAutoConfigurationImports);
-            FileObject autoConfigurationImportsFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", AUTO_CONFIGURATION_IMPORTS_LOCATION);
-            try (OutputStream out = autoConfigurationImportsFile.openOutputStream()) {
-                FactoriesFiles.writeAutoConfigurationImportsFile(allAutoConfigurationImports, out);
-            }
-        } catch (IOException e) {
-            fatalError(e);
+        }
+        // 3. 沿用的条目和处理器扫描出来的新的配置
+        allAutoConfigurationImports.addAll(merged.getValues(AUTO_CONFIGURATION_IMPORTS_LOCATION));
+        trace("New AutoConfiguration imports file contents: {}", allAutoConfigurationImports);
+        // 4. 按 @AutoConfigureOrder、@AutoConfigureAfter、@AutoConfigureBefore 排序
+        List<String> sortedAutoConfigurationImports;
+        try {
+            sortedAutoConfigurationImports = new AutoConfigurationSorter(elementUtils, metadata).sort(allAutoConfigurationImports);
+        } catch (AutoConfigurationSorter.CycleException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR, e.getMessage(), elementUtils.getTypeElement(e.getCycle().get(0)));
+            sortedAutoConfigurationImports = new ArrayList<>(new TreeSet<>(allAutoConfigurationImports));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FactoriesFiles.writeAutoConfigurationImportsFile(sortedAutoConfigurationImports, out);
+        byte[] content = out.toByteArray();
+        Element[] originatingElements = merged.getOriginatingElements(AUTO_CONFIGURATION_IMPORTS_LOCATION);
+        if (GeneratedResources.writeIfChanged(filer, AUTO_CONFIGURATION_IMPORTS_LOCATION, content, originatingElements)) {
+            log("Wrote to: {}", AUTO_CONFIGURATION_IMPORTS_LOCATION);
+        } else {
+            log("AutoConfiguration imports unchanged, skip writing.");
         }
     }
 
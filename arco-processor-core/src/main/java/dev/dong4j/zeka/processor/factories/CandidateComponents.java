@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.common.FactoriesFiles;
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.PropertiesWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+
+/**
+ * {@code META-INF/spring.components} 候选组件索引的生成
+ *
+ * <p>Spring 的 {@code CandidateComponentsIndexLoader} 在 classpath 中存在该文件时，组件扫描直接按索引查找候选类，
+ * 不再逐个读取基础包下的 class 文件。条目规则与 {@code spring-context-indexer} 相同：</p>
+ * <ul>
+ *   <li>类型上直接或通过组合注解出现的、自身标注了 {@code @Indexed} 的注解，例如 {@code @Component}、{@code @Service}</li>
+ *   <li>类型自身、父类或接口上直接标注了 {@code @Indexed} 时，记录该类型</li>
+ *   <li>类型上直接标注的 {@code javax.*}、{@code jakarta.*} 注解，例如 {@code @Named}、{@code @Entity}</li>
+ * </ul>
+ *
+ * <p><strong>文件格式：</strong></p>
+ * <pre>
+ * com.example.UserService=org.springframework.stereotype.Component
+ * com.example.UserRepository=org.springframework.data.repository.Repository
+ * </pre>
+ *
+ * <p>只要 classpath 中存在任意一个索引文件，Spring 就不再扫描 class 文件，所有包含组件的模块都需要生成索引，
+ * 因此默认不生成。{@code package-info} 上的注解不写入索引。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+class CandidateComponents {
+    /** 是否生成的编译选项，默认不生成 */
+    static final String OPTION = "arco.components.index";
+    /** 文件位置 */
+    static final String RESOURCE_LOCATION = "META-INF/spring.components";
+    /** 标记可索引注解的元注解 */
+    private static final String INDEXED_ANNOTATION = "org.springframework.stereotype.Indexed";
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 元注解闭包缓存 */
+    private final MetaAnnotationCache metaAnnotations;
+    /** 注解全限定名 -> 是否直接标注了 {@code @Indexed} */
+    private final Map<Name, Boolean> indexedAnnotations = new HashMap<>();
+
+    CandidateComponents(Elements elementUtils, MetaAnnotationCache metaAnnotations) {
+        this.elementUtils = elementUtils;
+        this.metaAnnotations = metaAnnotations;
+    }
+
+    /**
+     * 收集根类型及其静态嵌套类型的索引条目
+     *
+     * @param rootType 根类型
+     * @param entries  类的二进制名称 -> 索引类型
+     */
+    void collect(TypeElement rootType, MultiSetMap<String, String> entries) {
+        ElementKind kind = rootType.getKind();
+        if (kind == ElementKind.CLASS || kind == ElementKind.INTERFACE) {
+            Set<String> stereotypes = getStereotypes(rootType);
+            if (!stereotypes.isEmpty()) {
+                entries.putAll(elementUtils.getBinaryName(rootType).toString(), stereotypes);
+            }
+        }
+        for (TypeElement nested : ElementFilter.typesIn(rootType.getEnclosedElements())) {
+            if (nested.getModifiers().contains(Modifier.STATIC) || nested.getKind() != ElementKind.CLASS) {
+                collect(nested, entries);
+            }
+        }
+    }
+
+    /**
+     * 获取类型的索引类型
+     *
+     * @param typeElement 类型
+     * @return 索引类型的全限定名，按发现顺序排列
+     */
+    private Set<String> getStereotypes(TypeElement typeElement) {
+        Set<String> stereotypes = new LinkedHashSet<>();
+        for (AnnotationMirror annotation : typeElement.getAnnotationMirrors()) {
+            String name = MetaAnnotationCache.asTypeElement(annotation).getQualifiedName().toString();
+            if (name.startsWith("javax.") || name.startsWith("jakarta.")) {
+                stereotypes.add(name);
+            }
+            for (Name metaAnnotation : metaAnnotations.getMetaAnnotations(annotation)) {
+                if (isIndexedAnnotation(metaAnnotation)) {
+                    stereotypes.add(metaAnnotation.toString());
+                }
+            }
+        }
+        collectIndexedTypes(typeElement, stereotypes, new HashSet<>());
+        return stereotypes;
+    }
+
+    /**
+     * 收集类型层次中直接标注了 {@code @Indexed} 的类型
+     *
+     * @param typeElement 类型
+     * @param stereotypes 索引类型
+     * @param seen        已访问的类型
+     */
+    private void collectIndexedTypes(TypeElement typeElement, Set<String> stereotypes, Set<Name> seen) {
+        if (!seen.add(typeElement.getQualifiedName())) {
+            return;
+        }
+        if (hasIndexed(typeElement)) {
+            stereotypes.add(typeElement.getQualifiedName().toString());
+        }
+        collectIndexedTypes(typeElement.getSuperclass(), stereotypes, seen);
+        for (TypeMirror anInterface : typeElement.getInterfaces()) {
+            collectIndexedTypes(anInterface, stereotypes, seen);
+        }
+    }
+
+    /**
+     * 收集父类或接口中直接标注了 {@code @Indexed} 的类型
+     *
+     * @param type        父类或接口
+     * @param stereotypes 索引类型
+     * @param seen        已访问的类型
+     */
+    private void collectIndexedTypes(TypeMirror type, Set<String> stereotypes, Set<Name> seen) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            collectIndexedTypes((TypeElement) ((DeclaredType) type).asElement(), stereotypes, seen);
+        }
+    }
+
+    /**
+     * 判断注解类型是否直接标注了 {@code @Indexed}
+     *
+     * @param annotationName 注解全限定名
+     * @return 标注了返回 {@code true}
+     */
+    private boolean isIndexedAnnotation(Name annotationName) {
+        Boolean indexed = indexedAnnotations.get(annotationName);
+        if (indexed == null) {
+            TypeElement annotationType = elementUtils.getTypeElement(annotationName);
+            indexed = annotationType != null && hasIndexed(annotationType);
+            indexedAnnotations.put(annotationName, indexed);
+        }
+        return indexed;
+    }
+
+    /**
+     * 判断元素上是否直接标注了 {@code @Indexed}
+     *
+     * @param element 元素
+     * @return 标注了返回 {@code true}
+     */
+    private static boolean hasIndexed(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (MetaAnnotationCache.asTypeElement(annotation).getQualifiedName().contentEquals(INDEXED_ANNOTATION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取已有的索引文件，按 Properties 的规则处理转义和续行
+     *
+     * @param fileObject 索引文件
+     * @return 类的二进制名称 -> 索引类型
+     * @throws IOException 读取失败或文件不存在
+     */
+    static MultiSetMap<String, String> read(FileObject fileObject) throws IOException {
+        MultiSetMap<String, String> entries = new MultiSetMap<>();
+        try (Reader reader = new InputStreamReader(fileObject.openInputStream(), StandardCharsets.ISO_8859_1)) {
+            FactoriesFiles.parse(reader, entries::put);
+        }
+        return entries;
+    }
+
+    /**
+     * 输出索引文件内容，类名和索引类型均按字典序排列，内容只取决于条目本身
+     *
+     * @param entries 类的二进制名称 -> 索引类型
+     * @return 文件内容
+     */
+    static byte[] toByteArray(MultiSetMap<String, String> entries) {
+        Map<String, Set<String>> sorted = new TreeMap<>();
+        for (String className : entries.keySet()) {
+            sorted.put(className, new TreeSet<>(entries.get(className)));
+        }
+        PropertiesWriter content = new PropertiesWriter(sorted.size() * 96);
+        sorted.forEach((className, stereotypes) -> content.append(className, String.join(",", stereotypes)));
+        return content.toByteArray();
+    }
+
+}
@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.PropertiesWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * 编译期解析 factories 实现类的排序值
+ *
+ * <p>{@code SpringFactoriesLoader} 加载监听器、初始化器、{@code EnvironmentPostProcessor}、{@code FailureAnalyzer} 等实现类后，
+ * 用 {@code AnnotationAwareOrderComparator} 排序，对每个类反射查找 {@code Ordered}、{@code @Order} 和 {@code @Priority}。
+ * 这里按相同的优先级在编译期解析，写入 {@code META-INF/arco/factories.order}，
+ * 由 arco-processor-runtime 的 {@code IndexedOrderComparator} 直接使用：</p>
+ * <ul>
+ *   <li>实现了 {@code Ordered}：本模块源码中 {@code getOrder()} 只有一条返回常量表达式的语句，
+ *   例如 {@code return Ordered.HIGHEST_PRECEDENCE + 10;}</li>
+ *   <li>否则取类或父类、接口上直接标注的 {@code @Order}，其次为 {@code @Priority}；类自身没有标注时，层次中的值必须唯一</li>
+ *   <li>都没有时为 {@code Ordered.LOWEST_PRECEDENCE}</li>
+ * </ul>
+ *
+ * <p>通过组合注解标注 {@code @Order}/{@code @Priority}、{@code getOrder()} 返回字段或继承自其他模块的类无法静态确定，
+ * 不写入文件，运行时仍由 Spring 反射判断。{@code getOrder()} 的方法体只在 javac 直接提供语法树、且类型来自源码时读取；
+ * 从 class 文件重新处理的类型（Gradle 增量编译）沿用上一次编译记录的值，见 {@link #isBodyUnavailable(TypeElement)}。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+class FactoryOrders {
+    /** 文件位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/factories.order";
+    /** 排序接口 */
+    private static final String ORDERED = "org.springframework.core.Ordered";
+    /** 排序注解 */
+    private static final String ORDER_ANNOTATION = "org.springframework.core.annotation.Order";
+    /** 优先级注解，Spring Framework 6 只识别 jakarta 版本 */
+    private static final List<String> PRIORITY_ANNOTATIONS = Collections.singletonList("jakarta.annotation.Priority");
+    /** 排序方法名 */
+    private static final String GET_ORDER = "getOrder";
+    /** 没有排序信息时的值，与 {@code Ordered.LOWEST_PRECEDENCE} 相同 */
+    private static final int LOWEST_PRECEDENCE = Integer.MAX_VALUE;
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 类型工具类 */
+    private final Types typeUtils;
+    /** 元注解闭包缓存 */
+    private final MetaAnnotationCache metaAnnotations;
+    /** 语法树，编译器不支持时为 {@code null} */
+    private final Trees trees;
+    /** 排序注解全限定名 */
+    private final Name order;
+    /** 优先级注解全限定名 */
+    private final List<Name> priorities = new ArrayList<>();
+
+    FactoryOrders(ProcessingEnvironment processingEnv, MetaAnnotationCache metaAnnotations) {
+        this.elementUtils = processingEnv.getElementUtils();
+        this.typeUtils = processingEnv.getTypeUtils();
+        this.metaAnnotations = metaAnnotations;
+        this.trees = ProxyBeanMethodsAnalyzer.getTrees(processingEnv);
+        this.order = elementUtils.getName(ORDER_ANNOTATION);
+        for (String priority : PRIORITY_ANNOTATIONS) {
+            priorities.add(elementUtils.getName(priority));
+        }
+    }
+
+    /**
+     * 解析实现类的排序值
+     *
+     * @param typeElement 实现类
+     * @return 排序值，无法静态确定时返回 {@code null}
+     */
+    Integer resolveOrder(TypeElement typeElement) {
+        if (isOrdered(typeElement)) {
+            return resolveGetOrder(typeElement);
+        }
+        List<TypeElement> hierarchy = new ArrayList<>();
+        collectHierarchy(typeElement, hierarchy, new HashSet<>());
+        for (TypeElement type : hierarchy) {
+            for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+                Name name = MetaAnnotationCache.asTypeElement(annotation).getQualifiedName();
+                Set<Name> closure = metaAnnotations.getMetaAnnotations(annotation);
+                if (!name.equals(order) && !priorities.contains(name) && (closure.contains(order) || containsAny(closure, priorities))) {
+                    // 组合注解可能通过 @AliasFor 覆盖属性，交给运行时判断
+                    return null;
+                }
+            }
+        }
+        List<Name> orders = Collections.singletonList(order);
+        Integer value = resolveAnnotation(hierarchy, orders);
+        if (value == null && !hasAnnotation(hierarchy, orders)) {
+            value = resolveAnnotation(hierarchy, priorities);
+            if (value == null && !hasAnnotation(hierarchy, priorities)) {
+                return LOWEST_PRECEDENCE;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 判断排序值是否取决于当前读取不到的 {@code getOrder()} 方法体
+     *
+     * <p>Gradle 增量编译从 class 文件重新处理未修改的类型，编译器或处理环境也可能不提供语法树，
+     * 此时同一个类的排序值在全量编译中可以确定、在增量编译中却无法确定。调用方应沿用上一次编译记录的值，
+     * 而不是丢弃它，保证两种编译生成相同的文件。</p>
+     *
+     * @param typeElement 实现类
+     * @return 实现了 {@code Ordered} 且 {@code getOrder()} 没有语法树时返回 {@code true}
+     */
+    boolean isBodyUnavailable(TypeElement typeElement) {
+        if (!isOrdered(typeElement)) {
+            return false;
+        }
+        ExecutableElement method = findGetOrder(typeElement);
+        return method != null && (trees == null || trees.getPath(method) == null);
+    }
+
+    /**
+     * 判断是否实现了 {@code Ordered}
+     *
+     * @param typeElement 实现类
+     * @return 实现了返回 {@code true}
+     */
+    private boolean isOrdered(TypeElement typeElement) {
+        TypeElement ordered = elementUtils.getTypeElement(ORDERED);
+        return ordered != null && typeUtils.isAssignable(typeUtils.erasure(typeElement.asType()), typeUtils.erasure(ordered.asType()));
+    }
+
+    /**
+     * 按类自身、接口、父类的顺序收集类型层次，与 Spring 查找注解的顺序一致
+     *
+     * @param typeElement 类型
+     * @param hierarchy   类型层次
+     * @param seen        已访问的类型
+     */
+    private void collectHierarchy(TypeElement typeElement, List<TypeElement> hierarchy, Set<Name> seen) {
+        if (typeElement.getQualifiedName().contentEquals(Object.class.getName()) || !seen.add(typeElement.getQualifiedName())) {
+            return;
+        }
+        hierarchy.add(typeElement);
+        for (TypeMirror anInterface : typeElement.getInterfaces()) {
+            collectHierarchy(anInterface, hierarchy, seen);
+        }
+        collectHierarchy(typeElement.getSuperclass(), hierarchy, seen);
+    }
+
+    /**
+     * 收集父类或接口的类型层次
+     *
+     * @param type      父类或接口
+     * @param hierarchy 类型层次
+     * @param seen      已访问的类型
+     */
+    private void collectHierarchy(TypeMirror type, List<TypeElement> hierarchy, Set<Name> seen) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            collectHierarchy((TypeElement) ((DeclaredType) type).asElement(), hierarchy, seen);
+        }
+    }
+
+    /**
+     * 读取类型层次中直接标注的注解值，类自身的标注优先，否则层次中的值必须唯一
+     *
+     * @param hierarchy   类型层次，第一个为实现类自身
+     * @param annotations 注解全限定名
+     * @return 注解值，没有标注或无法确定时返回 {@code null}
+     */
+    private Integer resolveAnnotation(List<TypeElement> hierarchy, List<Name> annotations) {
+        Set<Integer> values = new HashSet<>();
+        for (int i = 0; i < hierarchy.size(); i++) {
+            for (AnnotationMirror annotation : hierarchy.get(i).getAnnotationMirrors()) {
+                if (annotations.contains(MetaAnnotationCache.asTypeElement(annotation).getQualifiedName())) {
+                    Integer value = getValue(annotation);
+                    if (i == 0 || value == null) {
+                        return value;
+                    }
+                    values.add(value);
+                }
+            }
+        }
+        return values.size() == 1 ? values.iterator().next() : null;
+    }
+
+    /**
+     * 判断类型层次中是否直接标注了注解
+     *
+     * @param hierarchy   类型层次
+     * @param annotations 注解全限定名
+     * @return 标注了返回 {@code true}
+     */
+    private static boolean hasAnnotation(List<TypeElement> hierarchy, List<Name> annotations) {
+        for (TypeElement type : hierarchy) {
+            for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+                if (annotations.contains(MetaAnnotationCache.asTypeElement(annotation).getQualifiedName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取注解的 {@code value}，包括默认值
+     *
+     * @param annotation 注解
+     * @return 属性值，不是整数时返回 {@code null}
+     */
+    private Integer getValue(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elementUtils.getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                Object value = entry.getValue().getValue();
+                return value instanceof Integer ? (Integer) value : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析沿父类链找到的第一个无参 {@code getOrder()} 返回的常量
+     *
+     * @param typeElement 实现了 {@code Ordered} 的类
+     * @return 排序值，无法静态确定时返回 {@code null}
+     */
+    private Integer resolveGetOrder(TypeElement typeElement) {
+        ExecutableElement method = findGetOrder(typeElement);
+        if (method == null || trees == null) {
+            return null;
+        }
+        TreePath path = trees.getPath(method);
+        return path == null ? null : evaluateReturn(path);
+    }
+
+    /**
+     * 沿父类链查找第一个非抽象的无参 {@code getOrder()}
+     *
+     * @param typeElement 实现了 {@code Ordered} 的类
+     * @return 方法，没有时返回 {@code null}
+     */
+    private static ExecutableElement findGetOrder(TypeElement typeElement) {
+        for (TypeElement type = typeElement; type != null; type = getSuperclass(type)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(GET_ORDER) && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.ABSTRACT)) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取父类
+     *
+     * @param type 类
+     * @return 父类，没有时返回 {@code null}
+     */
+    private static TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    /**
+     * 计算只有一条 return 语句的方法的返回值
+     *
+     * @param methodPath 方法的语法树路径
+     * @return 返回值，不是整数常量表达式时返回 {@code null}
+     */
+    private Integer evaluateReturn(TreePath methodPath) {
+        MethodTree methodTree = (MethodTree) methodPath.getLeaf();
+        if (methodTree.getBody() == null || methodTree.getBody().getStatements().size() != 1) {
+            return null;
+        }
+        StatementTree statement = methodTree.getBody().getStatements().get(0);
+        if (!(statement instanceof ReturnTree) || ((ReturnTree) statement).getExpression() == null) {
+            return null;
+        }
+        TreePath bodyPath = new TreePath(methodPath, methodTree.getBody());
+        TreePath statementPath = new TreePath(bodyPath, statement);
+        return evaluate(new TreePath(statementPath, ((ReturnTree) statement).getExpression()));
+    }
+
+    /**
+     * 计算整数常量表达式，支持字面量、常量字段、一元和四则运算
+     *
+     * @param path 表达式的语法树路径
+     * @return 计算结果，不是整数常量表达式时返回 {@code null}
+     */
+    private Integer evaluate(TreePath path) {
+        ExpressionTree expression = (ExpressionTree) path.getLeaf();
+        switch (expression.getKind()) {
+            case INT_LITERAL:
+                return (Integer) ((LiteralTree) expression).getValue();
+            case PARENTHESIZED:
+                return evaluate(new TreePath(path, ((ParenthesizedTree) expression).getExpression()));
+            case IDENTIFIER:
+            case MEMBER_SELECT:
+                Element element = trees.getElement(path);
+                if (element != null && element.getKind() == ElementKind.FIELD) {
+                    Object value = ((VariableElement) element).getConstantValue();
+                    return value instanceof Integer ? (Integer) value : null;
+                }
+                return null;
+            case UNARY_MINUS:
+            case UNARY_PLUS:
+            case BITWISE_COMPLEMENT:
+                return evaluateUnary(path, (UnaryTree) expression);
+            case PLUS:
+            case MINUS:
+            case MULTIPLY:
+            case DIVIDE:
+                return evaluateBinary(path, (BinaryTree) expression);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 计算一元运算
+     *
+     * @param path       表达式的语法树路径
+     * @param expression 一元运算表达式
+     * @return 计算结果，操作数不是整数常量表达式时返回 {@code null}
+     */
+    private Integer evaluateUnary(TreePath path, UnaryTree expression) {
+        Integer operand = evaluate(new TreePath(path, expression.getExpression()));
+        if (operand == null) {
+            return null;
+        }
+        if (expression.getKind() == Tree.Kind.UNARY_MINUS) {
+            return -operand;
+        }
+        return expression.getKind() == Tree.Kind.UNARY_PLUS ? operand : ~operand;
+    }
+
+    /**
+     * 计算四则运算，除数为 0 时视为无法确定
+     *
+     * @param path       表达式的语法树路径
+     * @param expression 二元运算表达式
+     * @return 计算结果，操作数不是整数常量表达式时返回 {@code null}
+     */
+    private Integer evaluateBinary(TreePath path, BinaryTree expression) {
+        Integer left = evaluate(new TreePath(path, expression.getLeftOperand()));
+        Integer right = evaluate(new TreePath(path, expression.getRightOperand()));
+        if (left == null || right == null) {
+            return null;
+        }
+        switch (expression.getKind()) {
+            case PLUS:
+                return left + right;
+            case MINUS:
+                return left - right;
+            case MULTIPLY:
+                return left * right;
+            default:
+                return right == 0 ? null : left / right;
+        }
+    }
+
+    /**
+     * 判断集合中是否包含任意一个名称
+     *
+     * @param closure 元注解闭包
+     * @param names   名称
+     * @return 包含返回 {@code true}
+     */
+    private static boolean containsAny(Set<Name> closure, List<Name> names) {
+        for (Name name : names) {
+            if (closure.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 输出排序值文件，按类名排序
+     *
+     * @param entries 类的二进制名称 -> 排序值
+     * @return 文件内容
+     */
+    static byte[] toByteArray(MultiSetMap<String, String> entries) {
+        TreeMap<String, String> sorted = new TreeMap<>();
+        for (String className : entries.keySet()) {
+            sorted.put(className, entries.get(className).iterator().next());
+        }
+        PropertiesWriter content = new PropertiesWriter(sorted.size() * 96);
+        sorted.forEach(content::append);
+        return content.toByteArray();
+    }
+
+}
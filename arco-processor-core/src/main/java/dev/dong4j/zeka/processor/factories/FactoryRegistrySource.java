@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.common.GeneratedSources;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import lombok.experimental.UtilityClass;
+
+/**
+ * factories 实例注册表的源码生成
+ *
+ * <p>为 {@code spring.factories} 中由 {@code SpringFactoriesLoader} 实例化的实现类生成
+ * {@code dev.dong4j.zeka.processor.runtime.FactoryRegistry} 的实现，按实现类名直接调用构造器，
+ * 运行时不再经过 {@code Class.forName} 和反射查找构造器。</p>
+ *
+ * <p><strong>构造器选择：</strong>与 Spring 的 {@code FactoryInstantiator} 相同，依次取唯一的 public 构造器、
+ * 唯一的构造器、无参构造器，参数由运行时的 {@code ArgumentResolver} 按参数类型解析。
+ * 类或构造器不可访问、参数为基本类型时不生成，运行时回退到反射。</p>
+ *
+ * <p><strong>生成示例：</strong></p>
+ * <pre>
+ * public final class ArcoFactoryRegistry_1a2b3c4d implements FactoryRegistry {
+ *     public Object instantiate(String implementationName, ArgumentResolver argumentResolver) throws Exception {
+ *         switch (implementationName) {
+ *             case "com.example.MyListener":
+ *                 return new com.example.MyListener();
+ *             default:
+ *                 return null;
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+class FactoryRegistrySource {
+    /** 是否生成注册表的编译选项，默认不生成 */
+    static final String OPTION = "arco.registry";
+    /** 注册表接口，位于 arco-processor-runtime */
+    static final String REGISTRY_INTERFACE = "dev.dong4j.zeka.processor.runtime.FactoryRegistry";
+    /** 注册表类名的登记位置 */
+    static final String REGISTRY_RESOURCE_LOCATION = "META-INF/arco/factories.registry";
+    /** 构造器参数解析器 */
+    private static final String ARGUMENT_RESOLVER = "org.springframework.core.io.support.SpringFactoriesLoader.ArgumentResolver";
+    /** 注册表类名前缀 */
+    private static final String CLASS_NAME_PREFIX = "ArcoFactoryRegistry_";
+
+    /**
+     * 选择 Spring 实例化时使用的构造器，并返回其参数类型
+     *
+     * @param typeElement 实现类
+     * @param typeUtils   类型工具类
+     * @return 参数类型的规范名称；无法直接调用构造器时返回 {@code null}
+     */
+    static List<String> resolveConstructor(TypeElement typeElement, Types typeUtils) {
+        if (typeElement.getKind() != ElementKind.CLASS || typeElement.getModifiers().contains(Modifier.ABSTRACT)
+            || !GeneratedSources.isAccessible(typeElement)) {
+            return null;
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(typeElement.getEnclosedElements());
+        List<ExecutableElement> publicConstructors = new ArrayList<>();
+        ExecutableElement defaultConstructor = null;
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                publicConstructors.add(constructor);
+            }
+            if (constructor.getParameters().isEmpty()) {
+                defaultConstructor = constructor;
+            }
+        }
+        ExecutableElement chosen;
+        if (publicConstructors.size() == 1) {
+            chosen = publicConstructors.get(0);
+        } else if (constructors.size() == 1) {
+            chosen = constructors.get(0);
+        } else {
+            chosen = defaultConstructor;
+        }
+        if (chosen == null || !chosen.getModifiers().contains(Modifier.PUBLIC)) {
+            return null;
+        }
+        List<String> parameterTypes = new ArrayList<>();
+        for (VariableElement parameter : chosen.getParameters()) {
+            TypeMirror type = typeUtils.erasure(parameter.asType());
+            // 基本类型无法接收解析器返回的 null，交给反射按 Spring 的方式处理
+            if (type.getKind().isPrimitive()) {
+                return null;
+            }
+            parameterTypes.add(type.toString());
+        }
+        return parameterTypes;
+    }
+
+    /**
+     * 生成注册表类名：实现类的公共包名加上实现类名的校验和，不同模块的注册表互不冲突，实现类不变时类名保持不变
+     *
+     * @param packageNames        实现类所在的包
+     * @param implementationNames 实现类全限定名，按字典序排列
+     * @return 注册表类全限定名
+     */
+    static String getClassName(Set<String> packageNames, Set<String> implementationNames) {
+        String commonPackage = GeneratedSources.commonPackage(packageNames);
+        CRC32 crc = new CRC32();
+        for (String name : implementationNames) {
+            crc.update(name.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        String simpleName = CLASS_NAME_PREFIX + String.format("%08x", crc.getValue());
+        return commonPackage.isEmpty() ? simpleName : commonPackage + '.' + simpleName;
+    }
+
+    /**
+     * 写出注册表源码
+     *
+     * @param className    注册表类全限定名
+     * @param constructors 实现类全限定名 -> 构造器参数类型，按字典序排列
+     * @param writer       输出
+     * @throws IOException 写入时发生的 IO 异常
+     */
+    static void write(String className, Map<String, List<String>> constructors, Writer writer) throws IOException {
+        int lastDot = className.lastIndexOf('.');
+        StringBuilder source = new StringBuilder(256 + constructors.size() * 128);
+        if (lastDot > 0) {
+            source.append("package ").append(className, 0, lastDot).append(";\n\n");
+        }
+        source.append("import ").append(REGISTRY_INTERFACE).append(";\n");
+        source.append("import ").append(ARGUMENT_RESOLVER).append(";\n\n");
+        source.append("/**\n * spring.factories 实例注册表，由 arco-processor 生成，请勿修改\n */\n");
+        source.append("@SuppressWarnings(\"unchecked\")\n");
+        source.append("public final class ").append(className.substring(lastDot + 1)).append(" implements FactoryRegistry {\n\n");
+        source.append("    @Override\n");
+        source.append("    public Object instantiate(String implementationName, ArgumentResolver argumentResolver) throws Exception {\n");
+        source.append("        switch (implementationName) {\n");
+        for (Map.Entry<String, List<String>> entry : constructors.entrySet()) {
+            source.append("            case \"").append(entry.getKey()).append("\":\n");
+            source.append("                return new ").append(entry.getKey()).append('(');
+            List<String> parameterTypes = entry.getValue();
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                source.append(i == 0 ? "\n                    " : ",\n                    ");
+                source.append("FactoryRegistry.resolve(argumentResolver, ").append(parameterTypes.get(i)).append(".class)");
+            }
+            source.append(");\n");
+        }
+        source.append("            default:\n");
+        source.append("                return null;\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+        source.append("}\n");
+        writer.write(source.toString());
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.TreeSet;
+import lombok.experimental.UtilityClass;
+
+/**
+ * {@code @FeignClient} 客户端索引的生成
+ *
+ * <p>{@code @EnableFeignClients} 在启动时扫描基础包查找客户端接口。这里在编译期记录每个客户端接口的二进制名称，
+ * 写入 {@code META-INF/arco/feign-clients}，每行一个类名，与 {@code AutoConfiguration.imports} 的格式相同。
+ * arco-processor-runtime 的 {@code @EnableIndexedFeignClients} 按索引交给 Spring Cloud OpenFeign 注册，不再扫描 classpath；
+ * 客户端的属性仍由 Spring Cloud OpenFeign 从注解读取。</p>
+ *
+ * <p>开启索引时没有客户端的模块也生成空索引，运行时据此区分已处理的 jar 与需要扫描的 jar。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+class FeignClientIndex {
+    /** 索引位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/feign-clients";
+
+    /**
+     * 输出索引内容，按类名排序
+     *
+     * @param clients 客户端接口的二进制名称
+     * @return 文件内容
+     */
+    static byte[] toByteArray(Collection<String> clients) {
+        StringBuilder content = new StringBuilder(clients.size() * 64);
+        for (String client : new TreeSet<>(clients)) {
+            content.append(client).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.PropertiesWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import lombok.experimental.UtilityClass;
+
+/**
+ * {@code @AutoListener} 监听器的事件类型索引
+ *
+ * <p>Spring 首次发布每种事件时，会通过 {@code ResolvableType} 反射解析每个监听器的 {@code ApplicationListener<E>} 泛型参数。
+ * 这里在编译期解析事件类型并写入 {@code META-INF/arco/application-listeners.properties}，
+ * 由 arco-processor-runtime 的 {@code IndexedApplicationEventMulticaster} 直接按索引判断监听器是否支持事件：</p>
+ * <pre>
+ * com.example.MyListener=org.springframework.boot.context.event.ApplicationReadyEvent
+ * </pre>
+ *
+ * <p>以下监听器不写入索引，运行时仍按 Spring 的方式判断：事件类型为泛型类型（例如 {@code PayloadApplicationEvent<String>}）
+ * 或无法在编译期确定，以及实现了 {@code SmartApplicationListener}、{@code GenericApplicationListener} 的监听器。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+class ListenerEventTypes {
+    /** 索引位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/application-listeners.properties";
+    /** 监听器接口 */
+    private static final String APPLICATION_LISTENER = "org.springframework.context.ApplicationListener";
+    /** 自行判断事件类型的监听器接口 */
+    private static final String[] DYNAMIC_LISTENERS = {
+        "org.springframework.context.event.SmartApplicationListener",
+        "org.springframework.context.event.GenericApplicationListener",
+    };
+
+    /**
+     * 解析监听器的事件类型
+     *
+     * @param typeElement  监听器类
+     * @param elementUtils 元素工具类
+     * @param typeUtils    类型工具类
+     * @return 事件类型的二进制名称，无法确定时返回 {@code null}
+     */
+    static String resolveEventType(TypeElement typeElement, Elements elementUtils, Types typeUtils) {
+        for (String dynamicListener : DYNAMIC_LISTENERS) {
+            TypeElement dynamicType = elementUtils.getTypeElement(dynamicListener);
+            if (dynamicType != null && typeUtils.isAssignable(typeUtils.erasure(typeElement.asType()), typeUtils.erasure(dynamicType.asType()))) {
+                return null;
+            }
+        }
+        // 沿已替换泛型参数的直接父类型查找 ApplicationListener<E>
+        Deque<TypeMirror> queue = new ArrayDeque<>();
+        queue.add(typeElement.asType());
+        Set<String> visited = new HashSet<>();
+        while (!queue.isEmpty()) {
+            TypeMirror type = queue.poll();
+            if (type.getKind() != TypeKind.DECLARED || !visited.add(type.toString())) {
+                continue;
+            }
+            DeclaredType declaredType = (DeclaredType) type;
+            TypeElement element = (TypeElement) declaredType.asElement();
+            if (element.getQualifiedName().contentEquals(APPLICATION_LISTENER)) {
+                return getEventType(declaredType, elementUtils);
+            }
+            queue.addAll(typeUtils.directSupertypes(type));
+        }
+        return null;
+    }
+
+    /**
+     * 获取 {@code ApplicationListener<E>} 中非泛型的事件类型
+     *
+     * @param listenerType 已替换泛型参数的监听器接口
+     * @param elementUtils 元素工具类
+     * @return 事件类型的二进制名称，无法确定时返回 {@code null}
+     */
+    private static String getEventType(DeclaredType listenerType, Elements elementUtils) {
+        if (listenerType.getTypeArguments().size() != 1) {
+            return null;
+        }
+        TypeMirror eventType = listenerType.getTypeArguments().get(0);
+        if (eventType.getKind() != TypeKind.DECLARED || !((DeclaredType) eventType).getTypeArguments().isEmpty()) {
+            return null;
+        }
+        return elementUtils.getBinaryName((TypeElement) ((DeclaredType) eventType).asElement()).toString();
+    }
+
+    /**
+     * 输出索引内容，按监听器类名排序
+     *
+     * @param entries 监听器类的二进制名称 -> 事件类型的二进制名称
+     * @return 文件内容
+     */
+    static byte[] toByteArray(MultiSetMap<String, String> entries) {
+        TreeMap<String, String> sorted = new TreeMap<>();
+        for (String listener : entries.keySet()) {
+            sorted.put(listener, entries.get(listener).iterator().next());
+        }
+        PropertiesWriter content = new PropertiesWriter(sorted.size() * 128);
+        sorted.forEach(content::append);
+        return content.toByteArray();
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.factories;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * 自动配置类的 {@code proxyBeanMethods} 分析
+ *
+ * <p>{@code proxyBeanMethods} 为 {@code true}（{@code @Configuration} 的默认值）时，Spring 启动时会为配置类生成 CGLIB 子类，
+ * 拦截 {@code @Bean} 方法之间的相互调用。配置类中没有这类调用时，可以改为 {@code proxyBeanMethods = false}（lite 模式），
+ * 省去子类的生成和 Metaspace 占用。</p>
+ *
+ * <p>分析读取方法体的语法树，查找对本类及父类中非静态 {@code @Bean} 方法的无接收者调用、{@code this.} 调用
+ * 和方法引用，包括 lambda 与匿名类中的调用。父类中存在 {@code @Bean} 方法但不在本次编译中时无法确认，不给出建议。</p>
+ *
+ * <p>{@code @AutoConfiguration} 等组合注解上的 {@code proxyBeanMethods} 按同名属性读取，不解析 {@code @AliasFor}。
+ * 语法树依赖 javac 的 Compiler Tree API，只在 javac 直接提供处理环境时分析；其他编译器以及 Gradle 增量编译中
+ * 跳过方法体的分析，存在 {@code @Bean} 方法的配置类计为无法确认，全量与增量编译的结果保持一致。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+class ProxyBeanMethodsAnalyzer {
+    /** 分析的编译选项：{@code off}（默认）、{@code warn} 或 {@code error} */
+    static final String OPTION = "arco.proxy.analysis";
+    /** 配置类注解 */
+    private static final String CONFIGURATION_ANNOTATION = "org.springframework.context.annotation.Configuration";
+    /** Bean 方法注解 */
+    private static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+    /** 配置类注解的属性名 */
+    private static final String PROXY_BEAN_METHODS = "proxyBeanMethods";
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 元注解闭包缓存 */
+    private final MetaAnnotationCache metaAnnotations;
+    /** 诊断输出 */
+    private final Messager messager;
+    /** 可以改为 lite 模式时的诊断级别 */
+    private final Kind kind;
+    /** 语法树，编译器不支持时为 {@code null} */
+    private final Trees trees;
+    /** 配置类注解全限定名 */
+    private final Name configuration;
+    /** Bean 方法注解全限定名 */
+    private final Name bean;
+    /** 已分析的配置类 */
+    private final Set<Name> analyzed = new HashSet<>();
+    /** 已是 lite 模式的配置类数量 */
+    private int liteCount;
+    /** 存在 Bean 方法间调用的配置类数量 */
+    private int proxiedCount;
+    /** 无法确认的配置类数量 */
+    private int unknownCount;
+    /** 可以改为 lite 模式的配置类数量 */
+    private int candidateCount;
+    /** 可以改为 lite 模式的配置类中的 Bean 方法数量 */
+    private int candidateBeanMethods;
+
+    private ProxyBeanMethodsAnalyzer(ProcessingEnvironment processingEnv, MetaAnnotationCache metaAnnotations, Kind kind, Trees trees) {
+        this.elementUtils = processingEnv.getElementUtils();
+        this.metaAnnotations = metaAnnotations;
+        this.messager = processingEnv.getMessager();
+        this.kind = kind;
+        this.trees = trees;
+        this.configuration = elementUtils.getName(CONFIGURATION_ANNOTATION);
+        this.bean = elementUtils.getName(BEAN_ANNOTATION);
+    }
+
+    /**
+     * 按编译选项创建分析器
+     *
+     * @param processingEnv   注解处理环境
+     * @param metaAnnotations 元注解闭包缓存
+     * @return 分析器，未开启时返回 {@code null}
+     * @throws IllegalArgumentException 选项的值无法识别
+     */
+    static ProxyBeanMethodsAnalyzer of(ProcessingEnvironment processingEnv, MetaAnnotationCache metaAnnotations) {
+        String value = processingEnv.getOptions().get(OPTION);
+        if (value == null || value.trim().isEmpty() || "off".equalsIgnoreCase(value.trim())) {
+            return null;
+        }
+        Kind kind;
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "warn":
+                kind = Kind.WARNING;
+                break;
+            case "error":
+                kind = Kind.ERROR;
+                break;
+            default:
+                throw new IllegalArgumentException(value);
+        }
+        return new ProxyBeanMethodsAnalyzer(processingEnv, metaAnnotations, kind, getTrees(processingEnv));
+    }
+
+    /**
+     * 获取语法树，只接受 javac 直接提供的处理环境
+     *
+     * <p>Gradle 增量编译包装后的处理环境不是 javac 的实现，此时返回 {@code null}。aggregating 处理器不能依赖
+     * 编译器专有的 API，而且 Gradle 会从 class 文件重新处理未修改的类型，这些类型没有语法树，
+     * 取回包装内的实现只会让结果随增量与全量编译而不同。</p>
+     *
+     * @param processingEnv 注解处理环境
+     * @return 语法树，编译器或处理环境不支持时返回 {@code null}
+     */
+    static Trees getTrees(ProcessingEnvironment processingEnv) {
+        try {
+            return Trees.instance(processingEnv);
+        } catch (IllegalArgumentException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 分析登记为自动配置类的类型，可以改为 lite 模式时输出诊断
+     *
+     * @param typeElement 自动配置类
+     */
+    void analyze(TypeElement typeElement) {
+        if (!analyzed.add(typeElement.getQualifiedName())) {
+            return;
+        }
+        Boolean proxyBeanMethods = getProxyBeanMethods(typeElement);
+        if (proxyBeanMethods == null) {
+            return;
+        }
+        if (!proxyBeanMethods) {
+            liteCount++;
+            return;
+        }
+        Set<ExecutableElement> beanMethods = new HashSet<>();
+        boolean complete = true;
+        for (TypeElement type = typeElement; type != null; type = getSuperclass(type)) {
+            int found = collectBeanMethods(type, beanMethods);
+            if (found > 0 && (trees == null || trees.getPath(type) == null)) {
+                complete = false;
+            }
+        }
+        if (!complete) {
+            unknownCount++;
+            return;
+        }
+        for (TypeElement type = typeElement; type != null; type = getSuperclass(type)) {
+            TreePath path = trees.getPath(type);
+            if (path != null && Boolean.TRUE.equals(new InterBeanCallScanner(beanMethods).scan(path, null))) {
+                proxiedCount++;
+                return;
+            }
+        }
+        candidateCount++;
+        candidateBeanMethods += beanMethods.size();
+        messager.printMessage(kind, "配置类没有 @Bean 方法之间的调用，可以设置 proxyBeanMethods = false，"
+            + "省去启动时生成的 CGLIB 子类", typeElement);
+    }
+
+    /**
+     * 输出本次编译的分析汇总
+     */
+    void printSummary() {
+        int total = liteCount + proxiedCount + unknownCount + candidateCount;
+        if (total == 0) {
+            return;
+        }
+        String summary = String.format("proxyBeanMethods 分析：%d 个自动配置类中，%d 个已是 lite 模式，%d 个存在 @Bean 方法间调用，"
+                + "%d 个无法确认（父类不在本次编译中或没有语法树），%d 个可以改为 lite 模式，可省去 %d 个 CGLIB 子类及其 %d 个 @Bean 方法的拦截",
+            total, liteCount, proxiedCount, unknownCount,
+            candidateCount, candidateCount, candidateBeanMethods);
+        if (trees == null) {
+            summary += "；当前处理环境不提供 Compiler Tree API（非 javac 或 Gradle 增量编译），未分析方法体";
+        }
+        messager.printMessage(Kind.NOTE, summary);
+    }
+
+    /**
+     * 获取生效的 {@code proxyBeanMethods}：沿组合注解取离类型最近的 {@code @Configuration} 或同名属性
+     *
+     * @param typeElement 类型
+     * @return 属性值；类型不是配置类时返回 {@code null}
+     */
+    private Boolean getProxyBeanMethods(TypeElement typeElement) {
+        Deque<AnnotationMirror> queue = new ArrayDeque<>(typeElement.getAnnotationMirrors());
+        Set<Name> visited = new HashSet<>();
+        while (!queue.isEmpty()) {
+            AnnotationMirror annotation = queue.poll();
+            TypeElement annotationType = MetaAnnotationCache.asTypeElement(annotation);
+            Name name = annotationType.getQualifiedName();
+            if (!visited.add(name) || !metaAnnotations.getMetaAnnotations(annotationType).contains(configuration)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elementUtils.getElementValuesWithDefaults(annotation).entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(PROXY_BEAN_METHODS) && entry.getValue().getValue() instanceof Boolean) {
+                    return (Boolean) entry.getValue().getValue();
+                }
+            }
+            if (name.equals(configuration)) {
+                return Boolean.TRUE;
+            }
+            queue.addAll(annotationType.getAnnotationMirrors());
+        }
+        return null;
+    }
+
+    /**
+     * 收集类型中声明的非静态 {@code @Bean} 方法
+     *
+     * @param type        类型
+     * @param beanMethods Bean 方法
+     * @return 本类型中找到的数量
+     */
+    private int collectBeanMethods(TypeElement type, Set<ExecutableElement> beanMethods) {
+        int found = 0;
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (!method.getModifiers().contains(Modifier.STATIC) && metaAnnotations.isAnnotated(elementUtils, method, bean)) {
+                beanMethods.add(method);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 获取父类，到 {@code Object} 为止
+     *
+     * @param type 类型
+     * @return 父类，没有时返回 {@code null}
+     */
+    private static TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    /**
+     * 查找对 Bean 方法的本实例调用，找到时返回 {@code true}
+     */
+    private final class InterBeanCallScanner extends TreePathScanner<Boolean, Void> {
+        /** Bean 方法 */
+        private final Set<ExecutableElement> beanMethods;
+
+        InterBeanCallScanner(Set<ExecutableElement> beanMethods) {
+            this.beanMethods = beanMethods;
+        }
+
+        @Override
+        public Boolean visitMethodInvocation(MethodInvocationTree node, Void unused) {
+            if (isBeanMethodReference(node.getMethodSelect())) {
+                return true;
+            }
+            return super.visitMethodInvocation(node, unused);
+        }
+
+        @Override
+        public Boolean visitMemberReference(MemberReferenceTree node, Void unused) {
+            if (isThis(node.getQualifierExpression()) && beanMethods.contains(trees.getElement(getCurrentPath()))) {
+                return true;
+            }
+            return super.visitMemberReference(node, unused);
+        }
+
+        @Override
+        public Boolean reduce(Boolean r1, Boolean r2) {
+            return Boolean.TRUE.equals(r1) || Boolean.TRUE.equals(r2);
+        }
+
+        /**
+         * 判断调用的方法是否为 Bean 方法，且接收者为本实例
+         *
+         * @param methodSelect 方法选择表达式
+         * @return 是返回 {@code true}
+         */
+        private boolean isBeanMethodReference(ExpressionTree methodSelect) {
+            boolean self = methodSelect instanceof IdentifierTree
+                || methodSelect instanceof MemberSelectTree && isThis(((MemberSelectTree) methodSelect).getExpression());
+            if (!self) {
+                return false;
+            }
+            Element element = trees.getElement(new TreePath(getCurrentPath(), methodSelect));
+            return element != null && beanMethods.contains(element);
+        }
+
+        /**
+         * 判断表达式是否为 {@code this} 或 {@code Outer.this}，{@code super.} 调用不经过 CGLIB 子类的拦截
+         *
+         * @param expression 表达式
+         * @return 是返回 {@code true}
+         */
+        private boolean isThis(ExpressionTree expression) {
+            if (expression instanceof IdentifierTree) {
+                return ((IdentifierTree) expression).getName().contentEquals("this");
+            }
+            return expression instanceof MemberSelectTree && ((MemberSelectTree) expression).getIdentifier().contentEquals("this");
+        }
+    }
+
+}
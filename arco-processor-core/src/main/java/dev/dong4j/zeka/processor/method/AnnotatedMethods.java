@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.method;
+
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.PropertiesWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+/**
+ * {@code @EventListener}、{@code @Scheduled} 方法索引的生成
+ *
+ * <p>Spring 的 {@code EventListenerMethodProcessor} 和 {@code ScheduledAnnotationBeanPostProcessor} 在启动时
+ * 反射遍历每个 bean 类及其父类、接口的全部方法。这里在编译期按相同的范围查找标注的方法（包括组合注解），
+ * 每个类一行，值为 {@code 种类:方法名}，种类为 {@code event} 或 {@code scheduled}：</p>
+ * <pre>
+ * com.example.OrderListener=event:onOrderCreated,scheduled:cleanup
+ * </pre>
+ *
+ * <p>没有标注方法的类同样写入索引，值为空，例如 {@code com.example.OrderService=}。运行时只跳过索引中明确记录的类，
+ * 未出现在索引中的类（其他语言编译的类、未开启本选项编译的类、编译后由其他工具生成的类等）仍由 Spring 查找。</p>
+ *
+ * <p>索引中的一行意味着运行时不再查找该类缺少的种类，因此只有父类和接口（{@code java.*} 除外）都在本模块中编译的类才写入。
+ * 继承自其他 jar 的类不写入：那个 jar 之后可能为父类或接口增加标注方法，而本模块的索引不会随之更新。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+class AnnotatedMethods {
+    /** 是否生成的编译选项，默认不生成 */
+    static final String OPTION = "arco.method.index";
+    /** 索引位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/annotated-methods.properties";
+    /** 事件监听方法的种类 */
+    static final String EVENT = "event";
+    /** 定时任务方法的种类 */
+    static final String SCHEDULED = "scheduled";
+    /** 没有标注方法的类记录的值，输出时为空 */
+    static final String NONE = "";
+    /** 事件监听注解，{@code @TransactionalEventListener} 以 {@code @EventListener} 为元注解，单独列出以便识别 */
+    private static final List<String> EVENT_ANNOTATIONS = Arrays.asList(
+        "org.springframework.context.event.EventListener",
+        "org.springframework.transaction.event.TransactionalEventListener");
+    /** 定时任务注解及其容器注解 */
+    private static final List<String> SCHEDULED_ANNOTATIONS = Arrays.asList(
+        "org.springframework.scheduling.annotation.Scheduled",
+        "org.springframework.scheduling.annotation.Schedules");
+
+    /** 元素工具类 */
+    private final Elements elementUtils;
+    /** 元注解闭包缓存 */
+    private final MetaAnnotationCache metaAnnotations;
+    /** 注解全限定名 -> 方法种类 */
+    private final Map<Name, String> kinds = new HashMap<>();
+    /** 类型全限定名 -> 自身声明的标注方法，避免重复遍历公共父类和接口 */
+    private final Map<Name, Set<String>> declaredMethods = new HashMap<>();
+    /** 判断顶层类型（全限定名）是否在本模块中编译 */
+    private final Predicate<String> moduleTypes;
+    /** 类型全限定名 -> 是否在本模块中编译 */
+    private final Map<Name, Boolean> inModule = new HashMap<>();
+
+    AnnotatedMethods(Elements elementUtils, MetaAnnotationCache metaAnnotations, Predicate<String> moduleTypes) {
+        this.elementUtils = elementUtils;
+        this.metaAnnotations = metaAnnotations;
+        this.moduleTypes = moduleTypes;
+        for (String annotation : EVENT_ANNOTATIONS) {
+            kinds.put(elementUtils.getName(annotation), EVENT);
+        }
+        for (String annotation : SCHEDULED_ANNOTATIONS) {
+            kinds.put(elementUtils.getName(annotation), SCHEDULED);
+        }
+    }
+
+    /**
+     * 收集根类型及其嵌套类的索引条目，没有标注方法的类同样记录，父类或接口不在本模块中的类不记录
+     *
+     * @param rootType 根类型
+     * @param entries  类的二进制名称 -> {@code 种类:方法名}，没有标注方法时为 {@link #NONE}
+     */
+    void collect(TypeElement rootType, MultiSetMap<String, String> entries) {
+        if (rootType.getKind() == ElementKind.CLASS) {
+            Set<String> methods = new TreeSet<>();
+            boolean complete = collectMethods(rootType, methods, new LinkedHashSet<>());
+            String className = elementUtils.getBinaryName(rootType).toString();
+            if (!complete) {
+                // 父类或接口来自其他 jar，结果可能随依赖变化，交给 Spring 查找
+                return;
+            }
+            if (methods.isEmpty()) {
+                entries.put(className, NONE);
+            } else {
+                entries.putAll(className, methods);
+            }
+        }
+        for (TypeElement nested : ElementFilter.typesIn(rootType.getEnclosedElements())) {
+            collect(nested, entries);
+        }
+    }
+
+    /**
+     * 收集类型及其父类、接口中的标注方法
+     *
+     * @param typeElement 类型
+     * @param methods     {@code 种类:方法名}
+     * @param seen        已访问的类型
+     * @return 类型层次（{@code java.*} 除外）都在本模块中编译返回 {@code true}
+     */
+    private boolean collectMethods(TypeElement typeElement, Set<String> methods, Set<Name> seen) {
+        Name name = typeElement.getQualifiedName();
+        if (name.toString().startsWith("java.") || !seen.add(name)) {
+            return true;
+        }
+        methods.addAll(declaredMethods.computeIfAbsent(name, key -> getDeclaredMethods(typeElement)));
+        boolean complete = inModule.computeIfAbsent(name, key -> moduleTypes.test(getTopLevelName(typeElement)));
+        complete &= collectMethods(typeElement.getSuperclass(), methods, seen);
+        for (TypeMirror anInterface : typeElement.getInterfaces()) {
+            complete &= collectMethods(anInterface, methods, seen);
+        }
+        return complete;
+    }
+
+    /**
+     * 收集父类或接口中的标注方法
+     *
+     * @param type    父类或接口
+     * @param methods {@code 种类:方法名}
+     * @param seen    已访问的类型
+     * @return 类型层次都在本模块中编译返回 {@code true}
+     */
+    private boolean collectMethods(TypeMirror type, Set<String> methods, Set<Name> seen) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            return collectMethods((TypeElement) ((DeclaredType) type).asElement(), methods, seen);
+        }
+        return true;
+    }
+
+    /**
+     * 获取嵌套类所在的顶层类型
+     *
+     * @param typeElement 类型
+     * @return 顶层类型的全限定名
+     */
+    private static String getTopLevelName(TypeElement typeElement) {
+        Element element = typeElement;
+        while (element.getEnclosingElement() != null && element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+        return ((TypeElement) element).getQualifiedName().toString();
+    }
+
+    /**
+     * 获取类型自身声明的标注方法
+     *
+     * @param typeElement 类型
+     * @return {@code 种类:方法名}
+     */
+    private Set<String> getDeclaredMethods(TypeElement typeElement) {
+        Set<String> methods = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(typeElement.getEnclosedElements())) {
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                Set<Name> closure = metaAnnotations.getMetaAnnotations(annotation);
+                for (Map.Entry<Name, String> kind : kinds.entrySet()) {
+                    if (closure.contains(kind.getKey())) {
+                        if (methods == null) {
+                            methods = new TreeSet<>();
+                        }
+                        methods.add(kind.getValue() + ':' + method.getSimpleName());
+                    }
+                }
+            }
+        }
+        return methods == null ? Collections.emptySet() : methods;
+    }
+
+    /**
+     * 输出索引内容，按类名排序
+     *
+     * @param entries 类的二进制名称 -> {@code 种类:方法名}
+     * @return 文件内容
+     */
+    static byte[] toByteArray(MultiSetMap<String, String> entries) {
+        TreeMap<String, Set<String>> sorted = new TreeMap<>();
+        for (String className : entries.keySet()) {
+            Set<String> methods = new TreeSet<>(entries.get(className));
+            methods.remove(NONE);
+            sorted.put(className, methods);
+        }
+        PropertiesWriter content = new PropertiesWriter(sorted.size() * 128);
+        sorted.forEach((className, methods) -> content.append(className, String.join(",", methods)));
+        return content.toByteArray();
+    }
+
+}
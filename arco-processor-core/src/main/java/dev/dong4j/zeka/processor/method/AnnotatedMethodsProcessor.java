@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.method;
+
+import com.google.auto.service.AutoService;
+import dev.dong4j.zeka.processor.common.AbstractMicaProcessor;
+import dev.dong4j.zeka.processor.common.GeneratedResources;
+import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Category;
+import dev.dong4j.zeka.processor.common.ResourceState;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+
+/**
+ * 事件监听与定时任务方法索引处理器
+ *
+ * <p>开启 {@code -Aarco.method.index=true} 后，为本模块的每个类查找 {@code @EventListener}、
+ * {@code @TransactionalEventListener} 和 {@code @Scheduled} 方法，生成 {@code META-INF/arco/annotated-methods.properties}。
+ * arco-processor-runtime 的 {@code AnnotatedMethodsIndexPostProcessor} 据此让 Spring 跳过索引中没有标注方法的 bean 类。</p>
+ *
+ * <p>本轮编译的每个类都会写入索引，包括没有标注方法的类，父类或接口来自其他 jar 的类除外；
+ * 与 {@code spring.components} 相同，按来源类型记录条目以支持增量编译。</p>
+ *
+ * @author L.cm
+ * @see AnnotatedMethods
+ * @since 1.0.0
+ */
+@AutoService(Processor.class)
+@SupportedOptions("debug")
+public class AnnotatedMethodsProcessor extends AbstractMicaProcessor {
+    /** 来源记录名称 */
+    private static final String STATE_NAME = "methods";
+    /** 本次编译扫描出的索引条目及其来源类型 */
+    private final ResourceState contributions = new ResourceState();
+    /** 标注方法的查找，未开启时为 {@code null} */
+    private AnnotatedMethods annotatedMethods;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(AnnotatedMethods.OPTION))) {
+            // 本次编译的根类型，或 CLASS_OUTPUT 中已有 class 文件的类型（增量编译中未修改的类型）属于本模块
+            annotatedMethods = new AnnotatedMethods(processingEnv.getElementUtils(), metaAnnotations,
+                name -> context.isCompiled(name) || existingTypes.isModuleType(name));
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new LinkedHashSet<>(super.getSupportedOptions());
+        options.add(AnnotatedMethods.OPTION);
+        return options;
+    }
+
+    /**
+     * 声明 {@code "*"}，索引需要覆盖本轮的全部根类型
+     *
+     * @return 支持的注解类型
+     */
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton("*");
+    }
+
+    @Override
+    protected Category getLogCategory() {
+        return Category.METHOD;
+    }
+
+    @Override
+    protected boolean processImpl(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (annotatedMethods == null) {
+            return false;
+        }
+        if (roundEnv.processingOver()) {
+            generateIndexFile();
+        } else {
+            // 登记本轮编译的类型，增量编译时据此替换它们在来源记录中的条目
+            analyze(roundEnv);
+            processRootTypes(roundEnv);
+        }
+        return false;
+    }
+
+    /**
+     * 收集本轮根类型的索引条目
+     *
+     * @param roundEnv 当前处理轮次的环境信息
+     */
+    private void processRootTypes(RoundEnvironment roundEnv) {
+        for (TypeElement rootType : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            MultiSetMap<String, String> entries = new MultiSetMap<>();
+            annotatedMethods.collect(rootType, entries);
+            for (String className : entries.keySet()) {
+                log("Found annotated methods of {}: {}", className, entries.get(className));
+                for (String method : entries.get(className)) {
+                    contributions.add(rootType, AnnotatedMethods.RESOURCE_LOCATION, className, method);
+                }
+            }
+        }
+    }
+
+    /**
+     * 合并上一次编译的来源记录，写出索引和来源记录
+     *
+     */
+    private void generateIndexFile() {
+        Filer filer = processingEnv.getFiler();
+        ResourceState previous = ResourceState.read(filer, STATE_NAME);
+        ResourceState merged = new ResourceState();
+        if (previous != null) {
+            merged.addAll(previous, this::isRetained);
+        }
+        merged.addAll(contributions, origin -> true);
+        String location = AnnotatedMethods.RESOURCE_LOCATION;
+        try {
+            byte[] content = AnnotatedMethods.toByteArray(merged.getEntries(location));
+            if (GeneratedResources.writeIfChanged(filer, location, content, merged.getOriginatingElements(location))) {
+                log("Wrote to: {}", location);
+            }
+            merged.write(filer, STATE_NAME);
+        } catch (IOException e) {
+            fatalError(e);
+        }
+    }
+
+}
@@ -18,11 +18,17 @@ package dev.dong4j.zeka.processor.service;
 
 import com.google.auto.service.AutoService;
 import dev.dong4j.zeka.processor.common.AbstractMicaProcessor;
+import dev.dong4j.zeka.processor.common.GeneratedResources;
+import dev.dong4j.zeka.processor.common.GeneratedSources;
 import dev.dong4j.zeka.processor.common.MultiSetMap;
+import dev.dong4j.zeka.processor.common.ProcessorLogger.Category;
+import dev.dong4j.zeka.processor.common.ResourceState;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -31,13 +37,16 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
@@ -45,7 +54,9 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.SimpleAnnotationValueVisitor8;
 import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
 import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 
 /**
@@ -101,8 +112,20 @@ public class AutoServiceProcessor extends AbstractMicaProcessor {
     private static final String AUTO_SERVICE_NAME = dev.dong4j.zeka.processor.annotation.AutoService.class.getName();
     /** SPI 服务提供者映射，键为服务接口全限定名，值为实现类全限定名集合 */
     private final MultiSetMap<String, String> providers = new MultiSetMap<>();
+    /** SPI 配置文件目录 */
+    private static final String SERVICES_LOCATION = "META-INF/services/";
+    /** 来源记录名称 */
+    private static final String STATE_NAME = "services";
+    /** 本次编译扫描出的服务提供者及其来源类型 */
+    private final ResourceState contributions = new ResourceState();
     /** 注解处理环境中的元素工具类，用于获取类型信息 */
     private Elements elementUtils;
+    /** 是否生成服务提供者访问类 */
+    private boolean providersEnabled;
+    /** 服务接口不在本模块时访问类所在的包，未配置时为 {@code null} */
+    private String providersPackage;
+    /** 已生成访问类的服务接口 */
+    private final Set<String> generatedInterfaces = new HashSet<>();
 
     /**
      * Auto service processor
@@ -123,6 +146,17 @@ public class AutoServiceProcessor extends AbstractMicaProcessor {
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
         elementUtils = processingEnv.getElementUtils();
+        providersEnabled = Boolean.parseBoolean(processingEnv.getOptions().get(ServiceProvidersSource.OPTION));
+        String packageName = processingEnv.getOptions().get(ServiceProvidersSource.PACKAGE_OPTION);
+        providersPackage = packageName == null || packageName.trim().isEmpty() ? null : packageName.trim();
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new LinkedHashSet<>(super.getSupportedOptions());
+        options.add(ServiceProvidersSource.OPTION);
+        options.add(ServiceProvidersSource.PACKAGE_OPTION);
+        return options;
     }
 
     /**
@@ -136,6 +170,11 @@ public class AutoServiceProcessor extends AbstractMicaProcessor {
         return Collections.singleton(AUTO_SERVICE_NAME);
     }
 
+    @Override
+    protected Category getLogCategory() {
+        return Category.SERVICE;
+    }
+
     /**
      * Process
      *
@@ -150,6 +189,9 @@ public class AutoServiceProcessor extends AbstractMicaProcessor {
             generateConfigFiles();
         } else {
             processAnnotations(annotations, roundEnv);
+            if (providersEnabled) {
+                generateProviderClasses();
+            }
         }
         return false;
     }
@@ -161,26 +203,19 @@ public class AutoServiceProcessor extends AbstractMicaProcessor {
      * @param roundEnv    当前处理轮次的环境信息
      */
     private void processAnnotations(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        TypeElement autoService = elementUtils.getTypeElement(AUTO_SERVICE_NAME);
-        Set<? extends Element> elementSet = roundEnv.getElementsAnnotatedWith(autoService);
-
-        // 过滤出被 @AutoService 注解标记的类（排除接口、抽象类等）
-        Set<TypeElement> typeElementSet = elementSet.stream()
-            .filter(this::isClass)
-            .filter(e -> e instanceof TypeElement)
-            .map(e -> (TypeElement) e)
-            .collect(Collectors.toSet());
+        // 被 @AutoService 标记的类由共享分析阶段统一查找
+        List<TypeElement> typeElements = analyze(roundEnv).getServiceProviders();
 
         // 如果没有找到被注解标记的类，直接返回
-        if (typeElementSet.isEmpty()) {
+        if (typeElements.isEmpty()) {
             log("Annotations elementSet is isEmpty");
             return;
         }
 
-        log(annotations.toString());
-        log(typeElementSet.toString());
+        log("Annotations: {}", annotations);
+        log("Service providers: {}", typeElements);
 
-        for (TypeElement typeElement : typeElementSet) {
+        for (TypeElement typeElement : typeElements) {
             AnnotationMirror annotationMirror = getAnnotation(elementUtils, typeElement, AUTO_SERVICE_NAME);
             if (annotationMirror == null) {
                 continue;
@@ -194,11 +229,12 @@ public class AutoServiceProcessor extends AbstractMicaProcessor {
             String providerImplementerName = getQualifiedName(typeElement);
             for (TypeMirror typeMirror : typeMirrors) {
                 String providerInterfaceName = getType(typeMirror);
-                log("provider interface: " + providerInterfaceName);
-                log("provider implementer: " + providerImplementerName);
+                log("provider interface: {}", providerInterfaceName);
+                log("provider implementer: {}", providerImplementerName);
 
                 if (checkImplementer(typeElement, typeMirror)) {
                     providers.put(providerInterfaceName, getQualifiedName(typeElement));
+                    contributions.add(typeElement, SERVICES_LOCATION + providerInterfaceName, providerInterfaceName, providerImplementerName);
                 } else {
                     String message = "ServiceProviders must implement their service provider interface. "
                         + providerImplementerName + " does not implement " + providerInterfaceName;
@@ -208,63 +244,170 @@ public class AutoServiceProcessor extends AbstractMicaProcessor {
         }
     }
 
+    /**
+     * 生成服务提供者访问类
+     *
+     * <p>访问类是 Java 源码，需要在非最后一轮生成才能参与编译。每个服务接口只生成一次，
+     * 包含合并后的来源记录中本模块可以直接创建的提供者；之后的轮次中新增的提供者由访问类通过 ServiceLoader 加载。</p>
+     */
+    private void generateProviderClasses() {
+        ResourceState merged = mergeState(ResourceState.read(processingEnv.getFiler(), STATE_NAME));
+        boolean streamApi = processingEnv.getSourceVersion().ordinal() > SourceVersion.RELEASE_8.ordinal();
+        for (String resourceFile : merged.getResources(SERVICES_LOCATION)) {
+            String providerInterfaceName = resourceFile.substring(SERVICES_LOCATION.length());
+            if (generatedInterfaces.contains(providerInterfaceName)) {
+                continue;
+            }
+            TypeElement interfaceElement = elementUtils.getTypeElement(providerInterfaceName.replace('$', '.'));
+            if (interfaceElement == null || !GeneratedSources.isAccessible(interfaceElement)
+                || !interfaceElement.getTypeParameters().isEmpty()) {
+                log("Skip provider class for {}, the interface is not accessible", providerInterfaceName);
+                generatedInterfaces.add(providerInterfaceName);
+                continue;
+            }
+            String packageName = getProvidersPackage(interfaceElement);
+            if (packageName == null) {
+                processingEnv.getMessager().printMessage(Kind.NOTE, "服务接口 " + providerInterfaceName
+                    + " 不在本模块中，未生成访问类，可以通过 -A" + ServiceProvidersSource.PACKAGE_OPTION + " 指定访问类所在的包");
+                generatedInterfaces.add(providerInterfaceName);
+                continue;
+            }
+            Set<String> providerNames = new TreeSet<>();
+            for (String providerName : merged.getValues(resourceFile)) {
+                TypeElement providerElement = elementUtils.getTypeElement(providerName.replace('$', '.'));
+                if (providerElement != null && GeneratedSources.isInstantiable(providerElement)) {
+                    providerNames.add(providerElement.getQualifiedName().toString());
+                } else {
+                    log("{} 无法直接创建，由 ServiceLoader 加载", providerName);
+                }
+            }
+            if (providerNames.isEmpty()) {
+                continue;
+            }
+            generatedInterfaces.add(providerInterfaceName);
+            String className = ServiceProvidersSource.getClassName(packageName, interfaceElement.getSimpleName().toString());
+            try {
+                JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(className, merged.getOriginatingElements(resourceFile));
+                try (Writer writer = sourceFile.openWriter()) {
+                    ServiceProvidersSource.write(className, interfaceElement.getQualifiedName().toString(), providerNames, streamApi, writer);
+                }
+                log("Generated provider class {}", className);
+            } catch (FilerException e) {
+                processingEnv.getMessager().printMessage(Kind.WARNING, "无法生成服务提供者访问类 " + className + "：" + e.getMessage());
+            } catch (IOException e) {
+                fatalError(e);
+            }
+        }
+    }
+
+    /**
+     * 获取访问类所在的包
+     *
+     * <p>服务接口在本模块中时使用接口所在的包，否则使用编译选项指定的包。访问类的位置只取决于接口和配置，
+     * 不会因为增删提供者而改变，调用方的 import 保持稳定。</p>
+     *
+     * @param interfaceElement 服务接口
+     * @return 包名，接口不在本模块且未配置时返回 {@code null}
+     */
+    private String getProvidersPackage(TypeElement interfaceElement) {
+        Element topLevel = interfaceElement;
+        while (topLevel.getEnclosingElement() != null && topLevel.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            topLevel = topLevel.getEnclosingElement();
+        }
+        if (context.isCompiled(((TypeElement) topLevel).getQualifiedName().toString())
+            || existingTypes.isModuleType(interfaceElement.getQualifiedName().toString())) {
+            return elementUtils.getPackageOf(interfaceElement).getQualifiedName().toString();
+        }
+        return providersPackage;
+    }
+
+    /**
+     * 合并上一次编译的来源记录和本次编译扫描出的服务提供者
+     *
+     * @param previous 上一次编译的来源记录，不存在时为 {@code null}
+     * @return 合并后的来源记录
+     */
+    private ResourceState mergeState(ResourceState previous) {
+        ResourceState merged = new ResourceState();
+        if (previous != null) {
+            merged.addAll(previous, this::isRetained);
+        }
+        merged.addAll(contributions, origin -> true);
+        return merged;
+    }
+
     /**
      * 生成 SPI 服务配置文件
      *
      * <p>为每个服务接口生成对应的 META-INF/services/[接口全限定名] 文件，
-     * 文件内容为实现该接口的所有服务提供者类的全限定名。支持增量编译。</p>
+     * 文件内容为实现该接口的所有服务提供者类的全限定名。支持增量编译：存在上一次编译的来源记录时，
+     * 只替换本次重新编译或已删除的类型的贡献，并重新生成上一次涉及的全部接口；没有来源记录时回退到读取已有文件。</p>
      */
     private void generateConfigFiles() {
         Filer filer = processingEnv.getFiler();
-        for (String providerInterface : providers.keySet()) {
-            String resourceFile = "META-INF/services/" + providerInterface;
-            log("Working on resource file: " + resourceFile);
+        ResourceState previous = ResourceState.read(filer, STATE_NAME);
+        if (previous == null && providers.isEmpty()) {
+            return;
+        }
+        ResourceState merged = mergeState(previous);
+        Set<String> resourceFiles = new TreeSet<>(contributions.getResources(SERVICES_LOCATION));
+        if (previous != null) {
+            resourceFiles.addAll(previous.getResources(SERVICES_LOCATION));
+        }
+        for (String resourceFile : resourceFiles) {
+            log("Working on resource file: {}", resourceFile);
             try {
                 SortedSet<String> allServices = new TreeSet<>();
 
                 // 1. 读取用户手动编写的 SPI 配置文件
                 try {
                     FileObject existingFile = filer.getResource(StandardLocation.SOURCE_OUTPUT, "", resourceFile);
-                    log("Looking for existing resource file at " + existingFile.toUri());
-                    Set<String> oldServices = ServicesFiles.readServiceFile(existingFile, elementUtils);
-                    log("Existing service entries: " + oldServices);
+                    log("Looking for existing resource file at {}", existingFile);
+                    Set<String> oldServices = ServicesFiles.readServiceFile(existingFile, existingTypes::exists);
+                    trace("Existing service entries: {}", oldServices);
                     allServices.addAll(oldServices);
                 } catch (IOException e) {
                     log("Resource file did not already exist.");
                 }
 
-                // 2. 读取增量编译时已存在的配置文件
-                try {
-                    FileObject existingFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", resourceFile);
-                    log("Looking for existing resource file at " + existingFile.toUri());
-                    Set<String> oldServices = ServicesFiles.readServiceFile(existingFile, elementUtils);
-                    log("Existing service entries: " + oldServices);
-                    allServices.addAll(oldServices);
-                } catch (IOException e) {
-                    log("Resource file did not already exist.");
-                }
-
-                Set<String> newServices = new HashSet<>(providers.get(providerInterface));
-                if (allServices.containsAll(newServices)) {
-                    log("No new service entries being added.");
-                    return;
+                // 2. 没有来源记录时，读取增量编译时已存在的配置文件，只保留本模块的类，条目以自身作为来源类型
+                if (previous == null) {
+                    try {
+                        FileObject existingFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", resourceFile);
+                        log("Looking for existing resource file at {}", existingFile);
+                        Set<String> oldServices = ServicesFiles.readServiceFile(existingFile, existingTypes::isModuleType);
+                        trace("Existing service entries: {}", oldServices);
+                        String providerInterface = resourceFile.substring(SERVICES_LOCATION.length());
+                        for (String service : oldServices) {
+                            merged.add(service, resourceFile, providerInterface, service);
+                        }
+                    } catch (IOException e) {
+                        log("Resource file did not already exist.");
+                    }
                 }
 
-                // 3. 合并当前注解处理器扫描出来的新服务提供者
-                allServices.addAll(newServices);
-                log("New service file contents: " + allServices);
+                // 3. 合并沿用的条目和当前注解处理器扫描出来的新服务提供者
+                allServices.addAll(merged.getValues(resourceFile));
+                trace("New service file contents: {}", allServices);
 
-                // 创建并写入最终的 SPI 配置文件
-                FileObject fileObject = filer.createResource(StandardLocation.CLASS_OUTPUT, "", resourceFile);
-                try (OutputStream out = fileObject.openOutputStream()) {
-                    ServicesFiles.writeServiceFile(allServices, out);
+                // 内容有变化时才写入最终的 SPI 配置文件，每个接口单独判断
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ServicesFiles.writeServiceFile(allServices, out);
+                if (GeneratedResources.writeIfChanged(filer, resourceFile, out.toByteArray(),
+                    merged.getOriginatingElements(resourceFile))) {
+                    log("Wrote to: {}", resourceFile);
+                } else {
+                    log("No service entries changed: {}", resourceFile);
                 }
-                log("Wrote to: " + fileObject.toUri());
             } catch (IOException e) {
                 fatalError("Unable to create " + resourceFile + ", " + e);
-                return;
             }
         }
+        try {
+            merged.write(filer, STATE_NAME);
+        } catch (IOException e) {
+            fatalError(e);
+        }
     }
 
     /**
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 服务提供者访问类的源码生成
+ *
+ * <p>为每个服务接口生成 {@code <接口简单名>Providers}，接口在本模块中时位于接口所在的包，
+ * 否则位于 {@value #PACKAGE_OPTION} 指定的包，未指定时不生成：</p>
+ * <ul>
+ *   <li>本模块已知的提供者直接调用无参构造器创建</li>
+ *   <li>其他 jar 中的提供者通过 {@link java.util.ServiceLoader} 加载，已直接创建的提供者不会重复加载</li>
+ *   <li>结果在首次访问时由静态内部类初始化，之后每次调用只是一次静态字段读取</li>
+ * </ul>
+ *
+ * <p>源码级别为 Java 9 及以上时通过 {@code ServiceLoader.stream()} 按类型过滤，不会实例化已知的提供者；
+ * Java 8 下只能在迭代时过滤，已知提供者会被 {@code ServiceLoader} 额外创建一次后丢弃。</p>
+ *
+ * <p><strong>生成示例：</strong></p>
+ * <pre>
+ * List&lt;PaymentService&gt; providers = PaymentServiceProviders.get();
+ * PaymentService first = PaymentServiceProviders.first();
+ * </pre>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+@UtilityClass
+class ServiceProvidersSource {
+    /** 是否生成服务提供者访问类的编译选项，默认不生成 */
+    static final String OPTION = "arco.service.providers";
+    /** 服务接口不在本模块时访问类所在包的编译选项 */
+    static final String PACKAGE_OPTION = "arco.service.providers.package";
+    /** 访问类名后缀 */
+    private static final String CLASS_NAME_SUFFIX = "Providers";
+
+    /**
+     * 获取访问类全限定名
+     *
+     * @param packageName   生成类所在的包
+     * @param interfaceName 服务接口的简单名
+     * @return 访问类全限定名
+     */
+    static String getClassName(String packageName, String interfaceName) {
+        String simpleName = interfaceName + CLASS_NAME_SUFFIX;
+        return packageName.isEmpty() ? simpleName : packageName + '.' + simpleName;
+    }
+
+    /**
+     * 写出访问类源码
+     *
+     * @param className     访问类全限定名
+     * @param interfaceName 服务接口的规范名称
+     * @param providers     本模块中可以直接创建的提供者规范名称，按字典序排列
+     * @param streamApi     是否使用 Java 9 的 {@code ServiceLoader.stream()}
+     * @param writer        输出
+     * @throws IOException 写入时发生的 IO 异常
+     */
+    static void write(String className, String interfaceName, Collection<String> providers, boolean streamApi,
+                      Writer writer) throws IOException {
+        int lastDot = className.lastIndexOf('.');
+        String simpleName = className.substring(lastDot + 1);
+        StringBuilder source = new StringBuilder(1024 + providers.size() * 64);
+        if (lastDot > 0) {
+            source.append("package ").append(className, 0, lastDot).append(";\n\n");
+        }
+        source.append("import java.util.ArrayList;\n");
+        source.append("import java.util.Collections;\n");
+        source.append("import java.util.HashSet;\n");
+        source.append("import java.util.List;\n");
+        source.append("import java.util.ServiceLoader;\n");
+        source.append("import java.util.Set;\n\n");
+        source.append("/**\n * {@code ").append(interfaceName).append("} 的服务提供者，由 arco-processor 生成，请勿修改\n */\n");
+        source.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+        source.append("public final class ").append(simpleName).append(" {\n\n");
+        source.append("    private ").append(simpleName).append("() {\n    }\n\n");
+        source.append("    /**\n");
+        source.append("     * 全部服务提供者：先是本模块的提供者，然后是 ServiceLoader 加载的其他提供者\n");
+        source.append("     *\n     * @return 不可修改的提供者列表\n     */\n");
+        source.append("    public static List<").append(interfaceName).append("> get() {\n");
+        source.append("        return Holder.PROVIDERS;\n    }\n\n");
+        source.append("    /**\n");
+        source.append("     * 第一个服务提供者\n");
+        source.append("     *\n     * @return 提供者，没有时返回 null\n     */\n");
+        source.append("    public static ").append(interfaceName).append(" first() {\n");
+        source.append("        List<").append(interfaceName).append("> providers = Holder.PROVIDERS;\n");
+        source.append("        return providers.isEmpty() ? null : providers.get(0);\n    }\n\n");
+        source.append("    private static List<").append(interfaceName).append("> load() {\n");
+        source.append("        List<").append(interfaceName).append("> providers = new ArrayList<>();\n");
+        for (String provider : providers) {
+            source.append("        providers.add(new ").append(provider).append("());\n");
+        }
+        source.append("        Set<String> known = new HashSet<>();\n");
+        source.append("        for (").append(interfaceName).append(" provider : providers) {\n");
+        source.append("            known.add(provider.getClass().getName());\n        }\n");
+        String serviceLoader = "ServiceLoader.load(" + interfaceName + ".class, " + simpleName + ".class.getClassLoader())";
+        if (streamApi) {
+            source.append("        ").append(serviceLoader).append(".stream()\n");
+            source.append("            .filter(provider -> !known.contains(provider.type().getName()))\n");
+            source.append("            .forEach(provider -> providers.add(provider.get()));\n");
+        } else {
+            source.append("        for (").append(interfaceName).append(" provider : ").append(serviceLoader).append(") {\n");
+            source.append("            if (!known.contains(provider.getClass().getName())) {\n");
+            source.append("                providers.add(provider);\n            }\n        }\n");
+        }
+        source.append("        return Collections.unmodifiableList(providers);\n    }\n\n");
+        source.append("    private static final class Holder {\n");
+        source.append("        private static final List<").append(interfaceName).append("> PROVIDERS = load();\n    }\n\n");
+        source.append("}\n");
+        writer.write(source.toString());
+    }
+
+}
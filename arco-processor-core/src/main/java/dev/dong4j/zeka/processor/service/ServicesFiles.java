@@ -27,9 +27,9 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
-import javax.lang.model.util.Elements;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 import javax.tools.FileObject;
 import lombok.experimental.UtilityClass;
 
@@ -69,12 +69,12 @@ class ServicesFiles {
      * <p>解析纯文本格式的 SPI 配置文件，提取服务提供者类名。
      * 会自动过滤注释行、空行和不存在的类。</p>
      *
-     * @param fileObject   要读取的服务配置文件，读取后会自动关闭
-     * @param elementUtils 元素工具类，用于验证类是否存在
+     * @param fileObject 要读取的服务配置文件，读取后会自动关闭
+     * @param filter     类名过滤条件，只保留返回 {@code true} 的类
      * @return 包含有效服务类名的集合，不会为 {@code null}
      * @throws IOException 读取文件时发生的 IO 异常
      */
-    static Set<String> readServiceFile(FileObject fileObject, Elements elementUtils) throws IOException {
+    static Set<String> readServiceFile(FileObject fileObject, Predicate<String> filter) throws IOException {
         HashSet<String> serviceClasses = new HashSet<>();
         try (
             InputStream input = fileObject.openInputStream();
@@ -90,7 +90,7 @@ class ServicesFiles {
                 }
                 line = line.trim();
                 // 验证类是否存在，过滤掉已删除的类
-                if (!line.isEmpty() && Objects.nonNull(elementUtils.getTypeElement(line))) {
+                if (!line.isEmpty() && filter.test(line)) {
                     serviceClasses.add(line);
                 }
             }
@@ -101,7 +101,7 @@ class ServicesFiles {
     /**
      * 写入服务类名集合到 SPI 服务配置文件
      *
-     * <p>将服务提供者类名写入纯文本格式的文件，每行一个类名。
+     * <p>将服务提供者类名按字典序写入纯文本格式的文件，每行一个类名，统一使用 {@code \n} 换行。
      * 输出流使用后不会自动关闭。</p>
      *
      * @param services 要写入的服务类名集合，不能为 {@code null}
@@ -110,9 +110,9 @@ class ServicesFiles {
      */
     static void writeServiceFile(Collection<String> services, OutputStream output) throws IOException {
         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
-        for (String service : services) {
+        for (String service : new TreeSet<>(services)) {
             writer.write(service);
-            writer.newLine();
+            writer.write('\n');
         }
         writer.flush();
     }
@@ -0,0 +1,290 @@
+package dev.dong4j.zeka.processor;
+
+import dev.dong4j.zeka.processor.common.ProcessingContext;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * <p>Description: 测试用的进程内编译，在第一轮注解处理中执行测试代码，或运行完整的注解处理器 </p>
+ *
+ * <p>处理器的大部分逻辑依赖编译器提供的 {@link javax.lang.model.util.Elements}、{@link javax.annotation.processing.Filer}
+ * 和语法树，这里用内存中的源码编译一次，在第一轮中把处理环境交给测试；也可以运行真实的处理器，
+ * 再检查输出目录中生成的文件和编译诊断。输出目录同时位于类路径上，多次编译共用目录可以模拟增量编译。</p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+public final class TestCompiler {
+
+    private TestCompiler() {
+    }
+
+    /**
+     * 内存中的源码
+     *
+     * @param className 类名
+     * @param code      源码
+     * @return 源码文件
+     * @since 1.0.0
+     */
+    public static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    /**
+     * 在临时目录中编译源码
+     *
+     * @param action  第一轮中执行的测试代码
+     * @param sources 源码
+     * @return 编译诊断
+     * @since 1.0.0
+     */
+    public static List<Diagnostic<? extends JavaFileObject>> compile(BiConsumer<ProcessingEnvironment, RoundEnvironment> action,
+                                                                     JavaFileObject... sources) {
+        return compile(tempDirectory(), Collections.emptyList(), action, sources);
+    }
+
+    /**
+     * 编译源码，生成的资源写入指定目录，多次编译共用目录时可以读取上一次生成的资源
+     *
+     * @param output  输出目录
+     * @param action  第一轮中执行的测试代码
+     * @param sources 源码
+     * @return 编译诊断
+     * @since 1.0.0
+     */
+    public static List<Diagnostic<? extends JavaFileObject>> compile(Path output, BiConsumer<ProcessingEnvironment, RoundEnvironment> action,
+                                                                     JavaFileObject... sources) {
+        return compile(output, Collections.emptyList(), action, sources);
+    }
+
+    /**
+     * 带编译选项编译源码
+     *
+     * @param output  输出目录
+     * @param options 编译选项，例如 {@code -Aarco.log.level=debug}
+     * @param action  第一轮中执行的测试代码
+     * @param sources 源码
+     * @return 编译诊断
+     * @since 1.0.0
+     */
+    public static List<Diagnostic<? extends JavaFileObject>> compile(Path output, List<String> options,
+                                                                     BiConsumer<ProcessingEnvironment, RoundEnvironment> action,
+                                                                     JavaFileObject... sources) {
+        ActionProcessor processor = new ActionProcessor(action);
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean success = call(output, options, Collections.singletonList(processor), diagnostics, sources);
+        // 测试代码中的断言失败原样抛出，不经过编译器的包装
+        if (processor.failure instanceof Error) {
+            throw (Error) processor.failure;
+        }
+        if (processor.failure != null) {
+            throw (RuntimeException) processor.failure;
+        }
+        if (!success) {
+            throw new AssertionError("编译失败：" + diagnostics.getDiagnostics());
+        }
+        return diagnostics.getDiagnostics();
+    }
+
+    /**
+     * 用指定的注解处理器编译源码，编译失败时不抛出异常，由测试检查诊断
+     *
+     * @param output     输出目录，生成的资源写入 {@code output} 下
+     * @param options    编译选项
+     * @param processors 注解处理器
+     * @param sources    源码
+     * @return 编译诊断
+     * @since 1.0.0
+     */
+    public static List<Diagnostic<? extends JavaFileObject>> process(Path output, List<String> options, List<? extends Processor> processors,
+                                                                     JavaFileObject... sources) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        call(output, options, processors, diagnostics, sources);
+        return diagnostics.getDiagnostics();
+    }
+
+    /**
+     * 读取输出目录中生成的文本文件
+     *
+     * @param output   输出目录
+     * @param resource 相对路径
+     * @return 文件内容，不存在时返回 {@code null}
+     * @since 1.0.0
+     */
+    public static String read(Path output, String resource) {
+        Path path = output.resolve(resource);
+        try {
+            return Files.exists(path) ? new String(Files.readAllBytes(path), StandardCharsets.UTF_8) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 获取指定级别的诊断信息
+     *
+     * @param diagnostics 编译诊断
+     * @param kind        诊断级别
+     * @return 诊断信息
+     * @since 1.0.0
+     */
+    public static List<String> messages(List<Diagnostic<? extends JavaFileObject>> diagnostics, Diagnostic.Kind kind) {
+        List<String> messages = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            if (diagnostic.getKind() == kind) {
+                messages.add(diagnostic.getMessage(Locale.ROOT));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * 包装处理环境，与 Gradle 增量编译的包装一样只转发接口方法，javac 专有的 API 不可用
+     *
+     * @param processingEnv 处理环境
+     * @return 包装后的处理环境
+     * @since 1.0.0
+     */
+    public static ProcessingEnvironment wrap(ProcessingEnvironment processingEnv) {
+        return (ProcessingEnvironment) Proxy.newProxyInstance(ProcessingEnvironment.class.getClassLoader(),
+            new Class<?>[]{ProcessingEnvironment.class}, (proxy, method, args) -> {
+                try {
+                    return method.invoke(processingEnv, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    /**
+     * 包装注解处理器，初始化时传入 {@link #wrap(ProcessingEnvironment)} 包装后的处理环境
+     *
+     * @param processor 注解处理器
+     * @return 包装后的注解处理器
+     * @since 1.0.0
+     */
+    public static Processor wrap(Processor processor) {
+        return (Processor) Proxy.newProxyInstance(Processor.class.getClassLoader(), new Class<?>[]{Processor.class}, (proxy, method, args) -> {
+            if ("init".equals(method.getName())) {
+                args = new Object[]{wrap((ProcessingEnvironment) args[0])};
+            }
+            try {
+                return method.invoke(processor, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    /**
+     * 创建临时输出目录
+     *
+     * @return 临时目录
+     * @since 1.0.0
+     */
+    public static Path tempDirectory() {
+        try {
+            return Files.createTempDirectory("arco-processor-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 执行编译，只做注解处理，不生成 class 文件
+     *
+     * @param output      输出目录
+     * @param options     编译选项
+     * @param processors  注解处理器
+     * @param diagnostics 诊断收集器
+     * @param sources     源码
+     * @return 编译成功返回 {@code true}
+     */
+    private static boolean call(Path output, List<String> options, List<? extends Processor> processors,
+                                DiagnosticCollector<JavaFileObject> diagnostics, JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-proc:only", "-d", output.toString(), "-s", output.toString(),
+            "-classpath", output + File.pathSeparator + System.getProperty("java.class.path")));
+        arguments.addAll(options);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, arguments, null, Arrays.asList(sources));
+        task.setProcessors(processors);
+        return task.call();
+    }
+
+    /**
+     * 在第一轮中执行测试代码的处理器
+     */
+    private static final class ActionProcessor extends AbstractProcessor {
+        /** 测试代码 */
+        private final BiConsumer<ProcessingEnvironment, RoundEnvironment> action;
+        /** 是否已经执行 */
+        private boolean executed;
+        /** 测试代码抛出的异常 */
+        private Throwable failure;
+
+        private ActionProcessor(BiConsumer<ProcessingEnvironment, RoundEnvironment> action) {
+            this.action = action;
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return Collections.singleton("*");
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (roundEnv.processingOver()) {
+                ProcessingContext.release(processingEnv);
+            } else if (!executed) {
+                executed = true;
+                try {
+                    action.accept(processingEnv, roundEnv);
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                }
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package dev.dong4j.zeka.processor.common;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * <p>Description: {@link FactoriesFiles} 流式解析测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class FactoriesFilesTest {
+
+    /**
+     * 续行、注释、空值和分隔符，回调顺序与文件一致
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void parsesContinuationLinesInSourceOrder() throws IOException {
+        String content = "# comment\n"
+            + "! another comment\n"
+            + "b.Key=\\\n"
+            + "  b.One,\\\n"
+            + "  # not a comment,\\\n"
+            + "  ,b.Two\n"
+            + "\n"
+            + "a.Key : a.One , a.Two\r\n"
+            + "c.Key c.One";
+        assertEquals(Arrays.asList(
+            "b.Key=b.One", "b.Key=# not a comment", "b.Key=b.Two",
+            "a.Key=a.One", "a.Key=a.Two",
+            "c.Key=c.One"), parse(content));
+    }
+
+    /**
+     * 转义字符与 Properties 一致，转义后的逗号同样作为分隔符
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void unescapesLikeProperties() throws IOException {
+        assertEquals(Arrays.asList("a=b.Key=x", "a=b.Key=y", "a=b.Key=\u00e9", "a=b.Key=tail\\"),
+            parse("a\\=b.Key=x\\,y,\\u00e9,tail\\\\"));
+        assertEquals(Arrays.asList("k=v"), parse("k=v\\"));
+        assertThrows(IOException.class, () -> parse("k=\\u12"));
+    }
+
+    private static List<String> parse(String content) throws IOException {
+        List<String> events = new ArrayList<>();
+        FactoriesFiles.parse(new StringReader(content), (key, value) -> events.add(key + "=" + value));
+        return events;
+    }
+
+}
@@ -0,0 +1,86 @@
+package dev.dong4j.zeka.processor.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <p>Description: {@link FactoriesIndex} 编码测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class FactoriesIndexTest {
+
+    /**
+     * 按文件格式解码后得到相同的键值，键和值保持写入时的顺序，文件头记录文本文件的长度和 CRC32
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void roundTripsInGivenOrder() throws IOException {
+        MultiSetMap<String, String> entries = new MultiSetMap<>();
+        entries.put("z.Listener", "demo.用户Listener");
+        entries.put("z.Listener", "demo.AListener");
+        entries.put("a.Initializer", "demo.Shared");
+        entries.put("z.Listener", "demo.Shared");
+        byte[] source = "z.Listener=...\na.Initializer=...\n".getBytes(StandardCharsets.UTF_8);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(FactoriesIndex.toByteArray(entries, source)));
+        assertEquals(FactoriesIndex.MAGIC, in.readInt());
+        assertEquals(FactoriesIndex.VERSION, in.readShort());
+        assertEquals(source.length, in.readLong());
+        CRC32 crc = new CRC32();
+        crc.update(source, 0, source.length);
+        assertEquals((int) crc.getValue(), in.readInt());
+
+        List<String> strings = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            byte[] utf8 = new byte[in.readUnsignedShort()];
+            in.readFully(utf8);
+            strings.add(new String(utf8, StandardCharsets.UTF_8));
+        }
+        // 字符串表去重并按字典序排列
+        assertEquals(Arrays.asList("a.Initializer", "demo.AListener", "demo.Shared", "demo.用户Listener", "z.Listener"), strings);
+
+        int keyCount = in.readInt();
+        int[][] keys = new int[keyCount][3];
+        for (int[] key : keys) {
+            key[0] = in.readInt();
+            key[1] = in.readInt();
+            key[2] = in.readInt();
+        }
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        assertEquals(-1, in.read());
+
+        Map<String, List<String>> decoded = new LinkedHashMap<>();
+        for (int[] key : keys) {
+            List<String> keyValues = new ArrayList<>();
+            for (int i = key[1]; i < key[1] + key[2]; i++) {
+                keyValues.add(strings.get(values[i]));
+            }
+            decoded.put(strings.get(key[0]), keyValues);
+        }
+        Map<String, List<String>> expected = new LinkedHashMap<>();
+        expected.put("z.Listener", Arrays.asList("demo.用户Listener", "demo.AListener", "demo.Shared"));
+        expected.put("a.Initializer", Arrays.asList("demo.Shared"));
+        assertEquals(expected, decoded);
+        assertEquals(Arrays.asList("z.Listener", "a.Initializer"), new ArrayList<>(decoded.keySet()));
+    }
+
+}
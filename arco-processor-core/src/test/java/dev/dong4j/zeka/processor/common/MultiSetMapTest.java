@@ -0,0 +1,95 @@
+package dev.dong4j.zeka.processor.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link MultiSetMap} 行为测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class MultiSetMapTest {
+
+    /**
+     * 键和值按插入顺序迭代，重复值不会被添加
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void keepsInsertionOrder() {
+        MultiSetMap<String, String> map = new MultiSetMap<>();
+        assertTrue(map.put("b", "b1"));
+        assertTrue(map.put("a", "a2"));
+        assertTrue(map.put("a", "a1"));
+        assertFalse(map.put("a", "a2"));
+
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<>(map.keySet()));
+        assertEquals(Arrays.asList("a2", "a1"), new ArrayList<>(map.get("a")));
+    }
+
+    /**
+     * 值的集合覆盖 put、putAll 以及跨键的重复值
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void containsValCoversAllKeys() {
+        MultiSetMap<String, String> map = new MultiSetMap<>();
+        map.put("k1", "v");
+        map.putAll("k2", Arrays.asList("v", "w"));
+
+        MultiSetMap<String, String> merged = new MultiSetMap<>();
+        merged.putAll(map);
+
+        assertTrue(merged.containsVal("v"));
+        assertTrue(merged.containsVal("w"));
+        assertFalse(merged.containsVal("x"));
+
+        merged.clear();
+        assertFalse(merged.containsVal("v"));
+        assertTrue(merged.isEmpty());
+    }
+
+    /**
+     * 值较多时切换到哈希索引，顺序与去重保持不变
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void growsBeyondCompactStorage() {
+        MultiSetMap<String, Integer> map = new MultiSetMap<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            map.put("k", i);
+            map.put("k", i);
+            expected.add(i);
+        }
+        assertEquals(expected, new ArrayList<>(map.get("k")));
+        assertEquals(40, map.get("k").size());
+        assertTrue(map.get("k").contains(39));
+    }
+
+    /**
+     * 返回的值集合只读，修改必须经过 MultiSetMap 以保证值的集合一致
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void valuesAreReadOnly() {
+        MultiSetMap<String, String> map = new MultiSetMap<>();
+        map.put("k", "v");
+        assertThrows(UnsupportedOperationException.class, () -> map.get("k").add("w"));
+        assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove("k"));
+    }
+
+}
@@ -0,0 +1,72 @@
+package dev.dong4j.zeka.processor.common;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link ProcessingContext} 候选类型查找测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class ProcessingContextTest {
+
+    /**
+     * 没有任何注解的启动类、从父类继承 {@code @Inherited} 组合注解的类型都会进入分类
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void findsStartClassesAndInheritedAnnotations() {
+        Map<String, AnalyzedType> types = analyze(
+            TestCompiler.source("dev.dong4j.zeka.starter.launcher.ZekaStackStarter",
+                "package dev.dong4j.zeka.starter.launcher; public abstract class ZekaStackStarter {}"),
+            TestCompiler.source("demo.DemoApplication",
+                "package demo; public class DemoApplication extends dev.dong4j.zeka.starter.launcher.ZekaStackStarter {}"),
+            TestCompiler.source("demo.HintsPlugin",
+                "package demo; @java.lang.annotation.Inherited @dev.dong4j.zeka.processor.annotation.AotRuntimeHintsRegistrar"
+                    + " public @interface HintsPlugin {}"),
+            TestCompiler.source("demo.BasePlugin", "package demo; @HintsPlugin public class BasePlugin {}"),
+            TestCompiler.source("demo.ChildPlugin", "package demo; public class ChildPlugin extends BasePlugin {}"),
+            TestCompiler.source("demo.Plain", "package demo; public class Plain {}"));
+
+        AnalyzedType application = types.get("demo.DemoApplication");
+        assertTrue(application.isStartClass());
+        assertTrue(application.getBootTypes().isEmpty());
+
+        AnalyzedType child = types.get("demo.ChildPlugin");
+        assertFalse(child.isStartClass());
+        assertEquals(EnumSet.of(AotAutoType.RUNTIME_HINTS_REGISTRAR), child.getAotTypes());
+        assertEquals(EnumSet.of(AotAutoType.RUNTIME_HINTS_REGISTRAR), types.get("demo.BasePlugin").getAotTypes());
+        assertNull(types.get("demo.Plain"));
+    }
+
+    /**
+     * 编译源码并记录共享分析阶段的结果
+     *
+     * @param sources 源码
+     * @return 全限定名 -> 分析结果
+     */
+    private static Map<String, AnalyzedType> analyze(JavaFileObject... sources) {
+        Map<String, AnalyzedType> types = new HashMap<>();
+        TestCompiler.compile((processingEnv, roundEnv) -> {
+            ProcessorLogger logger = new ProcessorLogger(processingEnv.getMessager(), processingEnv.getOptions());
+            for (AnalyzedType analyzedType : ProcessingContext.get(processingEnv).analyze(roundEnv, logger).getTypes()) {
+                types.put(analyzedType.getQualifiedName(), analyzedType);
+            }
+        }, sources);
+        return types;
+    }
+
+}
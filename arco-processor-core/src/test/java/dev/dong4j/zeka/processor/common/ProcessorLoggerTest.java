@@ -0,0 +1,56 @@
+package dev.dong4j.zeka.processor.common;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import dev.dong4j.zeka.processor.aot.AotFactoriesProcessor;
+import dev.dong4j.zeka.processor.factories.AutoFactoriesProcessor;
+import dev.dong4j.zeka.processor.method.AnnotatedMethodsProcessor;
+import dev.dong4j.zeka.processor.service.AutoServiceProcessor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link ProcessorLogger} 编译选项校验测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class ProcessorLoggerTest {
+
+    /**
+     * 无法识别的日志级别和分类在同一次编译中只报告一次，不会由每个处理器各报告一次
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void reportsInvalidOptionsOnce() {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = TestCompiler.process(TestCompiler.tempDirectory(),
+            Arrays.asList("-A" + ProcessorLogger.OPTION_LEVEL + "=verbose", "-A" + ProcessorLogger.OPTION_CATEGORIES + "=factories,web"),
+            Arrays.asList(new AutoFactoriesProcessor(), new AotFactoriesProcessor(), new AutoServiceProcessor(), new AnnotatedMethodsProcessor()),
+            TestCompiler.source("demo.Plain", "package demo; public class Plain {}"));
+
+        List<String> errors = TestCompiler.messages(diagnostics, Diagnostic.Kind.ERROR);
+        assertEquals(2, errors.size(), errors.toString());
+        assertTrue(errors.get(0).startsWith("FATAL ERROR: -A" + ProcessorLogger.OPTION_LEVEL), errors.get(0));
+        assertTrue(errors.get(1).contains("web"), errors.get(1));
+    }
+
+    /**
+     * 有效的选项没有错误
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void acceptsValidOptions() {
+        assertTrue(ProcessorLogger.validate(Collections.singletonMap(ProcessorLogger.OPTION_LEVEL, "Debug")).isEmpty());
+    }
+
+}
@@ -0,0 +1,57 @@
+package dev.dong4j.zeka.processor.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <p>Description: {@link PropertiesWriter} 转义测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class PropertiesWriterTest {
+
+    /**
+     * 非 ASCII 类名、分隔符和反斜杠经 {@link Properties#load(java.io.InputStream)} 读回后保持不变
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void roundTripsThroughProperties() throws IOException {
+        String key = "demo.用户Service$Inner";
+        String value = "demo.事件,bean:init";
+        String special = " a=b:c#d!e\\f\tg";
+        byte[] content = new PropertiesWriter(64)
+            .append(key, value)
+            .append(special, " leading\\")
+            .toByteArray();
+
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(content));
+        assertEquals(2, properties.size());
+        assertEquals(value, properties.getProperty(key));
+        assertEquals(" leading\\", properties.getProperty(special));
+    }
+
+    /**
+     * 只转义必要的字符，ASCII 类名保持原样
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void keepsAsciiNamesReadable() {
+        byte[] content = new PropertiesWriter(64)
+            .append("demo.Listener", "bean:init,demo.Event")
+            .append("demo.é", "x")
+            .toByteArray();
+        assertEquals("demo.Listener=bean:init,demo.Event\ndemo.\\u00E9=x\n", new String(content, StandardCharsets.ISO_8859_1));
+    }
+
+}
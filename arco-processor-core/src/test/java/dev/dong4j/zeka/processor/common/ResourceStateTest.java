@@ -0,0 +1,96 @@
+package dev.dong4j.zeka.processor.common;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link ResourceState} 读写与合并测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class ResourceStateTest {
+
+    /** 测试用的资源文件 */
+    private static final String RESOURCE = "META-INF/spring.factories";
+
+    /**
+     * 上一次编译写出的记录可以读回，合并时只保留未重新编译的来源类型，来源元素只包含本次编译中的类型
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void readsMergesAndWrites() throws IOException {
+        Path output = Files.createTempDirectory("arco-processor-test");
+        TestCompiler.compile(output, (processingEnv, roundEnv) -> {
+            Elements elementUtils = processingEnv.getElementUtils();
+            ResourceState state = new ResourceState();
+            state.add(elementUtils.getTypeElement("demo.A"), RESOURCE, "demo.Listener", "demo.A");
+            state.add(elementUtils.getTypeElement("demo.B"), RESOURCE, "demo.Listener", "demo.B");
+            state.add(elementUtils.getTypeElement("demo.B"), "META-INF/aot.factories", "demo.Hints", "demo.B");
+            write(state, processingEnv.getFiler());
+        }, TestCompiler.source("demo.A", "package demo; public class A {}"),
+            TestCompiler.source("demo.B", "package demo; public class B {}"));
+
+        // 第二次只重新编译 A，新增的 C 也贡献到同一个文件
+        List<String> values = new ArrayList<>();
+        List<Element> originating = new ArrayList<>();
+        TestCompiler.compile(output, (processingEnv, roundEnv) -> {
+            ResourceState previous = ResourceState.read(processingEnv.getFiler(), "test");
+            assertTrue(previous.contains(RESOURCE));
+            assertFalse(previous.contains("META-INF/spring/missing.imports"));
+            assertEquals(Arrays.asList("demo.A", "demo.B"), new ArrayList<>(previous.getEntries(RESOURCE).get("demo.Listener")));
+            assertEquals(0, previous.getOriginatingElements().length);
+
+            Elements elementUtils = processingEnv.getElementUtils();
+            TypeElement a = elementUtils.getTypeElement("demo.A");
+            TypeElement c = elementUtils.getTypeElement("demo.C");
+            ResourceState state = new ResourceState();
+            state.add(c, RESOURCE, "demo.Listener", "demo.C");
+            state.addAll(previous, origin -> !origin.equals(a.getQualifiedName().toString()));
+            values.addAll(state.getValues(RESOURCE));
+            originating.addAll(Arrays.asList(state.getOriginatingElements(RESOURCE)));
+            assertEquals(Collections.singleton("META-INF/aot.factories"), state.getResources("META-INF/aot"));
+            assertNull(ResourceState.read(processingEnv.getFiler(), "missing"));
+        }, TestCompiler.source("demo.A", "package demo; public class A {}"),
+            TestCompiler.source("demo.C", "package demo; public class C {}"));
+
+        assertEquals(Arrays.asList("demo.C", "demo.B"), values);
+        assertEquals(1, originating.size());
+        assertEquals("demo.C", ((TypeElement) originating.get(0)).getQualifiedName().toString());
+    }
+
+    /**
+     * 写出记录
+     *
+     * @param state 记录
+     * @param filer 文件管理器
+     */
+    private static void write(ResourceState state, Filer filer) {
+        try {
+            assertTrue(state.write(filer, "test"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link AutoConfigurationLint} 报告测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class AutoConfigurationLintTest {
+
+    /** 开启检查的编译选项 */
+    private static final List<String> OPTIONS = Collections.singletonList("-A" + AutoConfigurationLint.OPTION + "=true");
+
+    /**
+     * 没有守卫条件的自动配置类得到警告并写入报告；汇总提示只在报告发生变化时输出，报告未变化的再次编译不输出
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void summarizesOnlyChangedReports() {
+        JavaFileObject[] sources = {
+            TestCompiler.source("org.springframework.stereotype.Component", "package org.springframework.stereotype;"
+                + " public @interface Component {}"),
+            TestCompiler.source("org.springframework.boot.autoconfigure.AutoConfiguration", "package org.springframework.boot.autoconfigure;"
+                + " @org.springframework.stereotype.Component public @interface AutoConfiguration {}"),
+            TestCompiler.source("demo.DemoAutoConfiguration", "package demo;"
+                + " @org.springframework.boot.autoconfigure.AutoConfiguration public class DemoAutoConfiguration {}")
+        };
+        Path output = TestCompiler.tempDirectory();
+        List<Diagnostic<? extends JavaFileObject>> first = TestCompiler.process(output, OPTIONS,
+            Collections.singletonList(new AutoFactoriesProcessor()), sources);
+        assertEquals(1, TestCompiler.messages(first, Diagnostic.Kind.WARNING).stream().filter(message -> message.contains("守卫")).count());
+        assertEquals(1, summaries(first));
+        String report = TestCompiler.read(output, AutoConfigurationLint.REPORT_LOCATION);
+        assertNotNull(report);
+        assertTrue(report.contains("demo.DemoAutoConfiguration"), report);
+
+        List<Diagnostic<? extends JavaFileObject>> second = TestCompiler.process(output, OPTIONS,
+            Collections.singletonList(new AutoFactoriesProcessor()), sources);
+        assertEquals(0, summaries(second));
+        assertEquals(report, TestCompiler.read(output, AutoConfigurationLint.REPORT_LOCATION));
+    }
+
+    /**
+     * 统计汇总提示的数量
+     *
+     * @param diagnostics 编译诊断
+     * @return 汇总提示的数量
+     */
+    private static long summaries(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        return TestCompiler.messages(diagnostics, Diagnostic.Kind.NOTE).stream().filter(message -> message.contains("报告")).count();
+    }
+
+}
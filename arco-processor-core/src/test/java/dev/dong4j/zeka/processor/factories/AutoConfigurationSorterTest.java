@@ -0,0 +1,93 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * <p>Description: {@link AutoConfigurationSorter} 拓扑排序与循环检测测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class AutoConfigurationSorterTest {
+
+    /**
+     * 先按类名，再按 {@code @AutoConfigureOrder}，最后按 {@code @AutoConfigureAfter}/{@code @AutoConfigureBefore} 排序，
+     * 不在本模块中的类按默认顺序参与排序
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void sortsByNameOrderAndRelations() {
+        List<String> sorted = sort(Arrays.asList("other.External", "demo.D", "demo.C", "demo.B", "demo.A"),
+            TestCompiler.source("demo.A", "package demo;"
+                + " @org.springframework.boot.autoconfigure.AutoConfigureAfter(C.class) public class A {}"),
+            TestCompiler.source("demo.B", "package demo;"
+                + " @org.springframework.boot.autoconfigure.AutoConfigureOrder(-10) public class B {}"),
+            TestCompiler.source("demo.C", "package demo; public class C {}"),
+            TestCompiler.source("demo.D", "package demo;"
+                + " @org.springframework.boot.autoconfigure.AutoConfigureBefore(name = \"demo.A\") public class D {}"));
+        assertEquals(Arrays.asList("demo.B", "demo.C", "demo.D", "demo.A", "other.External"), sorted);
+    }
+
+    /**
+     * 先后关系存在环时抛出 {@link AutoConfigurationSorter.CycleException}，环的首尾为同一个类
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void reportsCycles() {
+        AutoConfigurationSorter.CycleException e = assertThrows(AutoConfigurationSorter.CycleException.class, () -> sort(
+            Arrays.asList("demo.X", "demo.Y", "demo.Z"),
+            TestCompiler.source("demo.X", "package demo;"
+                + " @org.springframework.boot.autoconfigure.AutoConfigureAfter(Y.class)"
+                + " @org.springframework.boot.autoconfigure.AutoConfigureBefore(Z.class) public class X {}"),
+            TestCompiler.source("demo.Y", "package demo;"
+                + " @org.springframework.boot.autoconfigure.AutoConfigureAfter(Z.class) public class Y {}"),
+            TestCompiler.source("demo.Z", "package demo; public class Z {}")));
+        assertEquals(Arrays.asList("demo.X", "demo.Y", "demo.Z", "demo.X"), e.getCycle());
+    }
+
+    /**
+     * 与 Spring Boot 注解同名的最小定义，连同待排序的类一起编译后排序
+     *
+     * @param classNames 待排序的类名
+     * @param sources    待排序的类的源码
+     * @return 排序后的类名
+     */
+    private static List<String> sort(List<String> classNames, JavaFileObject... sources) {
+        List<JavaFileObject> all = new ArrayList<>(Arrays.asList(sources));
+        all.add(annotation("AutoConfigureAfter", "Class<?>[] value() default {}; String[] name() default {};"));
+        all.add(annotation("AutoConfigureBefore", "Class<?>[] value() default {}; String[] name() default {};"));
+        all.add(annotation("AutoConfigureOrder", "int value() default 0;"));
+        List<String> sorted = new ArrayList<>();
+        TestCompiler.compile((processingEnv, roundEnv) -> {
+            AutoConfigureMetadata metadata = new AutoConfigureMetadata(processingEnv.getElementUtils(), new MetaAnnotationCache());
+            sorted.addAll(new AutoConfigurationSorter(processingEnv.getElementUtils(), metadata).sort(classNames));
+        }, all.toArray(new JavaFileObject[0]));
+        return sorted;
+    }
+
+    /**
+     * Spring Boot 自动配置注解的源码
+     *
+     * @param name    注解简单名称
+     * @param members 注解成员
+     * @return 源码文件
+     */
+    private static JavaFileObject annotation(String name, String members) {
+        return TestCompiler.source("org.springframework.boot.autoconfigure." + name,
+            "package org.springframework.boot.autoconfigure; public @interface " + name + " { " + members + " }");
+    }
+
+}
@@ -0,0 +1,139 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link AutoConfigurationTarget} 登记目标测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class AutoConfigurationTargetTest {
+
+    /** spring.factories 位置 */
+    private static final String FACTORIES = "META-INF/spring.factories";
+    /** AutoConfiguration.imports 位置 */
+    private static final String IMPORTS = "META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports";
+    /** 源码：一个普通的 {@code @Service} 和一个 {@code @AutoConfiguration} */
+    private static final JavaFileObject[] SOURCES = {
+        TestCompiler.source("org.springframework.stereotype.Component", "package org.springframework.stereotype;"
+            + " public @interface Component {}"),
+        TestCompiler.source("org.springframework.stereotype.Service", "package org.springframework.stereotype;"
+            + " @Component public @interface Service {}"),
+        TestCompiler.source("org.springframework.boot.autoconfigure.AutoConfiguration", "package org.springframework.boot.autoconfigure;"
+            + " @org.springframework.stereotype.Component public @interface AutoConfiguration {}"),
+        TestCompiler.source("demo.UserService", "package demo; @org.springframework.stereotype.Service public class UserService {}"),
+        TestCompiler.source("demo.DemoAutoConfiguration", "package demo;"
+            + " @org.springframework.boot.autoconfigure.AutoConfiguration public class DemoAutoConfiguration {}")
+    };
+
+    /**
+     * 2.7 及以上只写入 AutoConfiguration.imports，只选择 {@code @AutoConfiguration} 时普通组件不登记
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void writesOnlyImportsForBoot3() {
+        Path output = process("-A" + AutoConfigurationTarget.BOOT_VERSION_OPTION + "=3.2.0",
+            "-A" + AutoConfigurationTarget.MODE_OPTION + "=auto-configuration");
+
+        String imports = TestCompiler.read(output, IMPORTS);
+        assertNotNull(imports);
+        assertTrue(imports.contains("demo.DemoAutoConfiguration"), imports);
+        assertFalse(imports.contains("demo.UserService"), imports);
+        String factories = TestCompiler.read(output, FACTORIES);
+        assertTrue(factories == null || !factories.contains("EnableAutoConfiguration"), factories);
+    }
+
+    /**
+     * 2.7 以下只写入 spring.factories 的 EnableAutoConfiguration
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void writesOnlyFactoriesBeforeBoot27() {
+        Path output = process("-A" + AutoConfigurationTarget.BOOT_VERSION_OPTION + "=2.6.15",
+            "-A" + AutoConfigurationTarget.MODE_OPTION + "=auto-configuration");
+
+        assertNull(TestCompiler.read(output, IMPORTS));
+        String factories = TestCompiler.read(output, FACTORIES);
+        assertNotNull(factories);
+        assertTrue(factories.contains("EnableAutoConfiguration"), factories);
+        assertTrue(factories.contains("demo.DemoAutoConfiguration"), factories);
+        assertFalse(factories.contains("demo.UserService"), factories);
+    }
+
+    /**
+     * 未设置选项时两者都写入，全部组件都登记，与此前的行为相同
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void keepsPreviousBehaviorByDefault() {
+        Path output = process();
+
+        for (String location : Arrays.asList(IMPORTS, FACTORIES)) {
+            String content = TestCompiler.read(output, location);
+            assertNotNull(content, location);
+            assertTrue(content.contains("demo.DemoAutoConfiguration") && content.contains("demo.UserService"), content);
+        }
+    }
+
+    /**
+     * 版本号的主次版本决定登记目标，无法识别的版本号和选择方式抛出异常
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void parsesOptions() {
+        assertTrue(of("2.7").isWriteImports());
+        assertFalse(of("2.7-SNAPSHOT").isWriteFactories());
+        assertTrue(of("2.6.0").isWriteFactories());
+        assertFalse(of("1.5").isWriteImports());
+        assertEquals(AutoConfigurationMode.COMPONENT, of("3").getMode());
+        assertThrows(IllegalArgumentException.class, () -> of("latest"));
+        assertThrows(IllegalArgumentException.class,
+            () -> AutoConfigurationTarget.of(Collections.singletonMap(AutoConfigurationTarget.MODE_OPTION, "beans")));
+    }
+
+    /**
+     * 按目标版本创建
+     *
+     * @param version 目标 Spring Boot 版本
+     * @return 登记目标
+     */
+    private static AutoConfigurationTarget of(String version) {
+        return AutoConfigurationTarget.of(Collections.singletonMap(AutoConfigurationTarget.BOOT_VERSION_OPTION, version));
+    }
+
+    /**
+     * 运行处理器
+     *
+     * @param options 编译选项
+     * @return 输出目录
+     */
+    private static Path process(String... options) {
+        Path output = TestCompiler.tempDirectory();
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = TestCompiler.process(output, Arrays.asList(options),
+            Collections.singletonList(new AutoFactoriesProcessor()), SOURCES);
+        assertTrue(TestCompiler.messages(diagnostics, Diagnostic.Kind.ERROR).isEmpty(), diagnostics.toString());
+        return output;
+    }
+
+}
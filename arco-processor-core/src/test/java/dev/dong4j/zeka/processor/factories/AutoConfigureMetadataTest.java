@@ -0,0 +1,64 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <p>Description: {@link AutoConfigureMetadata} 条件元数据测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class AutoConfigureMetadataTest {
+
+    /**
+     * 组合注解上的条件与类上直接标注的条件合并输出，类值输出为二进制名称，枚举值输出为常量名
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void expandsComposedConditions() {
+        Path output = TestCompiler.tempDirectory();
+        TestCompiler.process(output, Collections.singletonList("-A" + AutoConfigureMetadata.OPTION + "=true"),
+            Collections.singletonList(new AutoFactoriesProcessor()),
+            TestCompiler.source("org.springframework.stereotype.Component", "package org.springframework.stereotype;"
+                + " public @interface Component {}"),
+            TestCompiler.source("org.springframework.boot.autoconfigure.AutoConfiguration", "package org.springframework.boot.autoconfigure;"
+                + " @org.springframework.stereotype.Component public @interface AutoConfiguration {"
+                + " Class<?>[] before() default {}; String[] beforeName() default {};"
+                + " Class<?>[] after() default {}; String[] afterName() default {}; }"),
+            TestCompiler.source("org.springframework.boot.autoconfigure.condition.ConditionalOnClass",
+                "package org.springframework.boot.autoconfigure.condition;"
+                    + " public @interface ConditionalOnClass { Class<?>[] value() default {}; String[] name() default {}; }"),
+            TestCompiler.source("org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication",
+                "package org.springframework.boot.autoconfigure.condition;"
+                    + " public @interface ConditionalOnWebApplication { Type type() default Type.ANY; enum Type { ANY, SERVLET, REACTIVE } }"),
+            TestCompiler.source("demo.WebAutoConfiguration", "package demo;"
+                + " import org.springframework.boot.autoconfigure.condition.*;"
+                + " @org.springframework.boot.autoconfigure.AutoConfiguration"
+                + " @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)"
+                + " @ConditionalOnClass(name = \"jakarta.servlet.Servlet\")"
+                + " public @interface WebAutoConfiguration {}"),
+            TestCompiler.source("demo.Outer", "package demo; public class Outer { public static class Inner {} }"),
+            TestCompiler.source("demo.DemoWebAutoConfiguration", "package demo;"
+                + " @WebAutoConfiguration @org.springframework.boot.autoconfigure.condition.ConditionalOnClass(Outer.Inner.class)"
+                + " public class DemoWebAutoConfiguration {}"),
+            TestCompiler.source("demo.PlainAutoConfiguration", "package demo;"
+                + " @org.springframework.boot.autoconfigure.AutoConfiguration(after = DemoWebAutoConfiguration.class)"
+                + " public class PlainAutoConfiguration {}"));
+
+        assertEquals("demo.DemoWebAutoConfiguration=\n"
+                + "demo.DemoWebAutoConfiguration.ConditionalOnClass=jakarta.servlet.Servlet,demo.Outer$Inner\n"
+                + "demo.DemoWebAutoConfiguration.ConditionalOnWebApplication=SERVLET\n"
+                + "demo.PlainAutoConfiguration=\n"
+                + "demo.PlainAutoConfiguration.AutoConfigureAfter=demo.DemoWebAutoConfiguration\n",
+            TestCompiler.read(output, AutoConfigureMetadata.RESOURCE_LOCATION));
+    }
+
+}
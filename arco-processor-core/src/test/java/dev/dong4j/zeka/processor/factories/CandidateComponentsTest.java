@@ -0,0 +1,54 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <p>Description: {@link CandidateComponents} 候选组件索引测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class CandidateComponentsTest {
+
+    /**
+     * 按 spring-context-indexer 的规则记录组合注解中的 {@code @Indexed} 注解、标注了 {@code @Indexed} 的类型自身及父类型、
+     * {@code javax.*} 注解以及静态嵌套类，没有索引类型的类不写入
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void indexesStereotypes() {
+        Path output = TestCompiler.tempDirectory();
+        TestCompiler.process(output, Collections.singletonList("-A" + CandidateComponents.OPTION + "=true"),
+            Collections.singletonList(new AutoFactoriesProcessor()),
+            TestCompiler.source("org.springframework.stereotype.Indexed", "package org.springframework.stereotype;"
+                + " public @interface Indexed {}"),
+            TestCompiler.source("org.springframework.stereotype.Component", "package org.springframework.stereotype;"
+                + " @Indexed public @interface Component {}"),
+            TestCompiler.source("org.springframework.stereotype.Service", "package org.springframework.stereotype;"
+                + " @Component public @interface Service {}"),
+            TestCompiler.source("javax.inject.Named", "package javax.inject; public @interface Named {}"),
+            TestCompiler.source("demo.Repository", "package demo; @org.springframework.stereotype.Indexed public interface Repository {}"),
+            TestCompiler.source("demo.UserService", "package demo;"
+                + " @org.springframework.stereotype.Service public class UserService {"
+                + " @org.springframework.stereotype.Component public static class Helper {} }"),
+            TestCompiler.source("demo.UserRepository", "package demo; public interface UserRepository extends Repository {}"),
+            TestCompiler.source("demo.NamedBean", "package demo; @javax.inject.Named public class NamedBean {}"),
+            TestCompiler.source("demo.Plain", "package demo; public class Plain {}"));
+
+        assertEquals("demo.NamedBean=javax.inject.Named\n"
+                + "demo.Repository=demo.Repository\n"
+                + "demo.UserRepository=demo.Repository\n"
+                + "demo.UserService=org.springframework.stereotype.Component\n"
+                + "demo.UserService$Helper=org.springframework.stereotype.Component\n",
+            TestCompiler.read(output, CandidateComponents.RESOURCE_LOCATION));
+    }
+
+}
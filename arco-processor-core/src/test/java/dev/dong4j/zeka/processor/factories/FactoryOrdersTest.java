@@ -0,0 +1,94 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link FactoryOrders} 排序值解析测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class FactoryOrdersTest {
+
+    /**
+     * {@code getOrder()} 只返回整数常量表达式时在编译期求值，否则交给运行时；
+     * 直接标注 {@code @Order} 时取注解值，没有任何排序信息时为最低优先级
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void evaluatesConstantOrders() {
+        Map<String, Integer> orders = new HashMap<>();
+        TestCompiler.compile((processingEnv, roundEnv) -> {
+            FactoryOrders factoryOrders = new FactoryOrders(processingEnv, new MetaAnnotationCache());
+            for (String className : new String[]{"demo.Highest", "demo.Negative", "demo.Dynamic", "demo.Annotated", "demo.Plain"}) {
+                orders.put(className, factoryOrders.resolveOrder(processingEnv.getElementUtils().getTypeElement(className)));
+            }
+        }, TestCompiler.source("org.springframework.core.Ordered", "package org.springframework.core;"
+                + " public interface Ordered { int HIGHEST_PRECEDENCE = Integer.MIN_VALUE;"
+                + " int LOWEST_PRECEDENCE = Integer.MAX_VALUE; int getOrder(); }"),
+            TestCompiler.source("org.springframework.core.annotation.Order", "package org.springframework.core.annotation;"
+                + " public @interface Order { int value(); }"),
+            TestCompiler.source("demo.Highest", "package demo; import org.springframework.core.Ordered;"
+                + " public class Highest implements Ordered { public int getOrder() { return Ordered.HIGHEST_PRECEDENCE + 10; } }"),
+            TestCompiler.source("demo.Negative", "package demo;"
+                + " public class Negative implements org.springframework.core.Ordered { public int getOrder() { return -(5 * 2); } }"),
+            TestCompiler.source("demo.Dynamic", "package demo;"
+                + " public class Dynamic implements org.springframework.core.Ordered {"
+                + " private int order; public int getOrder() { return order; } }"),
+            TestCompiler.source("demo.Annotated", "package demo;"
+                + " @org.springframework.core.annotation.Order(3) public class Annotated {}"),
+            TestCompiler.source("demo.Plain", "package demo; public class Plain {}"));
+
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE + 10), orders.get("demo.Highest"));
+        assertEquals(Integer.valueOf(-10), orders.get("demo.Negative"));
+        assertTrue(orders.containsKey("demo.Dynamic"));
+        assertNull(orders.get("demo.Dynamic"));
+        assertEquals(Integer.valueOf(3), orders.get("demo.Annotated"));
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), orders.get("demo.Plain"));
+    }
+
+    /**
+     * 包装后的处理环境读取不到 {@code getOrder()} 的方法体，沿用上一次编译记录的排序值，增量与全量编译生成相同的文件
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void keepsPreviousOrderWithoutSyntaxTrees() {
+        JavaFileObject[] sources = {
+            TestCompiler.source("org.springframework.core.Ordered", "package org.springframework.core;"
+                + " public interface Ordered { int HIGHEST_PRECEDENCE = Integer.MIN_VALUE; int getOrder(); }"),
+            TestCompiler.source("demo.EarlyInitializer", "package demo;"
+                + " @dev.dong4j.zeka.processor.annotation.AutoContextInitializer"
+                + " public class EarlyInitializer implements org.springframework.core.Ordered {"
+                + " public int getOrder() { return HIGHEST_PRECEDENCE + 1; } }")
+        };
+        Path output = TestCompiler.tempDirectory();
+        TestCompiler.process(output, Collections.emptyList(), Collections.singletonList(new AutoFactoriesProcessor()), sources);
+        String full = TestCompiler.read(output, FactoryOrders.RESOURCE_LOCATION);
+        assertEquals("demo.EarlyInitializer=" + (Integer.MIN_VALUE + 1) + "\n", full);
+
+        TestCompiler.process(output, Collections.emptyList(), Collections.singletonList(TestCompiler.wrap(new AutoFactoriesProcessor())), sources);
+        assertEquals(full, TestCompiler.read(output, FactoryOrders.RESOURCE_LOCATION));
+
+        // 没有上一次的记录时无法确定，不写入排序值
+        Path fresh = TestCompiler.tempDirectory();
+        TestCompiler.process(fresh, Collections.emptyList(), Collections.singletonList(TestCompiler.wrap(new AutoFactoriesProcessor())), sources);
+        String order = TestCompiler.read(fresh, FactoryOrders.RESOURCE_LOCATION);
+        assertTrue(order == null || order.isEmpty(), order);
+    }
+
+}
@@ -0,0 +1,76 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link FactoryRegistrySource} 注册表生成测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class FactoryRegistrySourceTest {
+
+    /**
+     * 可以直接创建的实现类生成构造器调用，构造器参数交给参数解析器；构造器不可访问的实现类不写入注册表，运行时回退到反射
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void generatesConstructorCalls() {
+        Path output = TestCompiler.tempDirectory();
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = TestCompiler.process(output,
+            Collections.singletonList("-A" + FactoryRegistrySource.OPTION + "=true"), Collections.singletonList(new AutoFactoriesProcessor()),
+            TestCompiler.source("org.springframework.core.io.support.SpringFactoriesLoader", "package org.springframework.core.io.support;"
+                + " public class SpringFactoriesLoader { public interface ArgumentResolver { <T> T resolve(Class<T> type); } }"),
+            TestCompiler.source(FactoryRegistrySource.REGISTRY_INTERFACE, "package dev.dong4j.zeka.processor.runtime;"
+                + " import org.springframework.core.io.support.SpringFactoriesLoader.ArgumentResolver;"
+                + " public interface FactoryRegistry { Object instantiate(String name, ArgumentResolver resolver) throws Exception;"
+                + " static <T> T resolve(ArgumentResolver resolver, Class<T> type) { return resolver != null ? resolver.resolve(type) : null; } }"),
+            TestCompiler.source("demo.Settings", "package demo; public class Settings {}"),
+            TestCompiler.source("demo.DemoListener", "package demo;"
+                + " @dev.dong4j.zeka.processor.annotation.AutoListener public class DemoListener {}"),
+            TestCompiler.source("demo.env.DemoPostProcessor", "package demo.env;"
+                + " @dev.dong4j.zeka.processor.annotation.AutoEnvPostProcessor"
+                + " public class DemoPostProcessor { public DemoPostProcessor(demo.Settings settings) {} }"),
+            TestCompiler.source("demo.HiddenListener", "package demo;"
+                + " @dev.dong4j.zeka.processor.annotation.AutoListener public class HiddenListener { private HiddenListener() {} }"));
+
+        assertTrue(TestCompiler.messages(diagnostics, Diagnostic.Kind.ERROR).isEmpty(), diagnostics.toString());
+        String registryName = TestCompiler.read(output, FactoryRegistrySource.REGISTRY_RESOURCE_LOCATION);
+        assertNotNull(registryName);
+        assertTrue(registryName.startsWith("demo.ArcoFactoryRegistry_"), registryName);
+        String source = TestCompiler.read(output, registryName.trim().replace('.', '/') + ".java");
+        assertNotNull(source);
+        assertTrue(source.contains("case \"demo.DemoListener\":\n                return new demo.DemoListener();"), source);
+        assertTrue(source.contains("return new demo.env.DemoPostProcessor(\n                    FactoryRegistry.resolve(argumentResolver, demo.Settings.class));"), source);
+        assertFalse(source.contains("demo.HiddenListener"), source);
+        assertTrue(TestCompiler.read(output, "META-INF/spring.factories").contains("demo.HiddenListener"));
+    }
+
+    /**
+     * 实现类相同时类名不变，不同的实现类得到不同的类名
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void namesRegistriesByImplementations() {
+        String name = FactoryRegistrySource.getClassName(Collections.singleton("demo"), Collections.singleton("demo.A"));
+        assertEquals(name, FactoryRegistrySource.getClassName(Collections.singleton("demo"), Collections.singleton("demo.A")));
+        assertNotEquals(name, FactoryRegistrySource.getClassName(Collections.singleton("demo"), Collections.singleton("demo.B")));
+    }
+
+}
@@ -0,0 +1,62 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Collections;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <p>Description: {@link ListenerEventTypes} 事件类型索引测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class ListenerEventTypesTest {
+
+    /**
+     * 直接实现或经由泛型父类确定的事件类型写入索引；泛型事件和自行判断事件类型的监听器不写入
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void indexesResolvedEventTypes() {
+        Path output = TestCompiler.tempDirectory();
+        TestCompiler.process(output, Collections.emptyList(), Collections.singletonList(new AutoFactoriesProcessor()),
+            TestCompiler.source("org.springframework.context.ApplicationListener", "package org.springframework.context;"
+                + " public interface ApplicationListener<E> { void onApplicationEvent(E event); }"),
+            TestCompiler.source("org.springframework.context.event.SmartApplicationListener", "package org.springframework.context.event;"
+                + " public interface SmartApplicationListener extends org.springframework.context.ApplicationListener<Object> {}"),
+            TestCompiler.source("demo.ReadyEvent", "package demo; public class ReadyEvent { public static class Nested {} }"),
+            TestCompiler.source("demo.PayloadEvent", "package demo; public class PayloadEvent<T> {}"),
+            TestCompiler.source("demo.BaseListener", "package demo;"
+                + " public abstract class BaseListener<E> implements org.springframework.context.ApplicationListener<E> {"
+                + " public void onApplicationEvent(E event) {} }"),
+            listener("demo.ReadyListener", "implements org.springframework.context.ApplicationListener<ReadyEvent> {"
+                + " public void onApplicationEvent(ReadyEvent event) {}"),
+            listener("demo.NestedListener", "extends BaseListener<ReadyEvent.Nested> {"),
+            listener("demo.PayloadListener", "extends BaseListener<PayloadEvent<String>> {"),
+            listener("demo.SmartListener", "implements org.springframework.context.event.SmartApplicationListener {"
+                + " public void onApplicationEvent(Object event) {}"));
+
+        assertEquals("demo.NestedListener=demo.ReadyEvent$Nested\ndemo.ReadyListener=demo.ReadyEvent\n",
+            TestCompiler.read(output, ListenerEventTypes.RESOURCE_LOCATION));
+    }
+
+    /**
+     * {@code @AutoListener} 监听器源码
+     *
+     * @param className 监听器全限定名
+     * @param body      类声明中类名之后的部分，不含结尾的右括号
+     * @return 源码
+     */
+    private static JavaFileObject listener(String className, String body) {
+        return TestCompiler.source(className, "package demo; @dev.dong4j.zeka.processor.annotation.AutoListener public class "
+            + className.substring(className.lastIndexOf('.') + 1) + " " + body + " }");
+    }
+
+}
@@ -0,0 +1,88 @@
+package dev.dong4j.zeka.processor.factories;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import dev.dong4j.zeka.processor.common.MetaAnnotationCache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link ProxyBeanMethodsAnalyzer} 诊断测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class ProxyBeanMethodsAnalyzerTest {
+
+    /**
+     * 没有 {@code @Bean} 方法间调用的配置类给出警告，存在 {@code this} 调用、方法引用或已是 lite 模式的不给出
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void warnsOnlyWithoutInterBeanCalls() {
+        List<String> warnings = TestCompiler.messages(analyze(false), Diagnostic.Kind.WARNING);
+        assertEquals(1, warnings.stream().filter(message -> message.contains("proxyBeanMethods = false")).count());
+
+        List<String> notes = TestCompiler.messages(analyze(false), Diagnostic.Kind.NOTE);
+        assertTrue(notes.stream().anyMatch(message -> message.startsWith("proxyBeanMethods 分析：4 个自动配置类中，1 个已是 lite 模式，"
+            + "2 个存在 @Bean 方法间调用，0 个无法确认")), notes.toString());
+    }
+
+    /**
+     * 包装后的处理环境不提供语法树，不再通过反射取回 javac 的实现，有 {@code @Bean} 方法的配置类计为无法确认
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void skipsBodiesInWrappedEnvironments() {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = analyze(true);
+        assertTrue(TestCompiler.messages(diagnostics, Diagnostic.Kind.WARNING).stream()
+            .noneMatch(message -> message.contains("proxyBeanMethods = false")));
+        List<String> notes = TestCompiler.messages(diagnostics, Diagnostic.Kind.NOTE);
+        assertTrue(notes.stream().anyMatch(message -> message.contains("1 个已是 lite 模式，0 个存在 @Bean 方法间调用，3 个无法确认")
+            && message.contains("未分析方法体")), notes.toString());
+    }
+
+    /**
+     * 编译配置类并逐个分析
+     *
+     * @param wrapped 是否像 Gradle 增量编译一样包装处理环境
+     * @return 编译诊断
+     */
+    private static List<Diagnostic<? extends JavaFileObject>> analyze(boolean wrapped) {
+        return TestCompiler.compile(TestCompiler.tempDirectory(), Collections.singletonList("-A" + ProxyBeanMethodsAnalyzer.OPTION + "=warn"),
+            (processingEnv, roundEnv) -> {
+                ProcessingEnvironment env = wrapped ? TestCompiler.wrap(processingEnv) : processingEnv;
+                ProxyBeanMethodsAnalyzer analyzer = ProxyBeanMethodsAnalyzer.of(env, new MetaAnnotationCache());
+                for (String className : Arrays.asList("demo.Candidate", "demo.Calls", "demo.References", "demo.Lite")) {
+                    analyzer.analyze(processingEnv.getElementUtils().getTypeElement(className));
+                }
+                analyzer.printSummary();
+            },
+            TestCompiler.source("org.springframework.context.annotation.Configuration", "package org.springframework.context.annotation;"
+                + " public @interface Configuration { boolean proxyBeanMethods() default true; }"),
+            TestCompiler.source("org.springframework.context.annotation.Bean", "package org.springframework.context.annotation;"
+                + " public @interface Bean {}"),
+            TestCompiler.source("demo.Candidate", "package demo; import org.springframework.context.annotation.*;"
+                + " @Configuration public class Candidate { @Bean Object a() { return new Object(); } @Bean Object b(Object a) { return a; } }"),
+            TestCompiler.source("demo.Calls", "package demo; import org.springframework.context.annotation.*;"
+                + " @Configuration public class Calls { @Bean Object a() { return new Object(); }"
+                + " @Bean Runnable b() { return () -> this.a(); } }"),
+            TestCompiler.source("demo.References", "package demo; import org.springframework.context.annotation.*;"
+                + " @Configuration public class References { @Bean Object a() { return new Object(); }"
+                + " @Bean java.util.function.Supplier<Object> b() { return this::a; } }"),
+            TestCompiler.source("demo.Lite", "package demo; import org.springframework.context.annotation.*;"
+                + " @Configuration(proxyBeanMethods = false) public class Lite { @Bean Object a() { return new Object(); } }"));
+    }
+
+}
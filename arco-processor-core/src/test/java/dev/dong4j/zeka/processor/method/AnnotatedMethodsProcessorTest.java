@@ -0,0 +1,49 @@
+package dev.dong4j.zeka.processor.method;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <p>Description: {@link AnnotatedMethodsProcessor} 方法索引测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class AnnotatedMethodsProcessorTest {
+
+    /**
+     * 本模块的类记录自身和父类、接口中的标注方法，没有标注方法时值为空；
+     * 父类或接口来自其他 jar 的类不写入，运行时仍由 Spring 查找
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void indexesOnlyClassesWithModuleHierarchies() {
+        Path output = TestCompiler.tempDirectory();
+        TestCompiler.process(output, Collections.singletonList("-A" + AnnotatedMethods.OPTION + "=true"),
+            Collections.singletonList(new AnnotatedMethodsProcessor()),
+            TestCompiler.source("org.springframework.context.event.EventListener", "package org.springframework.context.event;"
+                + " public @interface EventListener {}"),
+            TestCompiler.source("org.springframework.scheduling.annotation.Scheduled", "package org.springframework.scheduling.annotation;"
+                + " public @interface Scheduled {}"),
+            TestCompiler.source("demo.BaseListener", "package demo; public abstract class BaseListener implements java.io.Serializable {"
+                + " @org.springframework.context.event.EventListener public void onEvent(Object event) {} }"),
+            TestCompiler.source("demo.OrderListener", "package demo; public class OrderListener extends BaseListener {"
+                + " @org.springframework.scheduling.annotation.Scheduled void cleanup() {}"
+                + " public static class Plain {} }"),
+            TestCompiler.source("demo.ExternalChecker", "package demo; public class ExternalChecker implements javax.tools.OptionChecker {"
+                + " public int isSupportedOption(String option) { return -1; } }"));
+
+        assertEquals("demo.BaseListener=event:onEvent\n"
+                + "demo.OrderListener=event:onEvent,scheduled:cleanup\n"
+                + "demo.OrderListener$Plain=\n",
+            TestCompiler.read(output, AnnotatedMethods.RESOURCE_LOCATION));
+    }
+
+}
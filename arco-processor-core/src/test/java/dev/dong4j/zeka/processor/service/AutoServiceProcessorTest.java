@@ -0,0 +1,89 @@
+package dev.dong4j.zeka.processor.service;
+
+import dev.dong4j.zeka.processor.TestCompiler;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link AutoServiceProcessor} 服务提供者访问类测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class AutoServiceProcessorTest {
+
+    /** 开启访问类生成的编译选项 */
+    private static final String PROVIDERS_ENABLED = "-A" + ServiceProvidersSource.OPTION + "=true";
+
+    /**
+     * 接口在本模块中时访问类位于接口所在的包，与提供者所在的包无关
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void generatesInInterfacePackage() {
+        Path output = TestCompiler.tempDirectory();
+        TestCompiler.process(output, Collections.singletonList(PROVIDERS_ENABLED), Collections.singletonList(new AutoServiceProcessor()),
+            TestCompiler.source("demo.api.PaymentService", "package demo.api; public interface PaymentService {}"),
+            provider("demo.impl.a.AliPay", "demo.api.PaymentService"),
+            provider("demo.impl.b.WechatPay", "demo.api.PaymentService"));
+
+        String source = TestCompiler.read(output, "demo/api/PaymentServiceProviders.java");
+        assertNotNull(source);
+        assertTrue(source.contains("providers.add(new demo.impl.a.AliPay());"), source);
+        assertTrue(source.contains("providers.add(new demo.impl.b.WechatPay());"), source);
+        assertNull(TestCompiler.read(output, "demo/impl/PaymentServiceProviders.java"));
+    }
+
+    /**
+     * 接口不在本模块中时只在指定了包的情况下生成，未指定时输出提示
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void requiresPackageForExternalInterfaces() {
+        JavaFileObject provider = provider("demo.impl.Task", "java.lang.Runnable");
+        Path output = TestCompiler.tempDirectory();
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = TestCompiler.process(output, Collections.singletonList(PROVIDERS_ENABLED),
+            Collections.singletonList(new AutoServiceProcessor()), provider);
+        assertNull(TestCompiler.read(output, "demo/impl/RunnableProviders.java"));
+        assertEquals(1, TestCompiler.messages(diagnostics, Diagnostic.Kind.NOTE).stream()
+            .filter(message -> message.contains(ServiceProvidersSource.PACKAGE_OPTION)).count());
+        assertEquals("demo.impl.Task\n", TestCompiler.read(output, "META-INF/services/java.lang.Runnable"));
+
+        Path configured = TestCompiler.tempDirectory();
+        TestCompiler.process(configured, Arrays.asList(PROVIDERS_ENABLED, "-A" + ServiceProvidersSource.PACKAGE_OPTION + "=demo.spi"),
+            Collections.singletonList(new AutoServiceProcessor()), provider);
+        String source = TestCompiler.read(configured, "demo/spi/RunnableProviders.java");
+        assertNotNull(source);
+        assertTrue(source.startsWith("package demo.spi;"), source);
+    }
+
+    /**
+     * 服务提供者源码
+     *
+     * @param className     提供者全限定名
+     * @param interfaceName 服务接口全限定名
+     * @return 源码
+     */
+    private static JavaFileObject provider(String className, String interfaceName) {
+        int lastDot = className.lastIndexOf('.');
+        String run = "java.lang.Runnable".equals(interfaceName) ? " public void run() {}" : "";
+        return TestCompiler.source(className, "package " + className.substring(0, lastDot) + ";"
+            + " @dev.dong4j.zeka.processor.annotation.AutoService(" + interfaceName + ".class)"
+            + " public class " + className.substring(lastDot + 1) + " implements " + interfaceName + " {" + run + " }");
+    }
+
+}
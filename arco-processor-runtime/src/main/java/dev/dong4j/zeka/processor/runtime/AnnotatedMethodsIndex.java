@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * classpath 中全部事件监听与定时任务方法索引的集合
+ *
+ * <p>索引由 {@code arco-processor-core} 的 {@code AnnotatedMethodsProcessor} 生成，位于
+ * {@code META-INF/arco/annotated-methods.properties}，每行为“类名=种类:方法名,...”。
+ * 没有标注方法的类同样有一行，值为空。只有索引中明确记录的类在覆盖范围内，
+ * 其余的类（其他语言编译的类、未开启索引编译的类、父类或接口来自其他 jar 的类等）由 Spring 按原有方式查找。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+final class AnnotatedMethodsIndex {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(AnnotatedMethodsIndex.class);
+    /** 索引位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/annotated-methods.properties";
+    /** 事件监听方法的种类 */
+    static final String EVENT = "event";
+    /** 定时任务方法的种类 */
+    static final String SCHEDULED = "scheduled";
+    /** 类加载器 -> 索引 */
+    private static final Map<ClassLoader, AnnotatedMethodsIndex> CACHE = new ConcurrentReferenceHashMap<>();
+
+    /** 类名 -> 方法种类 */
+    private final Map<String, Set<String>> kinds;
+
+    private AnnotatedMethodsIndex(Map<String, Set<String>> kinds) {
+        this.kinds = kinds;
+    }
+
+    /**
+     * 获取类加载器中的索引，按类加载器缓存
+     *
+     * @param classLoader 类加载器
+     * @return 索引
+     */
+    static AnnotatedMethodsIndex forClassLoader(ClassLoader classLoader) {
+        return CACHE.computeIfAbsent(classLoader, AnnotatedMethodsIndex::load);
+    }
+
+    /**
+     * 加载类加载器中的全部索引
+     *
+     * @param classLoader 类加载器
+     * @return 索引
+     */
+    private static AnnotatedMethodsIndex load(ClassLoader classLoader) {
+        Map<String, Set<String>> kinds = new HashMap<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(RESOURCE_LOCATION);
+            while (urls.hasMoreElements()) {
+                Properties properties = new Properties();
+                try (InputStream in = urls.nextElement().openStream()) {
+                    properties.load(in);
+                }
+                for (String className : properties.stringPropertyNames()) {
+                    Set<String> classKinds = new HashSet<>();
+                    for (String method : properties.getProperty(className).split(",")) {
+                        int separator = method.indexOf(':');
+                        if (separator > 0) {
+                            classKinds.add(method.substring(0, separator).trim());
+                        }
+                    }
+                    kinds.put(className, classKinds);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to load annotated methods index from location [" + RESOURCE_LOCATION + "]", e);
+            kinds.clear();
+        }
+        return new AnnotatedMethodsIndex(kinds);
+    }
+
+    /**
+     * 判断类是否在索引中且没有指定种类的方法
+     *
+     * @param type 类
+     * @param kind 方法种类，{@link #EVENT} 或 {@link #SCHEDULED}
+     * @return 可以确定没有该种类的方法时返回 {@code true}，不在索引中的类返回 {@code false}
+     */
+    boolean isWithout(Class<?> type, String kind) {
+        Set<String> classKinds = kinds.get(type.getName());
+        return classKinds != null && !classKinds.contains(kind);
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.lang.reflect.Field;
+import java.util.Set;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.event.EventListenerMethodProcessor;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.scheduling.config.TaskManagementConfigUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * 按编译期方法索引跳过没有标注方法的 bean 类
+ *
+ * <p>{@link EventListenerMethodProcessor} 和 {@link ScheduledAnnotationBeanPostProcessor} 对每个 bean 类反射遍历全部方法，
+ * 没有找到标注方法的类记录在各自的 {@code nonAnnotatedClasses} 中，之后不再查找。本处理器在 bean 初始化之前，
+ * 把 {@link AnnotatedMethodsIndex} 确定没有对应方法的类提前放入该集合，两者直接跳过这些类。</p>
+ *
+ * <p>通过 {@link #register(ConfigurableApplicationContext)} 注册，先于容器中定义的处理器执行：</p>
+ * <pre>
+ * SpringApplication application = new SpringApplication(Application.class);
+ * application.addInitializers(AnnotatedMethodsIndexPostProcessor::register);
+ * application.run(args);
+ * </pre>
+ *
+ * <p>{@code nonAnnotatedClasses} 不是 Spring 的公开 API，无法访问时不做任何处理，两者按原有方式查找。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class AnnotatedMethodsIndexPostProcessor implements BeanPostProcessor {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(AnnotatedMethodsIndexPostProcessor.class);
+    /** 两个处理器中记录没有标注方法的类的字段 */
+    private static final String NON_ANNOTATED_CLASSES_FIELD = "nonAnnotatedClasses";
+
+    /** 方法索引 */
+    private final AnnotatedMethodsIndex index;
+    /** {@code @EventListener} 处理器的记录 */
+    private final NonAnnotatedClasses eventListenerClasses;
+    /** {@code @Scheduled} 处理器的记录 */
+    private final NonAnnotatedClasses scheduledClasses;
+
+    /**
+     * 创建处理器
+     *
+     * @param beanFactory bean 工厂
+     * @param classLoader 加载索引的类加载器，为 {@code null} 时使用本类的类加载器
+     */
+    public AnnotatedMethodsIndexPostProcessor(ConfigurableListableBeanFactory beanFactory, @Nullable ClassLoader classLoader) {
+        this.index = AnnotatedMethodsIndex.forClassLoader(classLoader != null ? classLoader : AnnotatedMethodsIndexPostProcessor.class.getClassLoader());
+        this.eventListenerClasses = new NonAnnotatedClasses(beanFactory,
+            AnnotationConfigUtils.EVENT_LISTENER_PROCESSOR_BEAN_NAME, EventListenerMethodProcessor.class);
+        this.scheduledClasses = new NonAnnotatedClasses(beanFactory,
+            TaskManagementConfigUtils.SCHEDULED_ANNOTATION_PROCESSOR_BEAN_NAME, ScheduledAnnotationBeanPostProcessor.class);
+    }
+
+    /**
+     * 在容器中注册本处理器，可直接作为 {@code ApplicationContextInitializer} 使用
+     *
+     * @param context 尚未刷新的容器
+     */
+    public static void register(ConfigurableApplicationContext context) {
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        beanFactory.addBeanPostProcessor(new AnnotatedMethodsIndexPostProcessor(beanFactory, context.getClassLoader()));
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        Class<?> beanClass = bean.getClass();
+        if (index.isWithout(beanClass, AnnotatedMethodsIndex.EVENT)) {
+            eventListenerClasses.add(beanClass);
+        }
+        if (index.isWithout(beanClass, AnnotatedMethodsIndex.SCHEDULED)) {
+            scheduledClasses.add(beanClass);
+        }
+        return bean;
+    }
+
+    /**
+     * 处理器中记录没有标注方法的类的集合，处理器实例创建后才能获取
+     */
+    private static final class NonAnnotatedClasses {
+        /** bean 工厂 */
+        private final ConfigurableListableBeanFactory beanFactory;
+        /** 处理器的 bean 名称 */
+        private final String beanName;
+        /** 处理器类型 */
+        private final Class<?> processorType;
+        /** 处理器中的集合，获取前为 {@code null} */
+        private volatile Set<Class<?>> classes;
+        /** 字段无法访问时不再尝试 */
+        private volatile boolean unavailable;
+
+        NonAnnotatedClasses(ConfigurableListableBeanFactory beanFactory, String beanName, Class<?> processorType) {
+            this.beanFactory = beanFactory;
+            this.beanName = beanName;
+            this.processorType = processorType;
+        }
+
+        /**
+         * 记录没有标注方法的类，处理器尚未创建或未启用时忽略
+         *
+         * @param type 类
+         */
+        void add(Class<?> type) {
+            Set<Class<?>> resolved = classes;
+            if (resolved == null && !unavailable) {
+                resolved = resolve();
+            }
+            if (resolved != null) {
+                resolved.add(type);
+            }
+        }
+
+        /**
+         * 从已创建的处理器实例中获取集合
+         *
+         * @return 集合，处理器尚未创建或字段无法访问时返回 {@code null}
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        private Set<Class<?>> resolve() {
+            Object processor = beanFactory.getSingleton(beanName);
+            if (!processorType.isInstance(processor)) {
+                return null;
+            }
+            Field field = ReflectionUtils.findField(processorType, NON_ANNOTATED_CLASSES_FIELD, Set.class);
+            try {
+                if (field == null) {
+                    throw new IllegalStateException("No field [" + NON_ANNOTATED_CLASSES_FIELD + "] in " + processorType.getName());
+                }
+                ReflectionUtils.makeAccessible(field);
+                Set<Class<?>> resolved = (Set<Class<?>>) field.get(processor);
+                classes = resolved;
+                return resolved;
+            } catch (IllegalAccessException | RuntimeException e) {
+                LOGGER.debug("Unable to access non-annotated classes of [" + beanName + "], skip annotated methods index", e);
+                unavailable = true;
+                return null;
+            }
+        }
+    }
+
+}
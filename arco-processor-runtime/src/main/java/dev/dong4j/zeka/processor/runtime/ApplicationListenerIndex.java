@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * classpath 中全部监听器事件类型索引的集合
+ *
+ * <p>索引由 {@code arco-processor-core} 在编译期为 {@code @AutoListener} 监听器生成，
+ * 位于 {@code META-INF/arco/application-listeners.properties}，每行为“监听器类名=事件类名”。
+ * 只按监听器的实际类名匹配，子类、代理类和没有索引的监听器由调用方回退到 Spring 的泛型解析。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+final class ApplicationListenerIndex {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(ApplicationListenerIndex.class);
+    /** 索引位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/application-listeners.properties";
+    /** 事件类无法加载时的占位 */
+    private static final Class<?> UNRESOLVED = Void.class;
+    /** 类加载器 -> 索引 */
+    private static final Map<ClassLoader, ApplicationListenerIndex> CACHE = new ConcurrentReferenceHashMap<>();
+
+    /** 监听器类名 -> 事件类名 */
+    private final Map<String, String> eventTypeNames;
+    /** 监听器类 -> 事件类，首次判断时加载 */
+    private final Map<Class<?>, Class<?>> eventTypes = new ConcurrentReferenceHashMap<>();
+
+    private ApplicationListenerIndex(Map<String, String> eventTypeNames) {
+        this.eventTypeNames = eventTypeNames;
+    }
+
+    /**
+     * 获取类加载器中的索引，按类加载器缓存
+     *
+     * @param classLoader 类加载器
+     * @return 索引
+     */
+    static ApplicationListenerIndex forClassLoader(ClassLoader classLoader) {
+        return CACHE.computeIfAbsent(classLoader, ApplicationListenerIndex::load);
+    }
+
+    /**
+     * 加载类加载器中的全部索引
+     *
+     * @param classLoader 类加载器
+     * @return 索引
+     */
+    private static ApplicationListenerIndex load(ClassLoader classLoader) {
+        Map<String, String> eventTypeNames = new HashMap<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(RESOURCE_LOCATION);
+            while (urls.hasMoreElements()) {
+                Properties properties = new Properties();
+                try (InputStream in = urls.nextElement().openStream()) {
+                    properties.load(in);
+                }
+                for (String listener : properties.stringPropertyNames()) {
+                    eventTypeNames.put(listener, properties.getProperty(listener).trim());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to load application listener index from location [" + RESOURCE_LOCATION + "]", e);
+        }
+        return new ApplicationListenerIndex(eventTypeNames);
+    }
+
+    /**
+     * 按索引判断监听器是否支持事件
+     *
+     * @param listenerType 监听器的实际类型
+     * @param eventType    事件类型
+     * @return 是否支持；监听器不在索引中或事件类无法加载时返回 {@code null}
+     */
+    @Nullable
+    Boolean supportsEvent(Class<?> listenerType, Class<?> eventType) {
+        if (eventTypeNames.isEmpty()) {
+            return null;
+        }
+        Class<?> declaredEventType = eventTypes.computeIfAbsent(listenerType, this::resolveEventType);
+        if (declaredEventType == UNRESOLVED) {
+            return null;
+        }
+        return declaredEventType.isAssignableFrom(eventType);
+    }
+
+    /**
+     * 加载监听器在索引中的事件类
+     *
+     * @param listenerType 监听器的实际类型
+     * @return 事件类，不在索引中或无法加载时返回 {@link #UNRESOLVED}
+     */
+    private Class<?> resolveEventType(Class<?> listenerType) {
+        String eventTypeName = eventTypeNames.get(listenerType.getName());
+        if (eventTypeName == null) {
+            return UNRESOLVED;
+        }
+        try {
+            return Class.forName(eventTypeName, false, listenerType.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.debug("Skip indexed event type [" + eventTypeName + "] of listener [" + listenerType.getName() + "]", e);
+            return UNRESOLVED;
+        }
+    }
+
+}
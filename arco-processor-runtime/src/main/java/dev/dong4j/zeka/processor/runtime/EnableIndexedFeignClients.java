@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 按编译期索引注册 Feign 客户端，替代 {@code @EnableFeignClients}
+ *
+ * <p>属性与 {@code @EnableFeignClients} 的同名属性含义相同，基础包用于从索引中筛选客户端；
+ * 只有出现在没有索引的 jar 中的基础包才会被扫描，基础包下没有客户端或者指定了 {@link #scan()} 时，按原有方式扫描。
+ * 两者不要同时使用，否则 {@code @EnableFeignClients} 仍会扫描并重复注册客户端。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ * @see IndexedFeignClientsRegistrar
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Import(IndexedFeignClientsRegistrar.class)
+public @interface EnableIndexedFeignClients {
+
+    /**
+     * {@link #basePackages()} 的别名
+     *
+     * @return 基础包
+     */
+    String[] value() default {};
+
+    /**
+     * 客户端所在的基础包，默认为标注类所在的包
+     *
+     * @return 基础包
+     */
+    String[] basePackages() default {};
+
+    /**
+     * 以类所在的包作为基础包
+     *
+     * @return 类
+     */
+    Class<?>[] basePackageClasses() default {};
+
+    /**
+     * 全部客户端的默认配置类
+     *
+     * @return 配置类
+     */
+    Class<?>[] defaultConfiguration() default {};
+
+    /**
+     * 设为 {@code true} 时忽略索引，按 {@code @EnableFeignClients} 的方式扫描全部基础包；
+     * 未经 {@code arco-processor-core} 编译的 jar 中的基础包默认已经会被扫描
+     *
+     * @return 是否扫描
+     */
+    boolean scan() default false;
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+
+/**
+ * 配置文件二进制索引的读取
+ *
+ * <p>索引由 {@code arco-processor-core} 中的 {@code FactoriesIndex} 生成，位于 {@code META-INF/arco/} 下
+ * 与文本文件相同的相对路径。读取时按内容长度一次性读入内存，再按字符串表解码，
+ * 同一个类名在索引中只解码一次。格式说明见生成端。</p>
+ *
+ * <p>索引中记录了生成时文本文件的字节长度和 CRC32。文本文件被手工修改或被其他工具重新生成后两者不一致，
+ * 此时视为过期，由调用方回退到解析文本文件。校验不读取文本文件的内容：jar 中的文件比较 jar 目录里记录的
+ * 长度和 CRC32，目录中的文件（开发期的 {@code target/classes}）只比较文件长度。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+final class FactoriesIndex {
+    /** 魔数 "ARCO" */
+    private static final int MAGIC = 0x4152434F;
+    /** 格式版本号 */
+    private static final short VERSION = 2;
+    /** 配置文件的公共目录 */
+    private static final String META_INF = "META-INF/";
+    /** 索引目录 */
+    private static final String INDEX_DIRECTORY = "META-INF/arco/";
+    /** 索引文件后缀 */
+    private static final String SUFFIX = ".idx";
+    /** 内容长度未知时的读取缓冲区大小 */
+    private static final int BUFFER_SIZE = 4096;
+
+    private FactoriesIndex() {
+    }
+
+    /**
+     * 获取文本文件对应的索引位置
+     *
+     * @param resource 文本文件的相对路径，例如 {@code META-INF/spring.factories}
+     * @return 索引的相对路径，例如 {@code META-INF/arco/spring.factories.idx}
+     */
+    static String getLocation(String resource) {
+        return INDEX_DIRECTORY + resource.substring(META_INF.length()) + SUFFIX;
+    }
+
+    /**
+     * 读取与文本文件位于同一 classpath 根下的索引
+     *
+     * @param source   文本文件的 URL
+     * @param resource 文本文件的相对路径
+     * @return 键 -> 值列表；索引不存在、已过期或无法解析时返回 {@code null}
+     */
+    static Map<String, List<String>> read(URL source, String resource) {
+        String url = source.toString();
+        if (!url.endsWith(resource)) {
+            return null;
+        }
+        try {
+            URL index = new URL(url.substring(0, url.length() - resource.length()) + getLocation(resource));
+            URLConnection connection = source.openConnection();
+            long length;
+            long crc = -1L;
+            if (connection instanceof JarURLConnection) {
+                // jar 目录中记录了长度和 CRC32，不需要读取文件内容
+                JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+                length = entry.getSize();
+                crc = entry.getCrc();
+            } else if ("file".equals(source.getProtocol())) {
+                length = Files.size(Paths.get(source.toURI()));
+            } else {
+                return null;
+            }
+            return length < 0L ? null : decode(ByteBuffer.wrap(readAllBytes(index)), length, crc);
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解码索引
+     *
+     * @param buffer 索引内容
+     * @param length 当前文本文件的字节长度
+     * @param crc    当前文本文件的 CRC32，未知时为 {@code -1}，只比较长度
+     * @return 键 -> 值列表；格式不匹配或已过期时返回 {@code null}
+     */
+    static Map<String, List<String>> decode(ByteBuffer buffer, long length, long crc) {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION || buffer.getLong() != length) {
+                return null;
+            }
+            int recordedCrc = buffer.getInt();
+            if (crc != -1L && recordedCrc != (int) crc) {
+                return null;
+            }
+            String[] strings = new String[buffer.getInt()];
+            byte[] array = buffer.array();
+            for (int i = 0; i < strings.length; i++) {
+                int stringLength = buffer.getShort() & 0xFFFF;
+                strings[i] = new String(array, buffer.arrayOffset() + buffer.position(), stringLength, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + stringLength);
+            }
+            int[] keys = new int[buffer.getInt() * 3];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = buffer.getInt();
+            }
+            int[] values = new int[buffer.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = buffer.getInt();
+            }
+            Map<String, List<String>> entries = new LinkedHashMap<>(keys.length);
+            for (int i = 0; i < keys.length; i += 3) {
+                String[] names = new String[keys[i + 2]];
+                for (int j = 0; j < names.length; j++) {
+                    names[j] = strings[values[keys[i + 1] + j]];
+                }
+                entries.put(strings[keys[i]], Collections.unmodifiableList(Arrays.asList(names)));
+            }
+            return entries;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 一次性读取 URL 的全部内容，内容长度已知时只分配一次数组
+     *
+     * @param url 资源 URL
+     * @return 全部内容
+     * @throws IOException 读取时发生的 IO 异常，资源不存在时为 {@link java.io.FileNotFoundException}
+     */
+    private static byte[] readAllBytes(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        long length = connection.getContentLengthLong();
+        try (InputStream input = connection.getInputStream()) {
+            if (length >= 0L && length <= Integer.MAX_VALUE) {
+                byte[] content = new byte[(int) length];
+                int offset = 0;
+                int read;
+                while (offset < content.length && (read = input.read(content, offset, content.length - offset)) != -1) {
+                    offset += read;
+                }
+                return offset == content.length ? content : Arrays.copyOf(content, offset);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+}
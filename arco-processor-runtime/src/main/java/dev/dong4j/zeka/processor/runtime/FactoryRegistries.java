@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.support.SpringFactoriesLoader.ArgumentResolver;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * classpath 中全部 {@link FactoryRegistry} 的集合
+ *
+ * <p>每个模块的注册表类名登记在 {@code META-INF/arco/factories.registry} 中，每行一个。
+ * 注册表只在首次使用时加载一次，无法加载的注册表被跳过，对应的实现类回退到反射实例化。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+final class FactoryRegistries {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(FactoryRegistries.class);
+    /** 注册表类名的登记位置 */
+    static final String REGISTRY_RESOURCE_LOCATION = "META-INF/arco/factories.registry";
+    /** 注册表 */
+    private final List<FactoryRegistry> registries;
+
+    private FactoryRegistries(List<FactoryRegistry> registries) {
+        this.registries = registries;
+    }
+
+    /**
+     * 加载类加载器中登记的全部注册表
+     *
+     * @param classLoader 类加载器
+     * @return 注册表集合
+     */
+    static FactoryRegistries load(ClassLoader classLoader) {
+        List<FactoryRegistry> registries = new ArrayList<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(REGISTRY_RESOURCE_LOCATION);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String className = line.trim();
+                        if (!className.isEmpty()) {
+                            FactoryRegistry registry = instantiate(className, classLoader);
+                            if (registry != null) {
+                                registries.add(registry);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to load factory registries from location [" + REGISTRY_RESOURCE_LOCATION + "]", e);
+        }
+        return new FactoryRegistries(Collections.unmodifiableList(registries));
+    }
+
+    /**
+     * 依次查询注册表创建实例
+     *
+     * @param implementationName 实现类全限定名
+     * @param argumentResolver   构造器参数解析器
+     * @return 实例；所有注册表中都没有时返回 {@code null}
+     * @throws Exception 构造器抛出的异常
+     */
+    @Nullable
+    Object instantiate(String implementationName, @Nullable ArgumentResolver argumentResolver) throws Exception {
+        for (FactoryRegistry registry : registries) {
+            Object instance = registry.instantiate(implementationName, argumentResolver);
+            if (instance != null) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 创建注册表实例
+     *
+     * @param className   注册表类名
+     * @param classLoader 类加载器
+     * @return 注册表，无法创建时返回 {@code null}
+     */
+    @Nullable
+    private static FactoryRegistry instantiate(String className, ClassLoader classLoader) {
+        try {
+            Class<?> registryClass = Class.forName(className, true, classLoader);
+            return (FactoryRegistry) ReflectionUtils.accessibleConstructor(registryClass).newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            LOGGER.debug("Skip factory registry [" + className + "]", e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import org.springframework.core.io.support.SpringFactoriesLoader.ArgumentResolver;
+import org.springframework.lang.Nullable;
+
+/**
+ * 编译期生成的 factories 实例注册表
+ *
+ * <p>开启 {@code -Aarco.registry=true} 后，{@code AutoFactoriesProcessor} 为每个模块生成一个实现类，
+ * 对 {@code spring.factories} 中登记的监听器、初始化器、{@code EnvironmentPostProcessor}、{@code FailureAnalyzer}
+ * 等实现类直接调用构造器，构造器按 Spring 的规则在编译期选定。实现类名登记在 {@code META-INF/arco/factories.registry} 中，
+ * 由 {@link IndexedSpringFactoriesLoader} 在实例化前查询，查不到时回退到反射。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public interface FactoryRegistry {
+
+    /**
+     * 创建实现类的实例
+     *
+     * @param implementationName 实现类全限定名
+     * @param argumentResolver   构造器参数解析器，可能为 {@code null}
+     * @return 实例；不在本注册表中时返回 {@code null}
+     * @throws Exception 构造器抛出的异常
+     */
+    @Nullable
+    Object instantiate(String implementationName, @Nullable ArgumentResolver argumentResolver) throws Exception;
+
+    /**
+     * 解析构造器参数，与 {@code SpringFactoriesLoader} 一致，没有解析器时传入 {@code null}
+     *
+     * @param argumentResolver 构造器参数解析器，可能为 {@code null}
+     * @param type             参数类型
+     * @param <T>              参数类型
+     * @return 参数值
+     */
+    @Nullable
+    static <T> T resolve(@Nullable ArgumentResolver argumentResolver, Class<T> type) {
+        return argumentResolver != null ? argumentResolver.resolve(type) : null;
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * classpath 中全部 Feign 客户端索引的集合
+ *
+ * <p>索引由 {@code arco-processor-core} 生成，位于 {@code META-INF/arco/feign-clients}，
+ * 每行一个客户端接口的类名，{@code #} 开头的行为注释。开启索引时即使没有客户端也会生成空文件，
+ * 因此包含索引的 classpath 根中的客户端都在索引中；没有索引的根（未经处理器编译的 jar）中的客户端需要扫描。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+final class FeignClientsIndex {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(FeignClientsIndex.class);
+    /** 索引位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/feign-clients";
+    /** 类加载器 -> 索引 */
+    private static final Map<ClassLoader, FeignClientsIndex> CACHE = new ConcurrentReferenceHashMap<>();
+
+    /** 是否找到了索引 */
+    private final boolean present;
+    /** 客户端类名，按类名排序 */
+    private final Set<String> clients;
+    /** 包含索引的 classpath 根 */
+    private final Set<String> roots;
+
+    private FeignClientsIndex(boolean present, Set<String> clients, Set<String> roots) {
+        this.present = present;
+        this.clients = clients;
+        this.roots = roots;
+    }
+
+    /**
+     * 获取类加载器中的索引，按类加载器缓存
+     *
+     * @param classLoader 类加载器
+     * @return 索引
+     */
+    static FeignClientsIndex forClassLoader(ClassLoader classLoader) {
+        return CACHE.computeIfAbsent(classLoader, FeignClientsIndex::load);
+    }
+
+    /**
+     * 加载类加载器中的全部索引
+     *
+     * @param classLoader 类加载器
+     * @return 索引
+     */
+    private static FeignClientsIndex load(ClassLoader classLoader) {
+        boolean present = false;
+        Set<String> clients = new TreeSet<>();
+        Set<String> roots = new HashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(RESOURCE_LOCATION);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            clients.add(line);
+                        }
+                    }
+                }
+                roots.add(getRoot(url, RESOURCE_LOCATION));
+                present = true;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to load feign clients index from location [" + RESOURCE_LOCATION + "]", e);
+            present = false;
+            clients.clear();
+        }
+        return new FeignClientsIndex(present, clients, roots);
+    }
+
+    /**
+     * 是否找到了索引，没有索引时需要按原有方式扫描
+     *
+     * @return 找到返回 {@code true}
+     */
+    boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * 获取基础包下的客户端
+     *
+     * @param basePackages 基础包，空字符串表示默认包及其子包，即全部
+     * @return 客户端类名，按类名排序
+     */
+    List<String> getClients(Collection<String> basePackages) {
+        List<String> result = new ArrayList<>();
+        for (String className : clients) {
+            for (String basePackage : basePackages) {
+                if (basePackage.isEmpty() || className.startsWith(basePackage + ".")) {
+                    result.add(className);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取基础包中有客户端可能不在索引中的包：classpath 中存在包含该包但没有索引的根
+     *
+     * <p>按包目录查找 classpath 根，与 Spring 的 classpath 扫描相同，不包含目录条目的 jar 不会被找到。
+     * 默认包无法按目录定位 classpath 根，总是视为不在索引中。</p>
+     *
+     * @param classLoader  类加载器
+     * @param basePackages 基础包
+     * @return 需要扫描的基础包，保持传入的顺序
+     */
+    Set<String> getUnindexedPackages(ClassLoader classLoader, Collection<String> basePackages) {
+        Set<String> unindexed = new LinkedHashSet<>();
+        for (String basePackage : basePackages) {
+            if (basePackage.isEmpty()) {
+                unindexed.add(basePackage);
+                continue;
+            }
+            String path = basePackage.replace('.', '/') + '/';
+            try {
+                Enumeration<URL> urls = classLoader.getResources(path);
+                while (urls.hasMoreElements()) {
+                    if (!roots.contains(getRoot(urls.nextElement(), path))) {
+                        unindexed.add(basePackage);
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Unable to find classpath roots of package [" + basePackage + "]", e);
+                unindexed.add(basePackage);
+            }
+        }
+        return unindexed;
+    }
+
+    /**
+     * 获取资源所在的 classpath 根
+     *
+     * @param url  资源地址
+     * @param path 资源的相对路径
+     * @return classpath 根的地址
+     */
+    private static String getRoot(URL url, String path) {
+        String location = url.toString();
+        return location.endsWith(path) ? location.substring(0, location.length() - path.length()) : location;
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.lang.reflect.Field;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * 按编译期索引匹配监听器的事件广播器
+ *
+ * <p>Spring 首次广播每种事件时，会为每个监听器反射解析 {@code ApplicationListener<E>} 的泛型参数。
+ * {@code @AutoListener} 监听器的事件类型已由 arco-processor-core 写入索引，这里直接按索引判断，
+ * 不在索引中的监听器仍按 {@link SimpleApplicationEventMulticaster} 的方式处理，广播顺序和错误处理不变。</p>
+ *
+ * <p>{@link IndexedSpringFactoriesLoader#install(ClassLoader)} 安装后，启动早期事件
+ * （{@code ApplicationStartingEvent}、{@code ApplicationEnvironmentPreparedEvent} 等）自动使用本广播器。
+ * 容器内的事件需要通过 {@link #register(ConfigurableApplicationContext)} 注册：</p>
+ * <pre>
+ * SpringApplication application = new SpringApplication(Application.class);
+ * application.addInitializers(IndexedApplicationEventMulticaster::register);
+ * application.run(args);
+ * </pre>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class IndexedApplicationEventMulticaster extends SimpleApplicationEventMulticaster {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(IndexedApplicationEventMulticaster.class);
+    /** 广播启动早期事件的 {@code SpringApplicationRunListener} */
+    static final String EVENT_PUBLISHING_RUN_LISTENER = "org.springframework.boot.context.event.EventPublishingRunListener";
+    /** {@code EventPublishingRunListener} 中早期事件广播器的字段 */
+    private static final String INITIAL_MULTICASTER_FIELD = "initialMulticaster";
+    /** {@code EventPublishingRunListener} 中应用的字段 */
+    private static final String APPLICATION_FIELD = "application";
+
+    /** 监听器事件类型索引 */
+    private final ApplicationListenerIndex index;
+
+    /**
+     * 创建广播器
+     *
+     * @param classLoader 加载索引的类加载器，为 {@code null} 时使用本类的类加载器
+     */
+    public IndexedApplicationEventMulticaster(@Nullable ClassLoader classLoader) {
+        this.index = ApplicationListenerIndex.forClassLoader(getClassLoader(classLoader));
+    }
+
+    /**
+     * 创建广播器，按 bean 名称登记的监听器从 beanFactory 中获取
+     *
+     * @param beanFactory bean 工厂
+     * @param classLoader 加载索引的类加载器，为 {@code null} 时使用本类的类加载器
+     */
+    public IndexedApplicationEventMulticaster(BeanFactory beanFactory, @Nullable ClassLoader classLoader) {
+        super(beanFactory);
+        this.index = ApplicationListenerIndex.forClassLoader(getClassLoader(classLoader));
+    }
+
+    /**
+     * 索引中的监听器直接按事件类判断，其余按 Spring 的泛型解析判断
+     *
+     * @param listener   监听器
+     * @param eventType  事件类型
+     * @param sourceType 事件源类型
+     * @return 监听器是否支持事件
+     */
+    @Override
+    protected boolean supportsEvent(ApplicationListener<?> listener, ResolvableType eventType, @Nullable Class<?> sourceType) {
+        Class<?> eventClass = eventType.resolve();
+        if (eventClass != null) {
+            Boolean supported = index.supportsEvent(listener.getClass(), eventClass);
+            if (supported != null) {
+                return supported;
+            }
+        }
+        return super.supportsEvent(listener, eventType, sourceType);
+    }
+
+    /**
+     * 把本广播器注册为容器的 {@code applicationEventMulticaster}，可直接作为 {@code ApplicationContextInitializer} 使用
+     *
+     * <p>容器中已有同名 bean 时跳过，保留应用自行定义的广播器。</p>
+     *
+     * @param context 尚未刷新的容器
+     */
+    public static void register(ConfigurableApplicationContext context) {
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        if (beanFactory.containsLocalBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)) {
+            LOGGER.debug("Application event multicaster already defined, skip indexed multicaster");
+            return;
+        }
+        beanFactory.registerSingleton(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME,
+            new IndexedApplicationEventMulticaster(beanFactory, context.getClassLoader()));
+    }
+
+    /**
+     * 替换 {@code EventPublishingRunListener} 广播启动早期事件的广播器
+     *
+     * <p>字段不是 Spring Boot 的公开 API，无法访问时保留原有广播器。</p>
+     *
+     * @param runListener {@code EventPublishingRunListener} 实例
+     * @param classLoader 加载索引的类加载器
+     */
+    static void replaceInitialMulticaster(Object runListener, @Nullable ClassLoader classLoader) {
+        Field multicasterField = ReflectionUtils.findField(runListener.getClass(), INITIAL_MULTICASTER_FIELD, SimpleApplicationEventMulticaster.class);
+        Field applicationField = ReflectionUtils.findField(runListener.getClass(), APPLICATION_FIELD, SpringApplication.class);
+        if (multicasterField == null || applicationField == null) {
+            LOGGER.debug("Unable to find initial multicaster of [" + runListener.getClass().getName() + "], skip indexed multicaster");
+            return;
+        }
+        try {
+            ReflectionUtils.makeAccessible(multicasterField);
+            ReflectionUtils.makeAccessible(applicationField);
+            SpringApplication application = (SpringApplication) applicationField.get(runListener);
+            IndexedApplicationEventMulticaster multicaster = new IndexedApplicationEventMulticaster(classLoader);
+            for (ApplicationListener<?> listener : application.getListeners()) {
+                multicaster.addApplicationListener(listener);
+            }
+            multicasterField.set(runListener, multicaster);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOGGER.debug("Unable to replace initial multicaster, fallback to SimpleApplicationEventMulticaster", e);
+        }
+    }
+
+    /**
+     * 获取加载索引的类加载器
+     *
+     * @param classLoader 指定的类加载器
+     * @return 类加载器
+     */
+    private static ClassLoader getClassLoader(@Nullable ClassLoader classLoader) {
+        return classLoader != null ? classLoader : IndexedApplicationEventMulticaster.class.getClassLoader();
+    }
+
+}
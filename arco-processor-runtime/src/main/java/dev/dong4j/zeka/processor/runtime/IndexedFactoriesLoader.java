@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 基于二进制索引的配置文件加载器
+ *
+ * <p>与 Spring 一样遍历 classpath 中的全部同名配置文件，对每个 classpath 根优先读取 arco 处理器生成的索引，
+ * 索引不存在或已过期（例如非 arco 构建的 jar、手工修改过的文件）时回退到解析文本文件，
+ * 因此结果与 Spring 自身的解析完全一致。{@link #loadFactories} 对应 {@code SpringFactoriesLoader} 读取的
+ * {@code spring.factories} 与 {@code aot.factories}。</p>
+ *
+ * <p>Spring Boot 通过静态方法 {@code ImportCandidates.load} 读取 {@code META-INF/spring/*.imports}，没有可以替换的扩展点，
+ * 这些文件仍由 Spring Boot 解析。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public final class IndexedFactoriesLoader {
+
+    private IndexedFactoriesLoader() {
+    }
+
+    /**
+     * 加载 classpath 中全部 factories 文件的配置
+     *
+     * @param classLoader      类加载器
+     * @param resourceLocation 文件位置，例如 {@code META-INF/spring.factories}
+     * @return 键 -> 去重后的实现类列表，按 classpath 顺序合并
+     */
+    public static Map<String, List<String>> loadFactories(ClassLoader classLoader, String resourceLocation) {
+        Map<String, Set<String>> factories = new LinkedHashMap<>();
+        for (URL url : getResources(classLoader, resourceLocation)) {
+            Map<String, List<String>> indexed = FactoriesIndex.read(url, resourceLocation);
+            if (indexed != null) {
+                for (Map.Entry<String, List<String>> entry : indexed.entrySet()) {
+                    factories.computeIfAbsent(entry.getKey(), key -> new LinkedHashSet<>()).addAll(entry.getValue());
+                }
+            } else {
+                readFactories(url, factories);
+            }
+        }
+        Map<String, List<String>> result = new LinkedHashMap<>(factories.size() * 2);
+        for (Map.Entry<String, Set<String>> entry : factories.entrySet()) {
+            result.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 获取 classpath 中的全部同名资源
+     *
+     * @param classLoader      类加载器，为 {@code null} 时使用本类的类加载器
+     * @param resourceLocation 资源位置
+     * @return 资源 URL
+     */
+    private static List<URL> getResources(ClassLoader classLoader, String resourceLocation) {
+        ClassLoader resourceClassLoader = classLoader != null ? classLoader : IndexedFactoriesLoader.class.getClassLoader();
+        try {
+            Enumeration<URL> urls = resourceClassLoader.getResources(resourceLocation);
+            return Collections.list(urls);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load resources from location [" + resourceLocation + "]", e);
+        }
+    }
+
+    /**
+     * 按 Spring 的方式解析 factories 文本文件：Properties 格式，值以逗号分隔
+     *
+     * @param url       文件 URL
+     * @param factories 合并结果
+     */
+    private static void readFactories(URL url, Map<String, Set<String>> factories) {
+        Properties properties = new Properties();
+        try (InputStream input = url.openStream()) {
+            properties.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load factories from location [" + url + "]", e);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            Set<String> values = factories.computeIfAbsent(key.trim(), k -> new LinkedHashSet<>());
+            for (String value : properties.getProperty(key).split(",")) {
+                String name = value.trim();
+                if (!name.isEmpty()) {
+                    values.add(name);
+                }
+            }
+        }
+    }
+
+}
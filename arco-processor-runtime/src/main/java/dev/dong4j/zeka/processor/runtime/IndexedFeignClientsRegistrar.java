@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 按编译期索引注册 Feign 客户端，由 {@link EnableIndexedFeignClients} 导入
+ *
+ * <p>{@code @EnableFeignClients} 未指定 {@code clients} 时扫描基础包查找 {@code @FeignClient} 接口。本注册器从
+ * {@code META-INF/arco/feign-clients} 中取出基础包下的客户端，以 {@code clients} 的形式交给 Spring Cloud
+ * OpenFeign 的 {@code FeignClientsRegistrar}，由它按原有方式创建 {@code FeignClientFactoryBean}，不再扫描 classpath。
+ * 客户端的 bean 定义与 {@code @EnableFeignClients} 注册的完全相同。</p>
+ *
+ * <p>基础包出现在没有索引的 classpath 根（未经 {@code arco-processor-core} 处理的 jar）中时，只扫描这些基础包，
+ * 结果与索引中的客户端合并去重，并输出 info 日志；全部基础包都需要扫描、classpath 中没有索引或基础包下没有客户端时，
+ * 按 {@code @EnableFeignClients} 的方式扫描基础包。指定 {@link EnableIndexedFeignClients#scan()} 时总是扫描。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class IndexedFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, ResourceLoaderAware, EnvironmentAware, BeanClassLoaderAware {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(IndexedFeignClientsRegistrar.class);
+    /** Spring Cloud OpenFeign 的注册器，非 public */
+    static final String FEIGN_CLIENTS_REGISTRAR = "org.springframework.cloud.openfeign.FeignClientsRegistrar";
+    /** 注册器读取的注解 */
+    static final String ENABLE_FEIGN_CLIENTS = "org.springframework.cloud.openfeign.EnableFeignClients";
+    /** 客户端注解 */
+    static final String FEIGN_CLIENT = "org.springframework.cloud.openfeign.FeignClient";
+
+    /** 资源加载器 */
+    private ResourceLoader resourceLoader;
+    /** 环境 */
+    private Environment environment;
+    /** 类加载器 */
+    private ClassLoader classLoader = IndexedFeignClientsRegistrar.class.getClassLoader();
+
+    @Override
+    public void setResourceLoader(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public void registerBeanDefinitions(AnnotationMetadata metadata, BeanDefinitionRegistry registry) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(EnableIndexedFeignClients.class.getName());
+        Set<String> basePackages = getBasePackages(metadata, attributes);
+        Map<String, Object> feignAttributes = new LinkedHashMap<>();
+        feignAttributes.put("value", new String[0]);
+        feignAttributes.put("basePackages", basePackages.toArray(new String[0]));
+        feignAttributes.put("basePackageClasses", new Class<?>[0]);
+        feignAttributes.put("defaultConfiguration", attributes != null ? attributes.get("defaultConfiguration") : new Class<?>[0]);
+
+        // clients 为空时 FeignClientsRegistrar 按基础包扫描
+        feignAttributes.put("clients", attributes != null && Boolean.TRUE.equals(attributes.get("scan"))
+            ? new Class<?>[0] : getIndexedClients(basePackages));
+        createFeignClientsRegistrar().registerBeanDefinitions(withFeignAttributes(metadata, feignAttributes), registry);
+    }
+
+    /**
+     * 从索引中获取基础包下的客户端，没有索引的 classpath 根中的基础包通过扫描补充
+     *
+     * @param basePackages 基础包
+     * @return 客户端接口，没有索引、全部基础包都需要扫描或基础包下没有客户端时为空
+     */
+    private Class<?>[] getIndexedClients(Set<String> basePackages) {
+        FeignClientsIndex index = FeignClientsIndex.forClassLoader(classLoader);
+        if (!index.isPresent()) {
+            LOGGER.debug("No feign clients index found at location [" + FeignClientsIndex.RESOURCE_LOCATION + "], scan " + basePackages);
+            return new Class<?>[0];
+        }
+        Set<String> unindexed = index.getUnindexedPackages(classLoader, basePackages);
+        if (unindexed.size() == basePackages.size()) {
+            LOGGER.info("Feign clients in " + basePackages + " are not all indexed, scan instead");
+            return new Class<?>[0];
+        }
+        Set<String> clientNames = new LinkedHashSet<>(index.getClients(basePackages));
+        if (!unindexed.isEmpty()) {
+            LOGGER.info("Feign clients in " + unindexed + " are not all indexed, scan these packages");
+            clientNames.addAll(scanClients(unindexed));
+        }
+        if (clientNames.isEmpty()) {
+            LOGGER.debug("No indexed feign clients in " + basePackages + ", scan instead");
+            return new Class<?>[0];
+        }
+        Class<?>[] clients = new Class<?>[clientNames.size()];
+        int i = 0;
+        for (String clientName : clientNames) {
+            clients[i++] = ClassUtils.resolveClassName(clientName, classLoader);
+        }
+        return clients;
+    }
+
+    /**
+     * 按 {@code FeignClientsRegistrar} 的方式扫描基础包下的客户端
+     *
+     * @param basePackages 基础包
+     * @return 客户端类名
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> scanClients(Set<String> basePackages) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isIndependent() && !beanDefinition.getMetadata().isAnnotation();
+            }
+        };
+        if (environment != null) {
+            scanner.setEnvironment(environment);
+        }
+        if (resourceLoader != null) {
+            scanner.setResourceLoader(resourceLoader);
+        }
+        scanner.addIncludeFilter(new AnnotationTypeFilter((Class<? extends Annotation>) ClassUtils.resolveClassName(FEIGN_CLIENT, classLoader)));
+        Set<String> clients = new TreeSet<>();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                clients.add(candidate.getBeanClassName());
+            }
+        }
+        return clients;
+    }
+
+    /**
+     * 计算基础包，规则与 {@code @EnableFeignClients} 相同
+     *
+     * @param metadata   标注类的元数据
+     * @param attributes {@link EnableIndexedFeignClients} 的属性
+     * @return 基础包
+     */
+    private static Set<String> getBasePackages(AnnotationMetadata metadata, Map<String, Object> attributes) {
+        Set<String> basePackages = new LinkedHashSet<>();
+        if (attributes != null) {
+            for (String key : new String[]{"value", "basePackages"}) {
+                for (String basePackage : (String[]) attributes.get(key)) {
+                    if (StringUtils.hasText(basePackage)) {
+                        basePackages.add(basePackage.trim());
+                    }
+                }
+            }
+            for (Class<?> basePackageClass : (Class<?>[]) attributes.get("basePackageClasses")) {
+                basePackages.add(ClassUtils.getPackageName(basePackageClass));
+            }
+        }
+        if (basePackages.isEmpty()) {
+            basePackages.add(ClassUtils.getPackageName(metadata.getClassName()));
+        }
+        return basePackages;
+    }
+
+    /**
+     * 创建 Spring Cloud OpenFeign 的注册器
+     *
+     * @return 注册器
+     */
+    private ImportBeanDefinitionRegistrar createFeignClientsRegistrar() {
+        ImportBeanDefinitionRegistrar registrar;
+        try {
+            Class<?> registrarClass = ClassUtils.forName(FEIGN_CLIENTS_REGISTRAR, classLoader);
+            registrar = (ImportBeanDefinitionRegistrar) BeanUtils.instantiateClass(registrarClass.getDeclaredConstructor());
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError | ClassCastException e) {
+            throw new IllegalStateException("@EnableIndexedFeignClients requires Spring Cloud OpenFeign on the classpath", e);
+        }
+        if (registrar instanceof ResourceLoaderAware && resourceLoader != null) {
+            ((ResourceLoaderAware) registrar).setResourceLoader(resourceLoader);
+        }
+        if (registrar instanceof EnvironmentAware && environment != null) {
+            ((EnvironmentAware) registrar).setEnvironment(environment);
+        }
+        return registrar;
+    }
+
+    /**
+     * 包装标注类的元数据，读取 {@code @EnableFeignClients} 的属性时返回指定的属性，其余方法委托给原元数据
+     *
+     * @param metadata   标注类的元数据
+     * @param attributes {@code @EnableFeignClients} 的属性，类型值为 {@code Class} 数组
+     * @return 元数据
+     */
+    private static AnnotationMetadata withFeignAttributes(AnnotationMetadata metadata, Map<String, Object> attributes) {
+        return (AnnotationMetadata) Proxy.newProxyInstance(IndexedFeignClientsRegistrar.class.getClassLoader(),
+            new Class<?>[]{AnnotationMetadata.class}, (proxy, method, args) -> {
+                if ("getAnnotationAttributes".equals(method.getName()) && args != null && ENABLE_FEIGN_CLIENTS.equals(args[0])) {
+                    boolean classValuesAsString = args.length > 1 && Boolean.TRUE.equals(args[1]);
+                    return classValuesAsString ? toClassNames(attributes) : new LinkedHashMap<>(attributes);
+                }
+                try {
+                    return method.invoke(metadata, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+
+    /**
+     * 将属性中的类型值转换为类名
+     *
+     * @param attributes 属性
+     * @return 转换后的属性
+     */
+    private static Map<String, Object> toClassNames(Map<String, Object> attributes) {
+        Map<String, Object> converted = new LinkedHashMap<>();
+        attributes.forEach((name, value) -> {
+            if (value instanceof Class<?>[]) {
+                Class<?>[] classes = (Class<?>[]) value;
+                String[] classNames = new String[classes.length];
+                for (int i = 0; i < classes.length; i++) {
+                    classNames[i] = classes[i].getName();
+                }
+                converted.put(name, classNames);
+            } else {
+                converted.put(name, value);
+            }
+        });
+        return converted;
+    }
+
+}
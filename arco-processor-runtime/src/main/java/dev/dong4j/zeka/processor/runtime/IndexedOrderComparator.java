@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * 按编译期排序值排序的 {@link AnnotationAwareOrderComparator}
+ *
+ * <p>排序值由 {@code arco-processor-core} 为登记到 {@code spring.factories} 的实现类生成，位于
+ * {@code META-INF/arco/factories.order}，每行为“类名=排序值”。索引中的类直接使用记录的值，
+ * 不再反射查找 {@code @Order}、{@code @Priority}；其余对象按 {@link AnnotationAwareOrderComparator} 的方式判断。
+ * {@code PriorityOrdered} 优先的规则不变。</p>
+ *
+ * <p>{@link IndexedSpringFactoriesLoader} 加载的实现类使用本比较器排序，其他场景可以通过 {@link #sort(List, ClassLoader)} 使用。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class IndexedOrderComparator extends AnnotationAwareOrderComparator {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(IndexedOrderComparator.class);
+    /** 排序值位置 */
+    static final String RESOURCE_LOCATION = "META-INF/arco/factories.order";
+    /** 类加载器 -> 比较器 */
+    private static final Map<ClassLoader, IndexedOrderComparator> CACHE = new ConcurrentReferenceHashMap<>();
+
+    /** 类名 -> 排序值 */
+    private final Map<String, Integer> orders;
+
+    /**
+     * 创建比较器
+     *
+     * @param orders 类名 -> 排序值
+     */
+    protected IndexedOrderComparator(Map<String, Integer> orders) {
+        this.orders = orders;
+    }
+
+    /**
+     * 获取类加载器中排序值对应的比较器，按类加载器缓存
+     *
+     * @param classLoader 类加载器，为 {@code null} 时使用本类的类加载器
+     * @return 比较器
+     */
+    public static IndexedOrderComparator forClassLoader(@Nullable ClassLoader classLoader) {
+        ClassLoader resourceClassLoader = classLoader != null ? classLoader : IndexedOrderComparator.class.getClassLoader();
+        return CACHE.computeIfAbsent(resourceClassLoader, IndexedOrderComparator::load);
+    }
+
+    /**
+     * 排序，与 {@link AnnotationAwareOrderComparator#sort(List)} 的结果相同
+     *
+     * @param list        待排序的对象
+     * @param classLoader 加载排序值的类加载器，为 {@code null} 时使用本类的类加载器
+     */
+    public static void sort(List<?> list, @Nullable ClassLoader classLoader) {
+        if (list.size() > 1) {
+            list.sort(forClassLoader(classLoader));
+        }
+    }
+
+    /**
+     * 加载类加载器中的全部排序值
+     *
+     * @param classLoader 类加载器
+     * @return 比较器
+     */
+    private static IndexedOrderComparator load(ClassLoader classLoader) {
+        Map<String, Integer> orders = new HashMap<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(RESOURCE_LOCATION);
+            while (urls.hasMoreElements()) {
+                Properties properties = new Properties();
+                try (InputStream in = urls.nextElement().openStream()) {
+                    properties.load(in);
+                }
+                for (String className : properties.stringPropertyNames()) {
+                    try {
+                        orders.put(className, Integer.valueOf(properties.getProperty(className).trim()));
+                    } catch (NumberFormatException e) {
+                        LOGGER.debug("Skip invalid order of [" + className + "]", e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to load factory orders from location [" + RESOURCE_LOCATION + "]", e);
+        }
+        return new IndexedOrderComparator(orders);
+    }
+
+    /**
+     * 索引中的类直接返回记录的排序值，其余按 {@link AnnotationAwareOrderComparator} 的方式查找
+     *
+     * @param obj 待排序的对象
+     * @return 排序值，没有时返回 {@code null}
+     */
+    @Override
+    @Nullable
+    protected Integer findOrder(Object obj) {
+        Integer order = orders.get(obj.getClass().getName());
+        return order != null ? order : super.findOrder(obj);
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2019-2029, Dreamlu 卢春梦 (596392912@qq.com & www.dreamlu.net).
+ * <p>
+ * Licensed under the GNU LESSER GENERAL PUBLIC LICENSE 3.0;
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.gnu.org/licenses/lgpl.html
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dong4j.zeka.processor.runtime;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * 基于二进制索引的 {@link SpringFactoriesLoader}
+ *
+ * <p>配置由 {@link IndexedFactoriesLoader} 加载：arco 构建的 jar 直接读取索引，其余 jar 回退到解析文本文件。
+ * 实例化、参数解析和失败处理沿用 {@link SpringFactoriesLoader} 的实现，行为与 Spring 默认的加载器一致。</p>
+ *
+ * <p><strong>使用方式：</strong>Spring Boot 在启动过程中通过静态方法
+ * {@link SpringFactoriesLoader#forDefaultResourceLocation(ClassLoader)} 获取加载器，并按类加载器缓存。
+ * 在 {@code SpringApplication.run} 之前调用 {@link #install(ClassLoader)}，把本类的实例放入该缓存：</p>
+ * <pre>
+ * public static void main(String[] args) {
+ *     IndexedSpringFactoriesLoader.install(Application.class.getClassLoader());
+ *     SpringApplication.run(Application.class, args);
+ * }
+ * </pre>
+ *
+ * <p>模块开启 {@code -Aarco.registry=true} 编译时，实例由生成的 {@link FactoryRegistry} 直接调用构造器创建，
+ * 不在注册表中的实现类回退到反射。</p>
+ *
+ * <p>加载的实现类按编译期记录的排序值排序，见 {@link IndexedOrderComparator}。</p>
+ *
+ * <p>安装后启动早期事件由 {@link IndexedApplicationEventMulticaster} 按编译期的监听器事件类型索引广播。</p>
+ *
+ * <p>缓存字段不是 Spring 的公开 API，无法访问时 {@link #install} 返回 {@code false}，Spring 按原有方式解析文本文件。</p>
+ *
+ * @author L.cm
+ * @since 1.0.0
+ */
+public class IndexedSpringFactoriesLoader extends SpringFactoriesLoader {
+    /** 日志 */
+    private static final Log LOGGER = LogFactory.getLog(IndexedSpringFactoriesLoader.class);
+    /** {@link SpringFactoriesLoader} 中按类加载器和文件位置缓存加载器的静态字段 */
+    private static final String CACHE_FIELD = "cache";
+    /** 类加载器 -> 文件位置 -> 加载器 */
+    private static final Map<ClassLoader, Map<String, IndexedSpringFactoriesLoader>> CACHE = new ConcurrentReferenceHashMap<>();
+
+    /** 类加载器 */
+    @Nullable
+    private final ClassLoader classLoader;
+    /** 键 -> 实现类列表 */
+    private final Map<String, List<String>> factories;
+    /** 编译期生成的注册表，首次实例化时加载 */
+    private volatile FactoryRegistries registries;
+
+    /**
+     * 创建加载器
+     *
+     * @param classLoader 类加载器
+     * @param factories   键 -> 实现类列表
+     */
+    protected IndexedSpringFactoriesLoader(@Nullable ClassLoader classLoader, Map<String, List<String>> factories) {
+        super(classLoader, factories);
+        this.classLoader = classLoader;
+        this.factories = factories;
+    }
+
+    /**
+     * 实例化全部实现类，按编译期记录的排序值排序
+     *
+     * <p>与 {@link SpringFactoriesLoader} 的实现相同，只是排序使用 {@link IndexedOrderComparator}，
+     * 索引中的类不再反射查找 {@code @Order}、{@code @Priority}。</p>
+     *
+     * @param factoryType      factories 类型
+     * @param argumentResolver 构造器参数解析器
+     * @param failureHandler   失败处理器，为 {@code null} 时抛出异常
+     * @param <T>              factories 类型
+     * @return 排序后的实例
+     */
+    @Override
+    public <T> List<T> load(Class<T> factoryType, @Nullable ArgumentResolver argumentResolver, @Nullable FailureHandler failureHandler) {
+        List<String> implementationNames = factories.getOrDefault(factoryType.getName(), Collections.emptyList());
+        List<T> result = new ArrayList<>(implementationNames.size());
+        FailureHandler failureHandlerToUse = failureHandler != null ? failureHandler : FailureHandler.throwing();
+        for (String implementationName : implementationNames) {
+            T factory = instantiateFactory(implementationName, factoryType, argumentResolver, failureHandlerToUse);
+            if (factory != null) {
+                result.add(factory);
+            }
+        }
+        IndexedOrderComparator.sort(result, classLoader);
+        return result;
+    }
+
+    /**
+     * 优先通过编译期生成的注册表直接创建实例，注册表中没有时按 Spring 的方式反射创建
+     *
+     * <p>{@code EventPublishingRunListener} 创建后，其启动早期事件的广播器替换为 {@link IndexedApplicationEventMulticaster}。</p>
+     *
+     * @param implementationName 实现类全限定名
+     * @param type               factories 类型
+     * @param argumentResolver   构造器参数解析器
+     * @param failureHandler     失败处理器
+     * @param <T>                factories 类型
+     * @return 实例，失败处理器忽略失败时返回 {@code null}
+     */
+    @Override
+    @Nullable
+    protected <T> T instantiateFactory(String implementationName, Class<T> type,
+                                       @Nullable ArgumentResolver argumentResolver, FailureHandler failureHandler) {
+        Object instance;
+        try {
+            instance = getRegistries().instantiate(implementationName, argumentResolver);
+        } catch (Throwable ex) {
+            failureHandler.handleFailure(type, implementationName, ex);
+            return null;
+        }
+        T factory = type.isInstance(instance) ? type.cast(instance)
+            : super.instantiateFactory(implementationName, type, argumentResolver, failureHandler);
+        if (factory != null && IndexedApplicationEventMulticaster.EVENT_PUBLISHING_RUN_LISTENER.equals(implementationName)) {
+            IndexedApplicationEventMulticaster.replaceInitialMulticaster(factory, classLoader);
+        }
+        return factory;
+    }
+
+    /**
+     * 获取编译期生成的注册表
+     *
+     * @return 注册表集合
+     */
+    private FactoryRegistries getRegistries() {
+        FactoryRegistries loaded = registries;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = registries;
+                if (loaded == null) {
+                    loaded = FactoryRegistries.load(classLoader != null ? classLoader : IndexedSpringFactoriesLoader.class.getClassLoader());
+                    registries = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 获取 {@code META-INF/spring.factories} 的加载器
+     *
+     * @param classLoader 类加载器，为 {@code null} 时使用本类的类加载器
+     * @return 加载器
+     */
+    public static IndexedSpringFactoriesLoader forDefaultResourceLocation(@Nullable ClassLoader classLoader) {
+        return forResourceLocation(FACTORIES_RESOURCE_LOCATION, classLoader);
+    }
+
+    /**
+     * 获取指定文件位置的加载器，例如 {@code META-INF/spring/aot.factories}
+     *
+     * @param resourceLocation 文件位置
+     * @param classLoader      类加载器，为 {@code null} 时使用本类的类加载器
+     * @return 加载器
+     */
+    public static IndexedSpringFactoriesLoader forResourceLocation(String resourceLocation, @Nullable ClassLoader classLoader) {
+        ClassLoader resourceClassLoader = classLoader != null ? classLoader : IndexedSpringFactoriesLoader.class.getClassLoader();
+        Map<String, IndexedSpringFactoriesLoader> loaders = CACHE.computeIfAbsent(resourceClassLoader, key -> new ConcurrentReferenceHashMap<>());
+        return loaders.computeIfAbsent(resourceLocation, key ->
+            new IndexedSpringFactoriesLoader(classLoader, IndexedFactoriesLoader.loadFactories(resourceClassLoader, resourceLocation)));
+    }
+
+    /**
+     * 让 Spring 对 {@code META-INF/spring.factories} 使用本加载器
+     *
+     * @param classLoader 应用的类加载器
+     * @return 安装成功返回 {@code true}；Spring 已经为该类加载器创建过加载器或缓存字段无法访问时返回 {@code false}
+     */
+    public static boolean install(@Nullable ClassLoader classLoader) {
+        return install(FACTORIES_RESOURCE_LOCATION, classLoader);
+    }
+
+    /**
+     * 让 Spring 对指定文件位置使用本加载器
+     *
+     * @param resourceLocation 文件位置
+     * @param classLoader      应用的类加载器
+     * @return 安装成功返回 {@code true}；Spring 已经为该类加载器创建过加载器或缓存字段无法访问时返回 {@code false}
+     */
+    public static boolean install(String resourceLocation, @Nullable ClassLoader classLoader) {
+        return install(resourceLocation, classLoader, CACHE_FIELD);
+    }
+
+    /**
+     * 通过指定的缓存字段安装本加载器
+     *
+     * @param resourceLocation 文件位置
+     * @param classLoader      应用的类加载器
+     * @param cacheField       {@link SpringFactoriesLoader} 中缓存加载器的静态字段名
+     * @return 安装成功返回 {@code true}；已经创建过加载器或字段无法访问时返回 {@code false}
+     */
+    @SuppressWarnings("unchecked")
+    static boolean install(String resourceLocation, @Nullable ClassLoader classLoader, String cacheField) {
+        ClassLoader resourceClassLoader = classLoader != null ? classLoader : SpringFactoriesLoader.class.getClassLoader();
+        try {
+            Field field = SpringFactoriesLoader.class.getDeclaredField(cacheField);
+            ReflectionUtils.makeAccessible(field);
+            Map<ClassLoader, Map<String, SpringFactoriesLoader>> cache = (Map<ClassLoader, Map<String, SpringFactoriesLoader>>) field.get(null);
+            Map<String, SpringFactoriesLoader> loaders = cache.computeIfAbsent(resourceClassLoader, key -> new ConcurrentReferenceHashMap<>());
+            boolean installed = loaders.putIfAbsent(resourceLocation, forResourceLocation(resourceLocation, classLoader)) == null;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Indexed factories loader for [" + resourceLocation + "] " + (installed ? "installed" : "skipped, already loaded"));
+            }
+            return installed;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to install indexed factories loader, fallback to SpringFactoriesLoader", e);
+            return false;
+        }
+    }
+
+}
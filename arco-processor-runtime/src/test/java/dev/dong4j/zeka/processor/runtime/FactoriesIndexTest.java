@@ -0,0 +1,75 @@
+package dev.dong4j.zeka.processor.runtime;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * <p>Description: {@link FactoriesIndex} 解码与过期判断测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class FactoriesIndexTest {
+
+    /** 文本文件内容 */
+    private static final byte[] SOURCE = "b.Key=demo.用户Listener,demo.A\na.Key=demo.A\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 解码得到编码时的键值，键和值保持写入的顺序，共享的字符串只解码一次
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void decodesInWrittenOrder() {
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        entries.put("b.Key", Arrays.asList("demo.用户Listener", "demo.A"));
+        entries.put("a.Key", Collections.singletonList("demo.A"));
+        Map<String, List<String>> decoded = decode(TestIndexes.encode(entries, SOURCE), SOURCE.length, TestIndexes.crc(SOURCE));
+
+        assertEquals(entries, decoded);
+        assertEquals(Arrays.asList("b.Key", "a.Key"), Arrays.asList(decoded.keySet().toArray()));
+        assertEquals(decoded.get("b.Key").get(1), decoded.get("a.Key").get(0));
+    }
+
+    /**
+     * 长度或 CRC32 与记录的不一致时视为过期；CRC32 未知时只比较长度
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void rejectsStaleOrCorruptIndexes() {
+        Map<String, List<String>> entries = Collections.singletonMap("a.Key", Collections.singletonList("demo.A"));
+        byte[] index = TestIndexes.encode(entries, SOURCE);
+
+        assertNull(decode(index, SOURCE.length + 1, TestIndexes.crc(SOURCE)));
+        assertNull(decode(index, SOURCE.length, TestIndexes.crc(SOURCE) + 1));
+        assertEquals(entries, decode(index, SOURCE.length, -1L));
+        assertNull(decode(Arrays.copyOf(index, index.length - 2), SOURCE.length, TestIndexes.crc(SOURCE)));
+        index[0] = 0;
+        assertNull(decode(index, SOURCE.length, TestIndexes.crc(SOURCE)));
+    }
+
+    /**
+     * 解码索引
+     *
+     * @param index  索引内容
+     * @param length 文本文件长度
+     * @param crc    文本文件的 CRC32
+     * @return 键值
+     */
+    private static Map<String, List<String>> decode(byte[] index, long length, long crc) {
+        return FactoriesIndex.decode(ByteBuffer.wrap(index), length, crc);
+    }
+
+}
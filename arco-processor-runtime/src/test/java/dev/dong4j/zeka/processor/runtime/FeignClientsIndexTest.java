@@ -0,0 +1,75 @@
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link FeignClientsIndex} 读取与覆盖范围测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class FeignClientsIndexTest {
+
+    /**
+     * 包只出现在包含索引（包括空索引）的 classpath 根中时视为已索引，任一没有索引的根包含该包时需要扫描
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void findsPackagesOutsideIndexedRoots() throws IOException {
+        Map<String, byte[]> indexed = new LinkedHashMap<>();
+        indexed.put("demo/", new byte[0]);
+        indexed.put("demo/order/", new byte[0]);
+        indexed.put(FeignClientsIndex.RESOURCE_LOCATION, "# clients\ndemo.order.OrderClient\n".getBytes(StandardCharsets.UTF_8));
+        Map<String, byte[]> empty = new LinkedHashMap<>();
+        empty.put("demo/", new byte[0]);
+        empty.put("demo/user/", new byte[0]);
+        empty.put(FeignClientsIndex.RESOURCE_LOCATION, new byte[0]);
+        Map<String, byte[]> plain = new LinkedHashMap<>();
+        plain.put("demo/", new byte[0]);
+        plain.put("demo/stock/", new byte[0]);
+
+        try (URLClassLoader classLoader = newClassLoader(TestIndexes.jar(indexed), TestIndexes.directory(empty), TestIndexes.jar(plain))) {
+            FeignClientsIndex index = FeignClientsIndex.forClassLoader(classLoader);
+            assertTrue(index.isPresent());
+            assertEquals(Collections.singletonList("demo.order.OrderClient"), index.getClients(Collections.singleton("demo")));
+            assertEquals(Collections.emptySet(), index.getUnindexedPackages(classLoader, Arrays.asList("demo.order", "demo.user", "demo.none")));
+            assertEquals(Collections.singleton("demo.stock"), index.getUnindexedPackages(classLoader, Arrays.asList("demo.order", "demo.stock")));
+            assertEquals(Collections.singleton("demo"), index.getUnindexedPackages(classLoader, Collections.singleton("demo")));
+            assertEquals(Collections.singleton(""), index.getUnindexedPackages(classLoader, Collections.singleton("")));
+        }
+    }
+
+    /**
+     * 只包含给定 classpath 根的类加载器
+     *
+     * @param roots classpath 根
+     * @return 类加载器
+     */
+    private static URLClassLoader newClassLoader(Path... roots) {
+        URL[] urls = Arrays.stream(roots).map(root -> {
+            try {
+                return root.toUri().toURL();
+            } catch (MalformedURLException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }).toArray(URL[]::new);
+        return new URLClassLoader(urls, null);
+    }
+
+}
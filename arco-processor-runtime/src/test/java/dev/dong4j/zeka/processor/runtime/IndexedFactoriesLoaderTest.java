@@ -0,0 +1,122 @@
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * <p>Description: {@link IndexedFactoriesLoader} 读取索引与回退解析测试 </p>
+ *
+ * <p>测试中的索引故意记录与文本文件不同的值，据此区分结果来自索引还是文本文件。</p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class IndexedFactoriesLoaderTest {
+
+    /** 文本文件位置 */
+    private static final String LOCATION = "META-INF/spring.factories";
+    /** 索引位置 */
+    private static final String INDEX_LOCATION = "META-INF/arco/spring.factories.idx";
+    /** 文本文件内容 */
+    private static final byte[] SOURCE = "demo.Key=demo.FromText\n".getBytes(StandardCharsets.UTF_8);
+    /** 索引中的键值 */
+    private static final Map<String, List<String>> INDEXED = Collections.singletonMap("demo.Key", Collections.singletonList("demo.FromIndex"));
+    /** 文本文件解析出的键值 */
+    private static final Map<String, List<String>> PARSED = Collections.singletonMap("demo.Key", Collections.singletonList("demo.FromText"));
+
+    /**
+     * jar 目录中记录的长度和 CRC32 与索引一致时读取索引，不解析文本文件
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void readsIndexFromJars() throws IOException {
+        assertEquals(INDEXED, load(TestIndexes.jar(resources(SOURCE, TestIndexes.encode(INDEXED, SOURCE)))));
+    }
+
+    /**
+     * 目录中的文本文件只比较长度
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void readsIndexFromDirectories() throws IOException {
+        assertEquals(INDEXED, load(TestIndexes.directory(resources(SOURCE, TestIndexes.encode(INDEXED, SOURCE)))));
+    }
+
+    /**
+     * 文本文件与生成索引时不同（长度相同、内容不同）时回退到解析文本文件
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void fallsBackWhenIndexIsStale() throws IOException {
+        byte[] previous = "demo.Key=demo.FromIdx0\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals(SOURCE.length, previous.length);
+        assertEquals(PARSED, load(TestIndexes.jar(resources(SOURCE, TestIndexes.encode(INDEXED, previous)))));
+    }
+
+    /**
+     * 没有索引的 classpath 根解析文本文件，与有索引的根按 classpath 顺序合并去重
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void fallsBackWhenIndexIsMissing() throws IOException {
+        Path plain = TestIndexes.jar(Collections.singletonMap(LOCATION, "demo.Key=demo.FromText,demo.Shared\n".getBytes(StandardCharsets.UTF_8)));
+        Map<String, List<String>> indexed = new LinkedHashMap<>();
+        indexed.put("demo.Key", Arrays.asList("demo.FromIndex", "demo.Shared"));
+        Path arco = TestIndexes.jar(resources(SOURCE, TestIndexes.encode(indexed, SOURCE)));
+
+        assertEquals(Collections.singletonMap("demo.Key", Arrays.asList("demo.FromText", "demo.Shared", "demo.FromIndex")), load(plain, arco));
+    }
+
+    /**
+     * 同一个 classpath 根中的文本文件和索引
+     *
+     * @param source 文本文件内容
+     * @param index  索引内容
+     * @return 相对路径 -> 内容
+     */
+    private static Map<String, byte[]> resources(byte[] source, byte[] index) {
+        Map<String, byte[]> resources = new LinkedHashMap<>();
+        resources.put(LOCATION, source);
+        resources.put(INDEX_LOCATION, index);
+        return resources;
+    }
+
+    /**
+     * 用只包含给定 classpath 根的类加载器加载
+     *
+     * @param roots classpath 根
+     * @return 键值
+     * @throws IOException 关闭类加载器时发生的 IO 异常
+     */
+    private static Map<String, List<String>> load(Path... roots) throws IOException {
+        URL[] urls = Arrays.stream(roots).map(root -> {
+            try {
+                return root.toUri().toURL();
+            } catch (MalformedURLException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }).toArray(URL[]::new);
+        try (URLClassLoader classLoader = new URLClassLoader(urls, null)) {
+            return IndexedFactoriesLoader.loadFactories(classLoader, LOCATION);
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>Description: {@link IndexedSpringFactoriesLoader#install} 测试 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+class IndexedSpringFactoriesLoaderTest {
+
+    /**
+     * 安装后 Spring 对该类加载器返回本加载器；已经存在加载器时不覆盖
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void installsIntoSpringCache() throws IOException {
+        try (URLClassLoader classLoader = newClassLoader()) {
+            assertTrue(IndexedSpringFactoriesLoader.install(classLoader));
+            SpringFactoriesLoader loader = SpringFactoriesLoader.forDefaultResourceLocation(classLoader);
+            assertTrue(loader instanceof IndexedSpringFactoriesLoader);
+            assertFalse(IndexedSpringFactoriesLoader.install(classLoader));
+            assertSame(loader, SpringFactoriesLoader.forDefaultResourceLocation(classLoader));
+        }
+    }
+
+    /**
+     * 缓存字段无法访问时返回 {@code false}，不抛出异常，Spring 保持默认的加载器
+     *
+     * @since 1.0.0
+     */
+    @Test
+    void keepsSpringDefaultWhenCacheIsInaccessible() throws IOException {
+        try (URLClassLoader classLoader = newClassLoader()) {
+            assertFalse(IndexedSpringFactoriesLoader.install(SpringFactoriesLoader.FACTORIES_RESOURCE_LOCATION, classLoader, "missingCache"));
+            assertFalse(SpringFactoriesLoader.forDefaultResourceLocation(classLoader) instanceof IndexedSpringFactoriesLoader);
+        }
+    }
+
+    /**
+     * 只包含一个 factories 文件的类加载器，每个测试使用独立的缓存键
+     *
+     * @return 类加载器
+     */
+    private static URLClassLoader newClassLoader() {
+        byte[] source = "demo.Key=demo.Value\n".getBytes(StandardCharsets.UTF_8);
+        URL root;
+        try {
+            root = TestIndexes.directory(Collections.singletonMap(SpringFactoriesLoader.FACTORIES_RESOURCE_LOCATION, source)).toUri().toURL();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new URLClassLoader(new URL[]{root}, null);
+    }
+
+}
@@ -0,0 +1,138 @@
+package dev.dong4j.zeka.processor.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Description: 测试用的索引与 classpath 根，索引按 arco-processor-core 中 {@code FactoriesIndex} 的格式编码 </p>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @email "mailto:dong4j@gmail.com"
+ * @since 1.0.0
+ */
+final class TestIndexes {
+
+    private TestIndexes() {
+    }
+
+    /**
+     * 按生成端的格式编码索引
+     *
+     * @param entries 键 -> 值列表
+     * @param source  索引记录的文本文件内容
+     * @return 索引内容
+     * @since 1.0.0
+     */
+    static byte[] encode(Map<String, List<String>> entries, byte[] source) {
+        Set<String> strings = new TreeSet<>(entries.keySet());
+        entries.values().forEach(strings::addAll);
+        Map<String, Integer> indexes = new HashMap<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0x4152434F);
+            out.writeShort(2);
+            out.writeLong(source.length);
+            out.writeInt((int) crc(source));
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+                indexes.put(string, indexes.size());
+                out.writeShort(utf8.length);
+                out.write(utf8);
+            }
+            List<Integer> values = new ArrayList<>();
+            out.writeInt(entries.size());
+            for (Map.Entry<String, List<String>> entry : entries.entrySet()) {
+                out.writeInt(indexes.get(entry.getKey()));
+                out.writeInt(values.size());
+                out.writeInt(entry.getValue().size());
+                entry.getValue().forEach(value -> values.add(indexes.get(value)));
+            }
+            out.writeInt(values.size());
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 计算 CRC32
+     *
+     * @param content 内容
+     * @return CRC32
+     * @since 1.0.0
+     */
+    static long crc(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return crc.getValue();
+    }
+
+    /**
+     * 把资源写入新建的 jar
+     *
+     * @param resources 相对路径 -> 内容，以 {@code /} 结尾的路径为目录条目
+     * @return jar 文件
+     * @since 1.0.0
+     */
+    static Path jar(Map<String, byte[]> resources) {
+        try {
+            Path jar = Files.createTempFile("arco-runtime-test", ".jar");
+            try (OutputStream file = Files.newOutputStream(jar); JarOutputStream out = new JarOutputStream(file)) {
+                for (Map.Entry<String, byte[]> resource : resources.entrySet()) {
+                    out.putNextEntry(new JarEntry(resource.getKey()));
+                    out.write(resource.getValue());
+                    out.closeEntry();
+                }
+            }
+            return jar;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把资源写入新建的目录
+     *
+     * @param resources 相对路径 -> 内容，以 {@code /} 结尾的路径为目录
+     * @return 目录
+     * @since 1.0.0
+     */
+    static Path directory(Map<String, byte[]> resources) {
+        try {
+            Path directory = Files.createTempDirectory("arco-runtime-test");
+            for (Map.Entry<String, byte[]> resource : resources.entrySet()) {
+                Path path = directory.resolve(resource.getKey());
+                if (resource.getKey().endsWith("/")) {
+                    Files.createDirectories(path);
+                    continue;
+                }
+                Files.createDirectories(path.getParent());
+                Files.write(path, resource.getValue());
+            }
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}